@@ -1,11 +1,16 @@
 package com.pi4j.drivers.display;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
 
 /**
- * A simple bitmap font implementation, currently limited to 64 bit character cells, including a default
- * HD44780-compatible 5x8 font.
+ * A simple bitmap font implementation, including a default HD44780-compatible 5x8 font. Additional fonts can be
+ * loaded from PSF and BDF files.
  */
 public class BitmapFont {
 
@@ -21,16 +26,45 @@ public class BitmapFont {
     private static BitmapFont font5x10 = null;
     private static BitmapFont font5x10proportional = null;
 
-    // To expand supported bitmap sizes and reduce memory, perhaps change this to an interleaved int array with binary
-    // search for character lookup.
-    private final Map<Integer, Glyph> codepoints = new HashMap<>();
+    /** The number of codepoints stored in a directly indexed array (ASCII and ISO-8859-1). */
+    private static final int DENSE_CODEPOINTS = 256;
 
+    private static final int PSF1_MAGIC = 0x0436;
+    private static final int PSF1_MODE_512 = 0x01;
+    private static final int PSF1_MODE_HAS_TABLE = 0x06;
+    private static final int PSF2_MAGIC = 0x864ab572;
+    private static final int PSF2_HAS_UNICODE_TABLE = 0x01;
+
+    // Glyphs for codepoints below DENSE_CODEPOINTS are looked up directly; others via binary search in the sorted
+    // sparseCodepoints array, with the glyphs at the same index in sparseGlyphs.
+    private final Glyph[] denseGlyphs = new Glyph[DENSE_CODEPOINTS];
+    private int[] sparseCodepoints = new int[0];
+    private Glyph[] sparseGlyphs = new Glyph[0];
+    private int sparseCount;
+
+    /** Adds a character with a bitmap of up to 64 pixels. */
     public void addCharacter(int codepoint, long bitmap) {
         addCharacter(codepoint, cellWidth, bitmap);
     }
 
+    /** Adds a character with a bitmap of up to 64 pixels and the given width. */
     public void addCharacter(int codepoint, int width, long bitmap) {
-        codepoints.put(codepoint, new Glyph(width, bitmap));
+        if (wordCount > 1) {
+            throw new IllegalArgumentException("Character cells with more than 64 pixels require a long[] bitmap");
+        }
+        putGlyph(codepoint, new Glyph(width, new long[] {bitmap}));
+    }
+
+    /**
+     * Adds a character with the given width. The bitmap is stored in 64 bit words, with the pixels in the same
+     * order as for single long bitmaps: the top left pixel is the most significant bit of the last word and the
+     * bottom right pixel is the least significant bit of the first word.
+     */
+    public void addCharacter(int codepoint, int width, long[] bitmap) {
+        if (bitmap.length != wordCount) {
+            throw new IllegalArgumentException("Expected " + wordCount + " bitmap words for " + cellWidth + "x" + cellHeight + " cells");
+        }
+        putGlyph(codepoint, new Glyph(width, bitmap.clone()));
     }
 
     /** Adds bitmaps for a set of subsequent codepoints. */
@@ -44,30 +78,19 @@ public class BitmapFont {
     private final int cellWidth;
     /** The character cell height. */
     private final int cellHeight;
-
-    /** Bitmask used for checking if a column is empty */
-    private final long columnMask;
+    /** The number of 64 bit words per glyph bitmap. */
+    private final int wordCount;
 
     /**
      * Constructs an empty BitmapFont with the given character cell size.
-     * The total size is limited to 64 bit.
      */
     public BitmapFont(int cellWidth, int cellHeight) {
         if (cellWidth <= 0 || cellHeight <= 0) {
             throw new IllegalArgumentException("cellWidth & height must be > 0");
         }
-        if (cellWidth * cellHeight > 64) {
-            throw new IllegalArgumentException("bitWidth * cellHeight must be <= 64");
-        }
         this.cellWidth = cellWidth;
         this.cellHeight = cellHeight;
-        long columnMask = 0;
-        long shift = 0;
-        for (int i = 0; i < cellHeight; i++) {
-            columnMask |= 1L << shift;
-            shift += cellWidth;
-        }
-        this.columnMask = columnMask;
+        this.wordCount = (cellWidth * cellHeight + 63) / 64;
     }
 
     /**
@@ -115,10 +138,10 @@ public class BitmapFont {
                         'þ', 0b000000_001100_000100_000110_000101_000101_000101_000110_000100_001110L);
                 font5x10.addCharacter(
                         'ÿ', 0b000000_001010_000000_010001_010001_010001_010001_001111_000001_001110L);
-                for (Map.Entry<Integer, Glyph> entry : get5x8Font().codepoints.entrySet()) {
-                    int codepoint = entry.getKey();
-                    if (!font5x10.codepoints.containsKey(codepoint)) {
-                        font5x10.addCharacter(codepoint, entry.getValue().bitmap << 12);
+                BitmapFont font5x8 = get5x8Font();
+                for (int codepoint : font5x8.getCodepoints()) {
+                    if (font5x10.getGlyph(codepoint) == null) {
+                        font5x10.addCharacter(codepoint, font5x8.getGlyph(codepoint).bitmap[0] << 12);
                     }
                 }
             }
@@ -143,20 +166,257 @@ public class BitmapFont {
         return cellWidth;
     }
 
+    /** Returns the glyph for the given codepoint, or null if not available. */
     public Glyph getGlyph(int codepoint) {
-        return codepoints.get(codepoint);
+        if (codepoint >= 0 && codepoint < DENSE_CODEPOINTS) {
+            return denseGlyphs[codepoint];
+        }
+        int index = Arrays.binarySearch(sparseCodepoints, 0, sparseCount, codepoint);
+        return index >= 0 ? sparseGlyphs[index] : null;
+    }
+
+    /** Returns the codepoints supported by this font in ascending order. */
+    public int[] getCodepoints() {
+        int denseCount = 0;
+        for (Glyph glyph : denseGlyphs) {
+            if (glyph != null) {
+                denseCount++;
+            }
+        }
+        int[] result = new int[denseCount + sparseCount];
+        int pos = 0;
+        for (int codepoint = 0; codepoint < DENSE_CODEPOINTS; codepoint++) {
+            if (denseGlyphs[codepoint] != null) {
+                result[pos++] = codepoint;
+            }
+        }
+        System.arraycopy(sparseCodepoints, 0, result, pos, sparseCount);
+        return result;
     }
 
     public BitmapFont toProportional() {
         BitmapFont result = new BitmapFont(cellWidth, cellHeight);
-        for (Map.Entry<Integer, Glyph> entry : codepoints.entrySet()) {
-            result.codepoints.put(entry.getKey(), entry.getValue().toProportional());
+        for (int codepoint : getCodepoints()) {
+            result.putGlyph(codepoint, getGlyph(codepoint).toProportional());
         }
         return result;
     }
 
+    /**
+     * Loads a font in the PC Screen Font format (PSF version 1 or 2, as used for the Linux console). Glyphs are
+     * mapped to codepoints using the unicode table of the font if present; otherwise the glyph index is used as
+     * the codepoint.
+     */
+    public static BitmapFont loadPsf(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        int magic0 = in.readUnsignedByte();
+        int magic1 = in.readUnsignedByte();
+
+        int width;
+        int height;
+        int glyphCount;
+        int bytesPerGlyph;
+        boolean hasUnicodeTable;
+        boolean psf2;
+        if ((magic0 | (magic1 << 8)) == PSF1_MAGIC) {
+            psf2 = false;
+            int mode = in.readUnsignedByte();
+            height = in.readUnsignedByte();
+            width = 8;
+            bytesPerGlyph = height;
+            glyphCount = (mode & PSF1_MODE_512) != 0 ? 512 : 256;
+            hasUnicodeTable = (mode & PSF1_MODE_HAS_TABLE) != 0;
+        } else {
+            int magic = magic0 | (magic1 << 8) | (in.readUnsignedByte() << 16) | (in.readUnsignedByte() << 24);
+            if (magic != PSF2_MAGIC) {
+                throw new IllegalArgumentException("Not a PSF font");
+            }
+            psf2 = true;
+            readIntLe(in); // version
+            int headerSize = readIntLe(in);
+            int flags = readIntLe(in);
+            glyphCount = readIntLe(in);
+            bytesPerGlyph = readIntLe(in);
+            height = readIntLe(in);
+            width = readIntLe(in);
+            in.skipNBytes(headerSize - 32);
+            hasUnicodeTable = (flags & PSF2_HAS_UNICODE_TABLE) != 0;
+        }
+
+        BitmapFont font = new BitmapFont(width, height);
+        int bytesPerRow = (width + 7) / 8;
+        long[][] bitmaps = new long[glyphCount][];
+        byte[] glyphData = new byte[bytesPerGlyph];
+        for (int i = 0; i < glyphCount; i++) {
+            in.readFully(glyphData);
+            long[] bitmap = new long[font.wordCount];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    if (((glyphData[y * bytesPerRow + x / 8] >> (7 - x % 8)) & 1) != 0) {
+                        font.setBit(bitmap, x, y);
+                    }
+                }
+            }
+            bitmaps[i] = bitmap;
+        }
+
+        if (!hasUnicodeTable) {
+            for (int i = 0; i < glyphCount; i++) {
+                font.putGlyph(i, font.new Glyph(width, bitmaps[i]));
+            }
+        } else if (psf2) {
+            // UTF-8 encoded codepoints, terminated by 0xff per glyph; sequences (starting with 0xfe) are skipped.
+            for (int i = 0; i < glyphCount; i++) {
+                boolean sequence = false;
+                while (true) {
+                    int b = in.read();
+                    if (b == -1 || b == 0xff) {
+                        break;
+                    }
+                    if (b == 0xfe) {
+                        sequence = true;
+                    } else {
+                        int extraBytes = b >= 0xf0 ? 3 : b >= 0xe0 ? 2 : b >= 0xc0 ? 1 : 0;
+                        int codepoint = extraBytes == 0 ? b : b & (0x3f >> extraBytes);
+                        for (int j = 0; j < extraBytes; j++) {
+                            codepoint = (codepoint << 6) | (in.readUnsignedByte() & 0x3f);
+                        }
+                        if (!sequence) {
+                            font.putGlyph(codepoint, font.new Glyph(width, bitmaps[i]));
+                        }
+                    }
+                }
+            }
+        } else {
+            // UCS-2 little endian codepoints, terminated by 0xffff per glyph; sequences start with 0xfffe.
+            for (int i = 0; i < glyphCount; i++) {
+                boolean sequence = false;
+                while (true) {
+                    int value = in.readUnsignedByte() | (in.readUnsignedByte() << 8);
+                    if (value == 0xffff) {
+                        break;
+                    }
+                    if (value == 0xfffe) {
+                        sequence = true;
+                    } else if (!sequence) {
+                        font.putGlyph(value, font.new Glyph(width, bitmaps[i]));
+                    }
+                }
+            }
+        }
+        return font;
+    }
+
+    /**
+     * Loads a font in the Glyph Bitmap Distribution Format (BDF). Glyphs are positioned in character cells of
+     * the font bounding box size. Glyph widths are taken from the device width (DWIDTH) of the glyphs.
+     */
+    public static BitmapFont loadBdf(Reader source) throws IOException {
+        BufferedReader reader = new BufferedReader(source);
+        BitmapFont font = null;
+        int cellXOffset = 0;
+        int cellYOffset = 0;
+
+        int encoding = -1;
+        int deviceWidth = 0;
+        int[] bbx = new int[4];
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] parts = line.trim().split("\\s+");
+            switch (parts[0]) {
+                case "FONTBOUNDINGBOX" -> {
+                    font = new BitmapFont(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                    cellXOffset = Integer.parseInt(parts[3]);
+                    cellYOffset = Integer.parseInt(parts[4]);
+                }
+                case "STARTCHAR" -> {
+                    encoding = -1;
+                    deviceWidth = -1;
+                }
+                case "ENCODING" -> encoding = Integer.parseInt(parts[1]);
+                case "DWIDTH" -> deviceWidth = Integer.parseInt(parts[1]);
+                case "BBX" -> {
+                    for (int i = 0; i < 4; i++) {
+                        bbx[i] = Integer.parseInt(parts[i + 1]);
+                    }
+                }
+                case "BITMAP" -> {
+                    if (font == null) {
+                        throw new IllegalArgumentException("FONTBOUNDINGBOX expected before the first BITMAP");
+                    }
+                    long[] bitmap = new long[font.wordCount];
+                    int cellWidth = font.cellWidth;
+                    int cellHeight = font.cellHeight;
+                    // Top row of the glyph in cell coordinates.
+                    int top = cellHeight + cellYOffset - bbx[3] - bbx[1];
+                    int left = bbx[2] - cellXOffset;
+                    for (int row = 0; row < bbx[1]; row++) {
+                        String hex = reader.readLine();
+                        if (hex == null) {
+                            throw new EOFException("Incomplete BITMAP");
+                        }
+                        hex = hex.trim();
+                        int y = top + row;
+                        for (int col = 0; col < bbx[0] && col / 4 < hex.length(); col++) {
+                            int x = left + col;
+                            if (x >= 0 && x < cellWidth && y >= 0 && y < cellHeight
+                                    && ((Character.digit(hex.charAt(col / 4), 16) >> (3 - col % 4)) & 1) != 0) {
+                                font.setBit(bitmap, x, y);
+                            }
+                        }
+                    }
+                    if (encoding >= 0) {
+                        int width = deviceWidth < 0 ? cellWidth : Math.min(cellWidth, deviceWidth);
+                        font.putGlyph(encoding, font.new Glyph(width, bitmap));
+                    }
+                }
+                default -> { }
+            }
+        }
+        if (font == null) {
+            throw new IllegalArgumentException("Not a BDF font");
+        }
+        return font;
+    }
+
     // Private methods.
 
+    private static int readIntLe(DataInputStream in) throws IOException {
+        return Integer.reverseBytes(in.readInt());
+    }
+
+    /** Sets the bit for the given pixel in a glyph bitmap of this font. */
+    private void setBit(long[] bitmap, int x, int y) {
+        int bitAddress = (cellHeight - y) * cellWidth - x - 1;
+        bitmap[bitAddress >>> 6] |= 1L << bitAddress;
+    }
+
+    private void putGlyph(int codepoint, Glyph glyph) {
+        if (codepoint >= 0 && codepoint < DENSE_CODEPOINTS) {
+            denseGlyphs[codepoint] = glyph;
+            return;
+        }
+        // Fonts are typically built in ascending order, so we check for appending first.
+        int index = sparseCount == 0 || sparseCodepoints[sparseCount - 1] < codepoint
+                ? -sparseCount - 1
+                : Arrays.binarySearch(sparseCodepoints, 0, sparseCount, codepoint);
+        if (index >= 0) {
+            sparseGlyphs[index] = glyph;
+            return;
+        }
+        index = -index - 1;
+        if (sparseCount == sparseCodepoints.length) {
+            int capacity = Math.max(16, sparseCount * 2);
+            sparseCodepoints = Arrays.copyOf(sparseCodepoints, capacity);
+            sparseGlyphs = Arrays.copyOf(sparseGlyphs, capacity);
+        }
+        System.arraycopy(sparseCodepoints, index, sparseCodepoints, index + 1, sparseCount - index);
+        System.arraycopy(sparseGlyphs, index, sparseGlyphs, index + 1, sparseCount - index);
+        sparseCodepoints[index] = codepoint;
+        sparseGlyphs[index] = glyph;
+        sparseCount++;
+    }
+
     private void addLcdCharacters() {
             addCharacters(0x020, 0,  //
                     0b000000_000100_000100_000100_000100_000000_000000_000100L, // !
@@ -358,24 +618,31 @@ public class BitmapFont {
     /** A glyph, containing the bitmap for a character. */
     public class Glyph {
         private final int width;
-        private final long bitmap;
+        private final long[] bitmap;
 
-        Glyph(int width, long bitmap) {
+        Glyph(int width, long[] bitmap) {
             this.width = width;
             this.bitmap = bitmap;
         }
 
+        /**
+         * Copies the bitmap into target as 32 bit values, starting with the most significant bits. Returns the
+         * number of unused leading bits.
+         */
         public int getData(int[] target) {
-            target[0] = (int) (bitmap >>> 32);
-            target[1] = (int) bitmap;
-            return 64 - cellHeight * cellWidth;
+            for (int i = 0; i < wordCount; i++) {
+                long word = bitmap[wordCount - 1 - i];
+                target[2 * i] = (int) (word >>> 32);
+                target[2 * i + 1] = (int) word;
+            }
+            return 64 * wordCount - cellHeight * cellWidth;
         }
 
         /** Returns true if the pixel at the given coordinate in character space is set. */
         public boolean getPixel(int x, int y) {
             // This looks a bit wonky because the bits are written from high to low in the constants.
             int bitAddress = (cellHeight - y) * cellWidth - x - 1;
-            return (bitmap & (1L << bitAddress)) != 0;
+            return (bitmap[bitAddress >>> 6] & (1L << bitAddress)) != 0;
         }
 
         /** Returns the width of this character. Should match the cell width for monospaced fonts. */
@@ -391,7 +658,7 @@ public class BitmapFont {
             long result = 0;
             int bitMask = (1 << cellWidth) - 1;
             for (int i = 0; i < cellHeight; i++) {
-                result |= ((bitmap & bitMask) >> (i * cellWidth)) << (i * 8);
+                result |= ((bitmap[0] & bitMask) >> (i * cellWidth)) << (i * 8);
                 bitMask <<= cellWidth;
             }
             return result;
@@ -402,29 +669,58 @@ public class BitmapFont {
          * and the width adjusted accordingly.
          */
         public Glyph toProportional() {
-            if (bitmap == 0) {
+            if (isEmpty()) {
                 // Special case (NB)SP.
-                return new Glyph(cellWidth * 2 / 3, 0);
+                return new Glyph(cellWidth * 2 / 3, new long[wordCount]);
             }
 
             int xMin = 0;
             int xMax = width - 1;
 
-            long mask = columnMask << (cellWidth - 1);
-            while (xMin < xMax && (bitmap & mask) == 0) {
+            while (xMin < xMax && isColumnEmpty(xMin)) {
                 xMin++;
-                mask >>>= 1;
             }
-            mask = columnMask;
-            while (xMin < xMax && (bitmap & mask) == 0) {
+            while (xMin < xMax && isColumnEmpty(xMax)) {
                 xMax--;
-                mask <<= 1;
             }
 
             if (xMin == 0 && xMax == width - 1) {
                 return this;
             }
-            return new Glyph(Math.min(cellWidth, xMax - xMin + 2), bitmap << Math.max(0, xMin-1));
+            return new Glyph(Math.min(cellWidth, xMax - xMin + 2), shiftLeft(Math.max(0, xMin - 1)));
+        }
+
+        private boolean isEmpty() {
+            for (long word : bitmap) {
+                if (word != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isColumnEmpty(int x) {
+            for (int y = 0; y < cellHeight; y++) {
+                if (getPixel(x, y)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Returns a copy of the bitmap shifted towards the top left (i.e. the most significant bit) by count bits. */
+        private long[] shiftLeft(int count) {
+            long[] result = new long[wordCount];
+            int wordShift = count >>> 6;
+            int bitShift = count & 63;
+            for (int i = wordCount - 1; i >= wordShift; i--) {
+                long word = bitmap[i - wordShift] << bitShift;
+                if (bitShift != 0 && i - wordShift > 0) {
+                    word |= bitmap[i - wordShift - 1] >>> (64 - bitShift);
+                }
+                result[i] = word;
+            }
+            return result;
         }
     }
 }
@@ -9,6 +9,13 @@ public abstract class AbstractConnection {
     protected abstract void sendValue(Mode mode, int value);
     protected abstract boolean is8Bit();
 
+    /**
+     * Sends any values buffered by the connection. Called by the driver at the end of each operation. The default
+     * implementation does nothing, as values are expected to be sent immediately.
+     */
+    protected void flush() {
+    }
+
     private Instant busyUntil = Instant.now();
 
     // Placing this here allows coordination of chip and connection based delays without needing a driver
@@ -1,12 +1,10 @@
 package com.pi4j.drivers.display.character.hd44780;
 
 import com.pi4j.drivers.display.character.CharacterDisplay;
-import com.pi4j.drivers.io.expander.ConfigurableIoExpander;
-import com.pi4j.drivers.io.expander.mcp23008.Mcp23008Driver;
 import com.pi4j.io.OnOffWrite;
 import com.pi4j.io.i2c.I2C;
-import com.pi4j.drivers.io.expander.pcf8574.Pcf8574OutputDriver;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -18,12 +16,21 @@ import java.util.Map;
  * Depending on the display IO connection, use with4BitConnection() for a 4-bit parallel connection or
  * withPcf8574Connection() for the most common I2C connection type.
  *
+ * The driver keeps a shadow copy of the display RAM, so characters that are already displayed are not sent
+ * again, and the cursor address is only sent when the next changed character is not adjacent to the previous one.
+ * Use update() to efficiently refresh the whole display with mostly unchanged content.
+ *
  * Spec: https://cdn.sparkfun.com/assets/9/5/f/7/b/HD44780.pdf
  */
 public class Hd44780Driver implements CharacterDisplay {
 
+    /** Marks a shadow RAM cell with unknown content. */
+    private static final int UNKNOWN = -1;
+
     // Specified values are multiplied by 2 to allow for the minimum frequency.
     private static final int STANDARD_DELAY_MICROS = 2 * 37;
+    // Data writes also need to update the address counter (t_ADD).
+    private static final int DATA_DELAY_MICROS = 2 * (37 + 4);
     private static final int LONG_DELAY_MICROS = 2 * 1520;
 
     /**
@@ -59,9 +66,16 @@ public class Hd44780Driver implements CharacterDisplay {
     private final AbstractConnection connection;
     private final int[] customCharacterToCodePoint = new int[8];
     private final Map<Integer, Integer> codePointToCustomCharacter = new HashMap<>();
+    /** Shadow copy of the visible display RAM (mapped character codes), row by row. */
+    private final int[] ddram;
+    /** Shadow copy of the custom character bitmaps. */
+    private final long[] cgram = new long[8];
+    private final boolean[] cgramValid = new boolean[8];
 
     private int cursorX = 0;
     private int cursorY = 0;
+    /** Set if the address counter of the chip doesn't match the cursor position. */
+    private boolean addressDirty = true;
     private boolean cursorEnabled = false;
     private boolean displayEnabled = false;
     private boolean blinkingEnabled = false;
@@ -93,9 +107,8 @@ public class Hd44780Driver implements CharacterDisplay {
     }
 
     /**
-     * Creates a HD 44780 Driver for a text LCD connected via I2C using a PCF 8574 IO expander. This implementation
-     * uses the Pcf8574OutputDriver class to illustrate how different drivers can be combined (opposed to a simple
-     * direct AbstractConnection subclass).
+     * Creates a HD 44780 Driver for a text LCD connected via I2C using a PCF 8574 IO expander. Values are sent in
+     * bursts using I2cBackpackConnection.
      * <p>
      * This method assumes the following pin connections:
      * 0: RS, 2: Enable, 3: Backlight, 4-7: D4-D7
@@ -104,44 +117,18 @@ public class Hd44780Driver implements CharacterDisplay {
      * of the main LCD board, connected to the data and control lines of the main LCD controller board.
      */
     public static Hd44780Driver withPcf8574Connection(I2C i2c, int width, int height) {
-        Pcf8574OutputDriver pcf8574 = new Pcf8574OutputDriver(i2c);
-        pcf8574.setOutputTriggerMask(0b0100);
-        pcf8574.setOutputStates(0);
-        return with4BitConnection(
-                /* rs */ pcf8574.getOutput(0),
-                /* enable */ pcf8574.getOutput(2),
-                /* backlight*/ pcf8574.getOutput(3),
-                /* d4 */ pcf8574.getOutput(4),
-                /* d5 */ pcf8574.getOutput(5),
-                /* d6 */ pcf8574.getOutput(6),
-                /* d7 */ pcf8574.getOutput(7),
-                width,
-                height);
+        return new Hd44780Driver(I2cBackpackConnection.forPcf8574(i2c), width, height);
     }
 
     /**
-     * Creates a HD 44680 Driver for a text LCD connected via I2C using a MCP 23008 IO expander. This implementation
-     * uses the Mcp23008Driver class to illustrate how different drivers can be combined (opposed to a simple
-     * direct AbstractConnection subclass).
+     * Creates a HD 44680 Driver for a text LCD connected via I2C using a MCP 23008 IO expander. Values are sent
+     * in bursts using I2cBackpackConnection.
      * <p>
      * This call assumes the following pin connections, as used in CrowPi2:
      * 1: RS, 2: Enable, 3-6: Data 4-7, 7: Backlight.
      */
     public static Hd44780Driver withMcp23008Connection(I2C i2c, int width, int height) {
-        Mcp23008Driver mcp23008 = new Mcp23008Driver(i2c);
-        mcp23008.setIoDirections(0xf, ConfigurableIoExpander.Direction.OUTPUT); // All pins configured for output.
-        mcp23008.setOutputTriggerMask(0b0100);
-        mcp23008.setOutputState(0);
-        return with4BitConnection(
-                /* registerSelect */ mcp23008.getOutput(1),
-                /* enable */ mcp23008.getOutput(2),
-                /* backLight */ mcp23008.getOutput(7),
-                /* d4 */ mcp23008.getOutput(3),
-                /* d5 */ mcp23008.getOutput(4),
-                /* d6 */ mcp23008.getOutput(5),
-                /* d7 */ mcp23008.getOutput(6),
-                width,
-                height);
+        return new Hd44780Driver(I2cBackpackConnection.forMcp23008(i2c), width, height);
     }
 
     /**
@@ -160,6 +147,8 @@ public class Hd44780Driver implements CharacterDisplay {
         this.connection = connection;
         this.width = width;
         this.height = height;
+        this.ddram = new int[width * height];
+        Arrays.fill(ddram, UNKNOWN);
 
         // Initialize display settings
         int fsCmd = CommandCodes.CMD_FUNCTION_SET
@@ -209,8 +198,21 @@ public class Hd44780Driver implements CharacterDisplay {
     public void clear() {
         sendCommand(CommandCodes.CMD_CLEAR_DISPLAY);
         connection.setDelayMicros(LONG_DELAY_MICROS);
+        Arrays.fill(ddram, ' ');
         cursorX = 0;
         cursorY = 0;
+        addressDirty = false;
+        connection.flush();
+    }
+
+    /**
+     * Forgets the shadow copy of the display content, so all subsequently written characters are sent to the
+     * display. Useful if the display content may have been corrupted, e.g. by electrical noise.
+     */
+    public void invalidate() {
+        Arrays.fill(ddram, UNKNOWN);
+        Arrays.fill(cgramValid, false);
+        addressDirty = true;
     }
 
     @Override
@@ -231,25 +233,31 @@ public class Hd44780Driver implements CharacterDisplay {
         connection.setDelayMicros(LONG_DELAY_MICROS);
         cursorX = 0;
         cursorY = 0;
+        addressDirty = false;
+        connection.flush();
     }
 
     public void setBacklightEnabled(boolean backlightEnabled) {
         connection.setBacklight(backlightEnabled);
+        connection.flush();
     }
 
     public void setCursorEnabled(boolean enabled) {
         this.cursorEnabled = enabled;
         updateDisplayControl();
+        finishOperation();
     }
 
     public void setDisplayEnabled(boolean enabled) {
         this.displayEnabled = enabled;
         updateDisplayControl();
+        connection.flush();
     }
 
     public void setBlinkingEnabled(boolean enabled) {
         this.blinkingEnabled = enabled;
         updateDisplayControl();
+        finishOperation();
     }
 
     /**
@@ -259,23 +267,39 @@ public class Hd44780Driver implements CharacterDisplay {
         final int length = text.length();
         for (int offset = 0; offset < length; ) {
             final int codepoint = text.codePointAt(offset);
-            write(codepoint);
+            writeInternal(codepoint);
             offset += Character.charCount(codepoint);
         }
+        finishOperation();
     }
 
     /**
      * Write a character at the current cursor position
      */
     public void write(int codePoint) {
-        if (codePoint == '\n' || cursorX >= width) {
-            setCursorPosition(0, (cursorY + 1) % height);
-            if (codePoint == '\n') {
-                return;
+        writeInternal(codePoint);
+        finishOperation();
+    }
+
+    /**
+     * Updates the whole display with the given rows, padding them with spaces or cutting them off as needed.
+     * Only changed characters are sent to the display.
+     */
+    public void update(String... rows) {
+        for (int y = 0; y < height; y++) {
+            String row = y < rows.length && rows[y] != null ? rows[y] : "";
+            moveCursor(0, y);
+            int x = 0;
+            for (int offset = 0; offset < row.length() && x < width; x++) {
+                int codepoint = row.codePointAt(offset);
+                offset += Character.charCount(codepoint);
+                writeInternal(codepoint == '\n' ? ' ' : codepoint);
+            }
+            for (; x < width; x++) {
+                writeInternal(' ');
             }
         }
-        sendData(mapCodePoint(codePoint));
-        cursorX++;
+        finishOperation();
     }
 
     /**
@@ -305,7 +329,7 @@ public class Hd44780Driver implements CharacterDisplay {
         }
 
         if (!text.isEmpty()) {
-            setCursorPosition(col, y);
+            moveCursor(col, y);
             write(text);
         }
     }
@@ -319,26 +343,33 @@ public class Hd44780Driver implements CharacterDisplay {
         if (x >= width || x < 0) {
             throw new IllegalArgumentException("Column " + x + " out of range 0.." + (width - 1));
         }
-        sendCommand(CommandCodes.CMD_SET_DDRAM_ADDR | x + LCD_ROW_OFFSETS[y]);
-        this.cursorX = x;
-        this.cursorY = y;
+        moveCursor(x, y);
+        finishOperation();
     }
 
     /**
      * Uploads character data to the given position.
      */
     public void uploadCharacter(int index, long characterData, int codePoint) {
-        codePointToCustomCharacter.remove(customCharacterToCodePoint[codePoint]);
-        customCharacterToCodePoint[index] = codePoint;
-        codePointToCustomCharacter.put(codePoint, index);
         if (index > 7 || index < 1) {
             throw new IllegalArgumentException("Custom character index " + index + " outside valid range (1..7)");
         }
+        codePointToCustomCharacter.remove(customCharacterToCodePoint[index]);
+        customCharacterToCodePoint[index] = codePoint;
+        codePointToCustomCharacter.put(codePoint, index);
+        if (cgramValid[index] && cgram[index] == characterData) {
+            return;
+        }
         sendCommand(CommandCodes.CMD_SET_CGRAM_ADDR | index << 3);
 
         for (int i = 0; i < 8; i++) {
             sendData((int) ((characterData >>> ((7-i) * 8)) & 0xffL));
         }
+        cgram[index] = characterData;
+        cgramValid[index] = true;
+        // The address counter now points into the character generator RAM.
+        addressDirty = true;
+        finishOperation();
     }
 
     /**
@@ -346,6 +377,7 @@ public class Hd44780Driver implements CharacterDisplay {
      */
     public void scrollRight(){
         sendCommand(CommandCodes.CMD_DISPLAY_SHIFT_RIGHT);
+        connection.flush();
     }
 
     /**
@@ -353,6 +385,7 @@ public class Hd44780Driver implements CharacterDisplay {
      */
     public void scrollLeft(){
         sendCommand(CommandCodes.CMD_DISPLAY_SHIFT_LEFT);
+        connection.flush();
     }
 
 
@@ -376,6 +409,51 @@ public class Hd44780Driver implements CharacterDisplay {
     }
 
 
+    /** Writes the given character at the cursor position, skipping it if it's already displayed. */
+    private void writeInternal(int codePoint) {
+        if (codePoint == '\n' || cursorX >= width) {
+            moveCursor(0, (cursorY + 1) % height);
+            if (codePoint == '\n') {
+                return;
+            }
+        }
+        int value = mapCodePoint(codePoint);
+        int index = cursorY * width + cursorX;
+        if (ddram[index] != value) {
+            if (addressDirty) {
+                sendCommand(CommandCodes.CMD_SET_DDRAM_ADDR | cursorX + LCD_ROW_OFFSETS[cursorY]);
+                addressDirty = false;
+            }
+            sendData(value);
+            ddram[index] = value;
+        } else {
+            // The chip's address counter stays behind.
+            addressDirty = true;
+        }
+        cursorX++;
+    }
+
+    /** Sets the cursor position without sending it to the chip. */
+    private void moveCursor(int x, int y) {
+        if (x != cursorX || y != cursorY) {
+            cursorX = x;
+            cursorY = y;
+            addressDirty = true;
+        }
+    }
+
+    /**
+     * Called at the end of each public operation. Sends the cursor position to the chip if the cursor is visible
+     * and the address counter is behind, and flushes values buffered by the connection.
+     */
+    private void finishOperation() {
+        if (addressDirty && (cursorEnabled || blinkingEnabled)) {
+            sendCommand(CommandCodes.CMD_SET_DDRAM_ADDR | Math.min(cursorX, width - 1) + LCD_ROW_OFFSETS[cursorY]);
+            addressDirty = false;
+        }
+        connection.flush();
+    }
+
     private int mapCodePoint(int codePoint) {
         Integer custom = codePointToCustomCharacter.get(codePoint);
         if (custom != null) {
@@ -403,6 +481,7 @@ public class Hd44780Driver implements CharacterDisplay {
 
     private void sendData(int value) {
         connection.sendValue(AbstractConnection.Mode.DATA, value);
+        connection.setDelayMicros(DATA_DELAY_MICROS);
     }
 
 
@@ -0,0 +1,182 @@
+package com.pi4j.drivers.display.character.hd44780;
+
+import com.pi4j.drivers.io.expander.mcp23008.Mcp23008Driver;
+import com.pi4j.io.SerialCircuitIO;
+
+/**
+ * IO implementation for HD44780 displays connected in 4-bit mode via an 8-bit I2C IO expander "backpack", such as
+ * the common PCF 8574 boards.
+ * <p>
+ * Instead of toggling individual expander pins, each nibble is encoded into three output port values (data with
+ * register select and backlight, then enable high, then enable low). The values are buffered and sent in a
+ * single I2C write at the end of each driver operation. The required enable pulse width and command execution
+ * times are covered by the I2C clock time of the following bytes; where two bytes are not enough, the last port
+ * value is repeated to stretch the gap. Only long running commands such as clearing the display require sleeping.
+ * <p>
+ * Only plain writes are used, so any SerialCircuitIO (such as Pi4J I2C instances) can be used for the bus.
+ */
+public class I2cBackpackConnection extends AbstractConnection {
+
+    /** Standard mode I2C bus speed, which is the maximum specified for the PCF 8574. */
+    public static final int STANDARD_BUS_SPEED_HZ = 100_000;
+
+    /**
+     * Fast mode I2C bus speed. The factory methods without a bus speed parameter assume this, so the delays
+     * considered covered by the transfer time are never longer than they actually are.
+     */
+    public static final int FAST_MODE_BUS_SPEED_HZ = 400_000;
+
+    private static final int MAX_BURST_LENGTH = 96;
+
+    /** Delays requiring more repeated port values than this are timed instead. */
+    private static final int MAX_PADDING_BYTES = 8;
+
+    // MCP 23008 register addresses
+    private static final int MCP23008_IODIR = 0x00;
+    private static final int MCP23008_IOCON = 0x05;
+    private static final int MCP23008_OLAT = 0x0a;
+
+    private final SerialCircuitIO i2c;
+    private final int register;
+    private final int registerSelectMask;
+    private final int enableMask;
+    private final int backlightMask;
+    private final int d4Bit;
+    /** The I2C transfer time of a byte, including the acknowledge bit. */
+    private final int byteNanos;
+
+    /** The register address (if any) at index 0, followed by the buffered port values. */
+    private final byte[] buffer = new byte[MAX_BURST_LENGTH + 1];
+    private int length;
+    private int backlightBits;
+
+    /**
+     * Creates a connection for a PCF 8574 backpack with the following pin connections:
+     * 0: RS, 2: Enable, 3: Backlight, 4-7: D4-D7.
+     */
+    public static I2cBackpackConnection forPcf8574(SerialCircuitIO i2c) {
+        return forPcf8574(i2c, FAST_MODE_BUS_SPEED_HZ);
+    }
+
+    /** Creates a connection for a PCF 8574 backpack on a bus running at the given speed. */
+    public static I2cBackpackConnection forPcf8574(SerialCircuitIO i2c, int busSpeedHz) {
+        return new I2cBackpackConnection(i2c, -1, 0, 2, 3, 4, busSpeedHz);
+    }
+
+    /**
+     * Creates a connection for a MCP 23008 backpack with the following pin connections, as used in CrowPi2:
+     * 1: RS, 2: Enable, 3-6: Data 4-7, 7: Backlight.
+     * <p>
+     * Configures all pins as outputs and disables the register address increment, so bursts can be written to the
+     * output latch register.
+     */
+    public static I2cBackpackConnection forMcp23008(SerialCircuitIO i2c) {
+        return forMcp23008(i2c, FAST_MODE_BUS_SPEED_HZ);
+    }
+
+    /** Creates a connection for a MCP 23008 backpack on a bus running at the given speed. */
+    public static I2cBackpackConnection forMcp23008(SerialCircuitIO i2c, int busSpeedHz) {
+        i2c.write(new byte[] {MCP23008_IOCON, Mcp23008Driver.SEQOP}, 0, 2);
+        i2c.write(new byte[] {MCP23008_IODIR, 0}, 0, 2);
+        return new I2cBackpackConnection(i2c, MCP23008_OLAT, 1, 2, 7, 3, busSpeedHz);
+    }
+
+    /**
+     * Creates a connection with the given pin numbers. If register is negative, the port values are written
+     * directly; otherwise, they are written to the given register. The bus speed is used to determine which
+     * delays are covered by the I2C transfer time.
+     */
+    public I2cBackpackConnection(
+            SerialCircuitIO i2c,
+            int register,
+            int registerSelectPin,
+            int enablePin,
+            int backlightPin,
+            int d4Pin,
+            int busSpeedHz) {
+        if (d4Pin < 0 || d4Pin > 4) {
+            throw new IllegalArgumentException("D4 pin " + d4Pin + " out of range 0..4");
+        }
+        this.i2c = i2c;
+        this.register = register;
+        buffer[0] = (byte) register;
+        this.registerSelectMask = 1 << registerSelectPin;
+        this.enableMask = 1 << enablePin;
+        this.backlightMask = 1 << backlightPin;
+        this.d4Bit = d4Pin;
+        this.byteNanos = (int) (9 * 1_000_000_000L / busSpeedHz);
+    }
+
+    @Override
+    protected boolean is8Bit() {
+        return false;
+    }
+
+    @Override
+    protected void setBacklight(boolean on) {
+        backlightBits = on ? backlightMask : 0;
+        append(backlightBits);
+    }
+
+    @Override
+    protected void sendValue(Mode mode, int value) {
+        int registerSelectBits = mode == Mode.DATA ? registerSelectMask : 0;
+        if (mode != Mode.INIT) {
+            appendNibble(registerSelectBits, value >> 4);
+        }
+        appendNibble(registerSelectBits, value);
+    }
+
+    @Override
+    void setDelayMicros(int micros) {
+        // The next enable edge is sent at least two bytes after the falling edge of the previous one.
+        long missingNanos = micros * 1000L - 2L * byteNanos;
+        if (missingNanos > 0) {
+            int padding = (int) ((missingNanos + byteNanos - 1) / byteNanos);
+            if (length > 0 && padding <= MAX_PADDING_BYTES) {
+                // Repeating the last value doesn't toggle any pins, it just takes time on the bus.
+                int last = buffer[length];
+                for (int i = 0; i < padding; i++) {
+                    append(last);
+                }
+            } else {
+                // Longer delays need to be timed starting after the values sent so far.
+                flush();
+            }
+        }
+        super.setDelayMicros(micros);
+    }
+
+    @Override
+    protected void flush() {
+        if (length == 0) {
+            return;
+        }
+        if (register < 0) {
+            i2c.write(buffer, 1, length);
+        } else {
+            i2c.write(buffer, 0, length + 1);
+        }
+        length = 0;
+    }
+
+    private void appendNibble(int registerSelectBits, int nibble) {
+        if (length + 3 > MAX_BURST_LENGTH) {
+            flush();
+        }
+        int bits = registerSelectBits | backlightBits | (nibble & 0xf) << d4Bit;
+        append(bits);
+        append(bits | enableMask);
+        append(bits);
+    }
+
+    private void append(int bits) {
+        if (length == MAX_BURST_LENGTH) {
+            flush();
+        }
+        if (length == 0) {
+            materializeDelay();
+        }
+        buffer[++length] = (byte) bits;
+    }
+}
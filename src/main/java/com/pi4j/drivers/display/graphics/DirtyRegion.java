@@ -0,0 +1,209 @@
+package com.pi4j.drivers.display.graphics;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the modified area of a display as a grid of tiles, each with its own bounding box.
+ * <p>
+ * With a single tile spanning the whole display (the default), this is equivalent to a single bounding
+ * box. Smaller tiles keep distant changes apart, so a transfer only needs to cover the areas that actually
+ * changed. When the region is drained, horizontally adjacent modified tiles are merged into a single
+ * rectangle, and rectangles of subsequent tile rows are merged when they span the same columns.
+ */
+final class DirtyRegion {
+
+    /** Receives the rectangles of a drained region. Max coordinates are exclusive. */
+    interface RectangleConsumer {
+        void accept(int xMin, int yMin, int xMax, int yMax);
+    }
+
+    private final int width;
+    private final int height;
+
+    private int tileWidth;
+    private int tileHeight;
+    private int columns;
+    private int rows;
+
+    // Bounding boxes per tile; tileXMin[i] == Integer.MAX_VALUE marks a tile as unmodified.
+    private int[] tileXMin;
+    private int[] tileYMin;
+    private int[] tileXMax;
+    private int[] tileYMax;
+
+    // Rectangles of the previous and current tile row while draining; reused to avoid allocations.
+    private int[] openRects;
+    private int[] currentRects;
+
+    private boolean empty = true;
+
+    DirtyRegion(int width, int height) {
+        this.width = width;
+        this.height = height;
+        setTileSize(width, height);
+    }
+
+    /**
+     * Changes the tile size. Pending modifications are preserved (but will be coarsened to their
+     * bounding box).
+     */
+    void setTileSize(int tileWidth, int tileHeight) {
+        if (tileWidth <= 0 || tileHeight <= 0) {
+            throw new IllegalArgumentException("Tile width and height must be > 0");
+        }
+        int xMin = Integer.MAX_VALUE;
+        int yMin = Integer.MAX_VALUE;
+        int xMax = Integer.MIN_VALUE;
+        int yMax = Integer.MIN_VALUE;
+        if (!empty) {
+            for (int i = 0; i < tileXMin.length; i++) {
+                if (tileXMin[i] != Integer.MAX_VALUE) {
+                    xMin = Math.min(xMin, tileXMin[i]);
+                    yMin = Math.min(yMin, tileYMin[i]);
+                    xMax = Math.max(xMax, tileXMax[i]);
+                    yMax = Math.max(yMax, tileYMax[i]);
+                }
+            }
+        }
+
+        this.tileWidth = Math.min(tileWidth, Math.max(width, 1));
+        this.tileHeight = Math.min(tileHeight, Math.max(height, 1));
+        columns = Math.max(1, (width + this.tileWidth - 1) / this.tileWidth);
+        rows = Math.max(1, (height + this.tileHeight - 1) / this.tileHeight);
+
+        int count = columns * rows;
+        tileXMin = new int[count];
+        tileYMin = new int[count];
+        tileXMax = new int[count];
+        tileYMax = new int[count];
+        openRects = new int[4 * columns];
+        currentRects = new int[4 * columns];
+        clear();
+
+        if (xMin != Integer.MAX_VALUE) {
+            add(xMin, yMin, xMax, yMax);
+        }
+    }
+
+    int getTileWidth() {
+        return tileWidth;
+    }
+
+    int getTileHeight() {
+        return tileHeight;
+    }
+
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /** Adds the given area to the modified region. Max coordinates are exclusive. */
+    void add(int xMin, int yMin, int xMax, int yMax) {
+        xMin = Math.max(0, xMin);
+        yMin = Math.max(0, yMin);
+        xMax = Math.min(width, xMax);
+        yMax = Math.min(height, yMax);
+        if (xMax <= xMin || yMax <= yMin) {
+            return;
+        }
+        empty = false;
+
+        int column0 = xMin / tileWidth;
+        int column1 = (xMax - 1) / tileWidth;
+        int row0 = yMin / tileHeight;
+        int row1 = (yMax - 1) / tileHeight;
+
+        for (int row = row0; row <= row1; row++) {
+            int tileY0 = row * tileHeight;
+            int y0 = Math.max(yMin, tileY0);
+            int y1 = Math.min(yMax, tileY0 + tileHeight);
+            for (int column = column0; column <= column1; column++) {
+                int tileX0 = column * tileWidth;
+                int i = row * columns + column;
+                tileXMin[i] = Math.min(tileXMin[i], Math.max(xMin, tileX0));
+                tileYMin[i] = Math.min(tileYMin[i], y0);
+                tileXMax[i] = Math.max(tileXMax[i], Math.min(xMax, tileX0 + tileWidth));
+                tileYMax[i] = Math.max(tileYMax[i], y1);
+            }
+        }
+    }
+
+    /** Marks the whole region as unmodified. */
+    void clear() {
+        Arrays.fill(tileXMin, Integer.MAX_VALUE);
+        Arrays.fill(tileYMin, Integer.MAX_VALUE);
+        Arrays.fill(tileXMax, Integer.MIN_VALUE);
+        Arrays.fill(tileYMax, Integer.MIN_VALUE);
+        empty = true;
+    }
+
+    /** Sends the modified area as a set of disjoint rectangles to the given consumer and clears the region. */
+    void drain(RectangleConsumer consumer) {
+        if (empty) {
+            return;
+        }
+        int openCount = 0;
+        for (int row = 0; row < rows; row++) {
+            // Collect runs of horizontally adjacent modified tiles in this row.
+            int currentCount = 0;
+            int column = 0;
+            while (column < columns) {
+                int i = row * columns + column;
+                if (tileXMin[i] == Integer.MAX_VALUE) {
+                    column++;
+                    continue;
+                }
+                int xMin = tileXMin[i];
+                int yMin = tileYMin[i];
+                int xMax = tileXMax[i];
+                int yMax = tileYMax[i];
+                // A run can only be extended if the modified area touches the tile border.
+                while (column + 1 < columns
+                        && xMax == (column + 1) * tileWidth
+                        && tileXMin[i + 1] == xMax) {
+                    column++;
+                    i++;
+                    yMin = Math.min(yMin, tileYMin[i]);
+                    xMax = tileXMax[i];
+                    yMax = Math.max(yMax, tileYMax[i]);
+                }
+                column++;
+                int pos = 4 * currentCount++;
+                currentRects[pos] = xMin;
+                currentRects[pos + 1] = yMin;
+                currentRects[pos + 2] = xMax;
+                currentRects[pos + 3] = yMax;
+            }
+
+            // Extend rectangles from the previous row that span the same columns and touch vertically;
+            // emit all others.
+            for (int j = 0; j < openCount; j++) {
+                int openPos = 4 * j;
+                boolean merged = false;
+                for (int k = 0; k < currentCount; k++) {
+                    int pos = 4 * k;
+                    if (currentRects[pos] == openRects[openPos]
+                            && currentRects[pos + 2] == openRects[openPos + 2]
+                            && currentRects[pos + 1] == openRects[openPos + 3]) {
+                        currentRects[pos + 1] = openRects[openPos + 1];
+                        merged = true;
+                        break;
+                    }
+                }
+                if (!merged) {
+                    consumer.accept(openRects[openPos], openRects[openPos + 1], openRects[openPos + 2], openRects[openPos + 3]);
+                }
+            }
+
+            int[] swap = openRects;
+            openRects = currentRects;
+            currentRects = swap;
+            openCount = currentCount;
+        }
+        for (int j = 0; j < openCount; j++) {
+            int openPos = 4 * j;
+            consumer.accept(openRects[openPos], openRects[openPos + 1], openRects[openPos + 2], openRects[openPos + 3]);
+        }
+        clear();
+    }
+}
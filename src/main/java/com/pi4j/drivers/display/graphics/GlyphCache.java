@@ -0,0 +1,66 @@
+package com.pi4j.drivers.display.graphics;
+
+import com.pi4j.drivers.display.BitmapFont;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches glyphs rasterized to ARGB tiles for a single combination of font, text scale and color, so repeated
+ * text rendering only needs to blit the tiles. Unset glyph pixels are fully transparent.
+ */
+final class GlyphCache {
+    private final BitmapFont font;
+    private final int scaleX;
+    private final int scaleY;
+    private final int argb;
+
+    /** Tiles for codepoints below 256 are stored in an array to avoid boxing for the common case. */
+    private final int[][] latin1Tiles = new int[256][];
+    private final Map<Integer, int[]> otherTiles = new HashMap<>();
+
+    GlyphCache(BitmapFont font, int scaleX, int scaleY, int argb) {
+        this.font = font;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        this.argb = argb;
+    }
+
+    boolean matches(BitmapFont font, int scaleX, int scaleY, int argb) {
+        return this.font == font && this.scaleX == scaleX && this.scaleY == scaleY && this.argb == argb;
+    }
+
+    /** Returns the tile for the given glyph; the tile width is the scaled glyph width. */
+    int[] getTile(int codepoint, BitmapFont.Glyph glyph) {
+        int[] tile;
+        if (codepoint >= 0 && codepoint < latin1Tiles.length) {
+            tile = latin1Tiles[codepoint];
+            if (tile == null) {
+                tile = rasterize(glyph);
+                latin1Tiles[codepoint] = tile;
+            }
+        } else {
+            tile = otherTiles.get(codepoint);
+            if (tile == null) {
+                tile = rasterize(glyph);
+                otherTiles.put(codepoint, tile);
+            }
+        }
+        return tile;
+    }
+
+    private int[] rasterize(BitmapFont.Glyph glyph) {
+        int width = glyph.getWidth() * scaleX;
+        int height = font.getCellHeight() * scaleY;
+        int[] tile = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                if (glyph.getPixel(x / scaleX, y / scaleY)) {
+                    tile[row + x] = argb;
+                }
+            }
+        }
+        return tile;
+    }
+}
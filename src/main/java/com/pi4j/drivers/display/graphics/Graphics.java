@@ -10,9 +10,10 @@ public class Graphics {
     private int color = 0xffffffff;
     private int textScaleX = 1;
     private int textScaleY = 1;
-    private int[] glyphBuffer = new int[2];
-    private int[] textPalette = new int[2];
+    /** Glyph caches for recently used font, scale and color combinations; most recently used first. */
+    private final GlyphCache[] glyphCaches = new GlyphCache[4];
     private int[] indexedTransferBuffer = new int[32];
+    private int[] columnTable = new int[32];
     private boolean processAlpha;
     private int clipXMin = 0;
     private int clipYMin = 0;
@@ -45,13 +46,47 @@ public class Graphics {
         }
     }
 
+    /**
+     * Renders the given text with the given baseline (bottom of the character cells) position.
+     * <p>
+     * The whole string is drawn with a single lock acquisition and marked as modified once. Glyphs are
+     * rasterized to cached tiles for the current font, text scale and color.
+     * <p>
+     * Returns the width of the text in pixel.
+     */
     public int renderText(int x, int y, String text) {
+        GlyphCache cache = getGlyphCache();
+        int h = font.getCellHeight() * textScaleY;
+        int top = y - h;
         int length = text.length();
         int width = 0;
-        for (int offset = 0; offset < length; ) {
-            int codepoint = text.codePointAt(offset);
-            offset += Character.charCount(codepoint);
-            width += renderCharacter(x + width, y, codepoint);
+        int modifiedXMin = Integer.MAX_VALUE;
+        int modifiedXMax = Integer.MIN_VALUE;
+        synchronized (display.lock) {
+            for (int offset = 0; offset < length; ) {
+                int codepoint = text.codePointAt(offset);
+                offset += Character.charCount(codepoint);
+                BitmapFont.Glyph glyph = font.getGlyph(codepoint);
+                if (glyph == null) {
+                    width += font.getCellWidth() * textScaleX;
+                    continue;
+                }
+                int w = glyph.getWidth() * textScaleX;
+                int cx = x + width;
+                if (cx < clipXMax && cx + w > clipXMin) {
+                    drawTile(cx, top, w, h, cache.getTile(codepoint, glyph));
+                    modifiedXMin = Math.min(modifiedXMin, cx);
+                    modifiedXMax = Math.max(modifiedXMax, cx + w);
+                }
+                width += w;
+            }
+            int xMin = Math.max(clipXMin, modifiedXMin);
+            int yMin = Math.max(clipYMin, top);
+            int xMax = Math.min(modifiedXMax, clipXMax);
+            int yMax = Math.min(y, clipYMax);
+            if (xMax > xMin && yMax > yMin) {
+                display.markModified(xMin, yMin, xMax, yMax);
+            }
         }
         return width;
     }
@@ -62,18 +97,54 @@ public class Graphics {
      * Returns the width of the character in pixel.
      */
     public int renderCharacter(int x, int y, int codepoint) {
-        BitmapFont.Glyph glyph = font.getGlyph(codepoint);
+        BitmapFont.Glyph glyph = Character.isValidCodePoint(codepoint) ? font.getGlyph(codepoint) : null;
         if (glyph == null) {
-            return font.getCellWidth();
+            return font.getCellWidth() * textScaleX;
         }
-        int bitOffset = glyph.getData(glyphBuffer);
+        int w = glyph.getWidth() * textScaleX;
         int h = font.getCellHeight() * textScaleY;
-        boolean saveProcessAlpha = processAlpha;
-        textPalette[1] = processAlpha ? color : (color | 0xff000000);
-        processAlpha = true;
-        drawIndexed(x, y - h, font.getCellWidth() * textScaleX, h, glyphBuffer, 1, textPalette, bitOffset, 1, font.getCellWidth(), textScaleX, textScaleY);
-        processAlpha = saveProcessAlpha;
-        return font.getCellWidth() * textScaleX;
+        int top = y - h;
+        int xMin = Math.max(clipXMin, x);
+        int yMin = Math.max(clipYMin, top);
+        int xMax = Math.min(x + w, clipXMax);
+        int yMax = Math.min(y, clipYMax);
+        if (xMax > xMin && yMax > yMin) {
+            GlyphCache cache = getGlyphCache();
+            synchronized (display.lock) {
+                drawTile(x, top, w, h, cache.getTile(codepoint, glyph));
+                display.markModified(xMin, yMin, xMax, yMax);
+            }
+        }
+        return w;
+    }
+
+    /** Returns the glyph cache for the current font, text scale and color. */
+    private GlyphCache getGlyphCache() {
+        int argb = processAlpha ? color : (color | 0xff000000);
+        for (int i = 0; i < glyphCaches.length; i++) {
+            GlyphCache cache = glyphCaches[i];
+            if (cache != null && cache.matches(font, textScaleX, textScaleY, argb)) {
+                // Move to the front, so the least recently used entry is evicted first.
+                System.arraycopy(glyphCaches, 0, glyphCaches, 1, i);
+                glyphCaches[0] = cache;
+                return cache;
+            }
+        }
+        GlyphCache cache = new GlyphCache(font, textScaleX, textScaleY, argb);
+        System.arraycopy(glyphCaches, 0, glyphCaches, 1, glyphCaches.length - 1);
+        glyphCaches[0] = cache;
+        return cache;
+    }
+
+    /** Blends the given ARGB tile into the display buffer, applying clipping. Requires the display lock. */
+    private void drawTile(int x, int y, int width, int height, int[] tile) {
+        int xMin = Math.max(clipXMin, x);
+        int yMin = Math.max(clipYMin, y);
+        int xMax = Math.min(x + width, clipXMax);
+        int yMax = Math.min(y + height, clipYMax);
+        for (int sy = yMin; sy < yMax; sy++) {
+            display.drawRgbRow(xMin, sy, xMax - xMin, tile, (sy - y) * width + xMin - x, null, GraphicsDisplay.ALPHA_BLEND);
+        }
     }
 
     private void setPixelInternal(int x, int y) {
@@ -181,30 +252,45 @@ public class Graphics {
         drawRgb(x, y, width, height, rgbData, 0, width, 1, 1);
     }
 
+    /**
+     * Draws the given rgb data, scaled by the given factors. Width and height refer to the scaled size. Alpha
+     * values are taken into account if processAlpha is set.
+     */
     public void drawRgb(
             int x, int y, int width, int height, int[] rgbData, int offset, int scanLength, int scaleX, int scaleY) {
+        blit(x, y, width, height, rgbData, offset, scanLength, scaleX, scaleY,
+                processAlpha ? GraphicsDisplay.ALPHA_BLEND : GraphicsDisplay.ALPHA_IGNORE);
+    }
 
-        int xMin = Math.max(clipXMin, x);
-        int yMin = Math.max(clipYMin, y);
-        int xMax = Math.min(x + width, clipXMax);
-        int yMax = Math.min(y + height, clipYMax);
-        if (xMax <= xMin || yMax <= yMin) {
-            return;
-        }
+    /**
+     * Draws the given ARGB image data, blending it with the existing content according to the alpha channel,
+     * independent of the processAlpha setting. Width and height refer to the scaled size, as in drawRgb().
+     */
+    public void drawImage(int x, int y, int width, int height, int[] argbData, int offset, int scanLength, int scaleX, int scaleY) {
+        blit(x, y, width, height, argbData, offset, scanLength, scaleX, scaleY, GraphicsDisplay.ALPHA_BLEND);
+    }
 
-        synchronized (display.lock) {
-            for (int sy = yMin; sy < yMax; sy++) {
-                display.drawRgbRow(
-                        xMin,
-                        sy,
-                        xMax - xMin,
-                        rgbData,
-                        processAlpha,
-                        offset + ((sy - y) / scaleY * scanLength) + (xMin - x) / scaleX,
-                        scaleX,
-                        (xMin - x) % scaleX);
+    /**
+     * Draws the given ARGB image data with premultiplied alpha, i.e. the color channels are already multiplied
+     * by the alpha value. This makes blending cheaper, so this is the preferred format for sprites that are drawn
+     * repeatedly. Width and height refer to the scaled size, as in drawRgb().
+     */
+    public void drawPremultipliedImage(
+            int x, int y, int width, int height, int[] argbData, int offset, int scanLength, int scaleX, int scaleY) {
+        blit(x, y, width, height, argbData, offset, scanLength, scaleX, scaleY, GraphicsDisplay.ALPHA_PREMULTIPLIED);
+    }
+
+    /** Converts ARGB values with straight alpha to premultiplied alpha in place. */
+    public static void premultiplyAlpha(int[] argbData, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            int argb = argbData[i];
+            int alpha = argb >>> 24;
+            if (alpha != 255) {
+                int red = ((argb >> 16) & 0xff) * alpha / 255;
+                int green = ((argb >> 8) & 0xff) * alpha / 255;
+                int blue = (argb & 0xff) * alpha / 255;
+                argbData[i] = (alpha << 24) | (red << 16) | (green << 8) | blue;
             }
-            display.markModified(xMin, yMin, xMax, yMax);
         }
     }
 
@@ -223,11 +309,13 @@ public class Graphics {
         }
 
         int bitMask = (1 << bitCount) - 1;
-        int len = (xMax - xMin + scaleX - 1) / scaleX;
+        int len = (xMax - xMin + (xMin - x) % scaleX + scaleX - 1) / scaleX;
 
         if (len > indexedTransferBuffer.length) {
             indexedTransferBuffer = new int[len];
         }
+        int[] columns = scaleX == 1 ? null : columnTable(xMax - xMin, (xMin - x) % scaleX, scaleX);
+        int alphaMode = processAlpha ? GraphicsDisplay.ALPHA_BLEND : GraphicsDisplay.ALPHA_IGNORE;
 
         synchronized (display.lock) {
             for (int sy = yMin; sy < yMax; sy++) {
@@ -242,12 +330,55 @@ public class Graphics {
                         srcBitPos += bitIncrement;
                     }
                 }
-                display.drawRgbRow(xMin, sy, xMax - xMin, indexedTransferBuffer, processAlpha, 0, scaleX, (xMin - x) % scaleX);
+                display.drawRgbRow(xMin, sy, xMax - xMin, indexedTransferBuffer, 0, columns, alphaMode);
+            }
+            display.markModified(xMin, yMin, xMax, yMax);
+        }
+    }
+
+    /**
+     * Draws the given data with a single lock acquisition. Width and height refer to the scaled size. Source
+     * columns for scaling are looked up in a precomputed table instead of dividing per pixel.
+     */
+    private void blit(int x, int y, int width, int height, int[] data, int offset, int scanLength, int scaleX, int scaleY, int alphaMode) {
+        int xMin = Math.max(clipXMin, x);
+        int yMin = Math.max(clipYMin, y);
+        int xMax = Math.min(x + width, clipXMax);
+        int yMax = Math.min(y + height, clipYMax);
+        if (xMax <= xMin || yMax <= yMin) {
+            return;
+        }
+        int[] columns = scaleX == 1 ? null : columnTable(xMax - xMin, (xMin - x) % scaleX, scaleX);
+        int rowOffset = offset + (xMin - x) / scaleX;
+
+        synchronized (display.lock) {
+            for (int sy = yMin; sy < yMax; sy++) {
+                display.drawRgbRow(xMin, sy, xMax - xMin, data, rowOffset + (sy - y) / scaleY * scanLength, columns, alphaMode);
             }
             display.markModified(xMin, yMin, xMax, yMax);
         }
     }
 
+    /**
+     * Returns a table mapping count target pixels to source indices for the given horizontal scale factor, where
+     * the first target pixel is at the given position within its scaled source pixel.
+     */
+    private int[] columnTable(int count, int remainder, int scaleX) {
+        if (columnTable.length < count) {
+            columnTable = new int[count];
+        }
+        int column = 0;
+        int step = remainder;
+        for (int i = 0; i < count; i++) {
+            columnTable[i] = column;
+            if (++step == scaleX) {
+                step = 0;
+                column++;
+            }
+        }
+        return columnTable;
+    }
+
     public void setClip(int x, int y, int width, int height) {
         clipXMin = Math.max(0, x);
         clipYMin = Math.max(0, y);
@@ -1,6 +1,19 @@
 package com.pi4j.drivers.display.graphics;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A "logical" graphics display; typically mapped to one or more graphics display drivers.
@@ -8,10 +21,25 @@ import java.util.*;
  * Provides low-level access to the shared frame buffer (setPixel and getPixel). For higher level
  * functionality, please obtain a Graphics object using getGraphics. The purpose of this separation
  * is to support multiple states (clipping, color) simultaneously.
+ * <p>
+ * Modified areas are transferred to the drivers by a background thread at times determined by the update
+ * policy (see setUpdatePolicy). With double buffering enabled, these transfers don't block drawing.
+ * If multiple drivers are attached to independent buses, they can be updated concurrently (see
+ * setParallelTransfer).
  */
 public class GraphicsDisplay {
     static final int DEFAULT_MAX_TRANSFER_SIZE = 4000;
 
+    private static final Logger log = LoggerFactory.getLogger(GraphicsDisplay.class);
+
+    // Alpha modes for drawRgbRow
+    static final int ALPHA_IGNORE = 0;
+    static final int ALPHA_BLEND = 1;
+    static final int ALPHA_PREMULTIPLIED = 2;
+
+    /** The interval for checking whether busy drivers are ready for the next transfer. */
+    private static final long BUSY_RETRY_NANOS = 15_000_000;
+
     /**
      * This enum represents the display rotation in 90° steps. It's always applied before mirroring.
      */
@@ -41,19 +69,26 @@ public class GraphicsDisplay {
     final Object lock = new Object();
     final int[] displayBuffer;
 
-    // TODO: Replace with executors
-    private final Timer timer = new Timer(true);
+    private final ScheduledThreadPoolExecutor executor = createTransferExecutor();
 
-    private int modifiedXMax = Integer.MIN_VALUE;
-    private int modifiedXMin = Integer.MAX_VALUE;
-    private int modifiedYMax = Integer.MIN_VALUE;
-    private int modifiedYMin = Integer.MAX_VALUE;
-    private TimerTask pendingUpdate = null;
-    private int transferDelayMillis = 15;
+    private final DirtyRegion modified;
+    private final UpdateStatistics statistics = new UpdateStatistics();
+    private ScheduledFuture<?> pendingUpdate = null;
+    private UpdatePolicy updatePolicy = UpdatePolicy.delay(Duration.ofMillis(15));
     private final int displayWidth;
     private final int displayHeight;
     private final List<DriverEntry> drivers = new ArrayList<>();
 
+    /** Copy of the display buffer that transfers are made from in double buffered mode; null otherwise. */
+    private int[] frontBuffer;
+    /** The areas of the current transfer as (xMin, yMin, xMax, yMax) quadruples. */
+    private int[] transferRects = new int[4 * 8];
+    private int transferRectCount;
+    /** Set while a transfer from the front buffer is running without holding the lock. */
+    private boolean transferring;
+    /** Runs parallel transfers with one thread per driver; null if parallel transfer is disabled. */
+    private ThreadPoolExecutor parallelExecutor;
+
     public GraphicsDisplay(GraphicsDisplayDriver driver) {
         this(driver, Rotation.ROTATE_0, Mirror.NONE);
     }
@@ -74,6 +109,7 @@ public class GraphicsDisplay {
         // +7 buffer for granularity vs. width mismatches, e.g. display width 122 with granularity 8 will just
         // read over the end instead of more complex handing for this case.
         displayBuffer = new int[displayWidth * displayHeight + 7];
+        modified = new DirtyRegion(displayWidth, displayHeight);
         drivers.add(new DriverEntry(0, 0, driver, rotation, mirror));
     }
 
@@ -85,6 +121,7 @@ public class GraphicsDisplay {
         this.displayWidth = displayWidth;
         this.displayHeight = displayHeight;
         displayBuffer = new int[displayWidth * displayHeight + 7]; // +7 see comment in other ctor.
+        modified = new DirtyRegion(displayWidth, displayHeight);
     }
 
 
@@ -105,14 +142,23 @@ public class GraphicsDisplay {
     public void attachDriver(int x0, int y0, GraphicsDisplayDriver driver, Rotation rotation, Mirror mirror) {
         synchronized (lock) {
             drivers.add(new DriverEntry(x0, y0, driver, rotation.minus(driver.getDisplayInfo().getImplicitRotation()), mirror));
+            if (parallelExecutor != null && parallelExecutor.getMaximumPoolSize() < drivers.size()) {
+                parallelExecutor.setMaximumPoolSize(drivers.size());
+                parallelExecutor.setCorePoolSize(drivers.size());
+            }
             markModified(0, 0, displayWidth, displayHeight);
         }
     }
 
     public void close() {
         flush();
-        timer.cancel();
+        executor.shutdown();
         synchronized (lock) {
+            awaitTransfer();
+            if (parallelExecutor != null) {
+                parallelExecutor.shutdown();
+                parallelExecutor = null;
+            }
             for (DriverEntry entry : drivers) {
                 entry.driver.close();
             }
@@ -122,13 +168,37 @@ public class GraphicsDisplay {
 
     /** Forces an immediate transfer of the modified screen area */
     public void flush() {
+        int[] source;
+        List<DriverEntry> targets;
+        ExecutorService parallel;
         synchronized (lock) {
-            if (modifiedXMin < Integer.MAX_VALUE) {
-                transferBuffer(modifiedXMin, modifiedYMin, modifiedXMax, modifiedYMax);
-                modifiedXMin = Integer.MAX_VALUE;
-                modifiedYMin = Integer.MAX_VALUE;
-                modifiedXMax = Integer.MIN_VALUE;
-                modifiedYMax = Integer.MIN_VALUE;
+            awaitTransfer();
+            if (modified.isEmpty()) {
+                return;
+            }
+            statistics.recordTransferStart(System.nanoTime());
+            transferRectCount = 0;
+            modified.drain(this::addTransferRect);
+            if (frontBuffer == null) {
+                try {
+                    transfer(displayBuffer, drivers, parallelExecutor);
+                } finally {
+                    statistics.recordTransferEnd(System.nanoTime());
+                }
+                return;
+            }
+            source = frontBuffer;
+            targets = List.copyOf(drivers);
+            parallel = parallelExecutor;
+            transferring = true;
+        }
+        try {
+            transfer(source, targets, parallel);
+        } finally {
+            synchronized (lock) {
+                statistics.recordTransferEnd(System.nanoTime());
+                transferring = false;
+                lock.notifyAll();
             }
         }
     }
@@ -180,9 +250,121 @@ public class GraphicsDisplay {
      * Sets the maximum delay between graphics updates and the screen buffer transfer to the display driver.
      * Setting the value to 0 will send all data immediately. A negative value will require an explicit
      * call to flush for the transfer. The default value is 15;
+     * <p>
+     * This is a shortcut for setting the corresponding update policy.
      */
     public void setTransferDelayMillis(int millis) {
-        this.transferDelayMillis = millis;
+        setUpdatePolicy(millis == 0 ? UpdatePolicy.immediate()
+                : millis < 0 ? UpdatePolicy.manual()
+                : UpdatePolicy.delay(Duration.ofMillis(millis)));
+    }
+
+    /**
+     * Sets the policy that determines when modifications are transferred to the display drivers, e.g. a frame
+     * rate limit. The default is a 15ms delay after the first modification.
+     */
+    public void setUpdatePolicy(UpdatePolicy updatePolicy) {
+        synchronized (lock) {
+            this.updatePolicy = Objects.requireNonNull(updatePolicy, "updatePolicy must not be null");
+            if (pendingUpdate != null) {
+                pendingUpdate.cancel(false);
+                pendingUpdate = null;
+            }
+            if (!modified.isEmpty()) {
+                if (updatePolicy.isImmediate()) {
+                    flush();
+                } else {
+                    scheduleUpdate();
+                }
+            }
+        }
+    }
+
+    public UpdatePolicy getUpdatePolicy() {
+        synchronized (lock) {
+            return updatePolicy;
+        }
+    }
+
+    /** Returns the transfer statistics of this display, e.g. the achieved frame rate. */
+    public UpdateStatistics getUpdateStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Enables or disables double buffering. When enabled, drawing operations go to a back buffer and modified
+     * areas are copied to a front buffer when a transfer is due. The transfer to the display drivers then runs
+     * from the front buffer without holding the drawing lock, so drawing can continue while the previous frame
+     * is still being sent to the display. Disabled by default.
+     */
+    public void setDoubleBuffered(boolean doubleBuffered) {
+        synchronized (lock) {
+            awaitTransfer();
+            if (!doubleBuffered) {
+                frontBuffer = null;
+            } else if (frontBuffer == null) {
+                // Unmodified areas of the back buffer match what was transferred last.
+                frontBuffer = displayBuffer.clone();
+            }
+        }
+    }
+
+    /** Returns true if double buffering is enabled. */
+    public boolean isDoubleBuffered() {
+        synchronized (lock) {
+            return frontBuffer != null;
+        }
+    }
+
+    /**
+     * If enabled, transfers to multiple attached drivers run concurrently, one thread per driver, so the
+     * total transfer time approaches the transfer time of the slowest driver instead of the sum for all
+     * drivers. Only useful if the drivers don't share a bus (e.g. separate SPI controllers). Disabled by
+     * default.
+     */
+    public void setParallelTransfer(boolean parallel) {
+        synchronized (lock) {
+            awaitTransfer();
+            if (parallel == (parallelExecutor != null)) {
+                return;
+            }
+            if (parallel) {
+                // Equivalent to Executors.newFixedThreadPool(), but keeping the type so the pool can grow with
+                // attachDriver().
+                int threadCount = Math.max(1, drivers.size());
+                parallelExecutor = new ThreadPoolExecutor(
+                        threadCount, threadCount, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "GraphicsDisplay parallel transfer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            } else {
+                parallelExecutor.shutdown();
+                parallelExecutor = null;
+            }
+        }
+    }
+
+    /** Returns true if parallel transfer is enabled. */
+    public boolean isParallelTransfer() {
+        synchronized (lock) {
+            return parallelExecutor != null;
+        }
+    }
+
+    /**
+     * Sets the size of the tiles used to keep track of modified screen areas. Each tile keeps its own bounding
+     * box, so changes in distant parts of the screen don't lead to a transfer of everything in between. By
+     * default, a single tile spans the whole display, so all changes are combined into one bounding box.
+     * <p>
+     * Smaller tiles reduce the amount of transferred data for scattered changes, at the cost of more (but smaller)
+     * transfers. Displays that perform an expensive refresh for each transfer (typically e-ink displays) should
+     * keep the default.
+     */
+    public void setDirtyTileSize(int tileWidth, int tileHeight) {
+        synchronized (lock) {
+            modified.setTileSize(tileWidth, tileHeight);
+        }
     }
 
     // Package visible methods used by the graphics context.
@@ -190,13 +372,11 @@ public class GraphicsDisplay {
     /** Marks the given screen area as modified */
     void markModified(int xMin, int yMin, int xMax, int yMax) {
         synchronized (lock) {
-            modifiedXMin = Math.min(modifiedXMin, xMin);
-            modifiedYMin = Math.min(modifiedYMin, yMin);
-            modifiedXMax = Math.max(modifiedXMax, xMax);
-            modifiedYMax = Math.max(modifiedYMax, yMax);
-            if (transferDelayMillis == 0) {
+            modified.add(xMin, yMin, xMax, yMax);
+            statistics.recordModification(System.nanoTime());
+            if (updatePolicy.isImmediate()) {
                 flush();
-            } else if (pendingUpdate == null && transferDelayMillis > 0) {
+            } else if (pendingUpdate == null) {
                 scheduleUpdate();
             }
         }
@@ -204,61 +384,63 @@ public class GraphicsDisplay {
 
     void scheduleUpdate() {
         synchronized (lock) {
-            pendingUpdate = new TimerTask() {
-                @Override
-                public void run() {
-                    synchronized (lock) {
-                        for (DriverEntry entry : drivers) {
-                            if (entry.driver.isBusy()) {
-                                scheduleUpdate();
-                                return;
-                            }
-                        }
-                        pendingUpdate = null;
-                        flush();
-                    }
-                }
-            };
-            timer.schedule(pendingUpdate, transferDelayMillis);
+            long transferTime = updatePolicy.getTransferTime(statistics);
+            if (transferTime != UpdatePolicy.MANUAL) {
+                scheduleUpdate(Math.max(0, transferTime - System.nanoTime()));
+            }
         }
     }
 
-    /** Does not call markModified and does not take any clipping into account */
-    void drawRgbRow(int x, int y, int scaledWidth, int[] rgbData, boolean processAlpha, int offset, int scaleX, int remainder) {
+    /**
+     * Draws a row of pixels from rgbData, starting at offset. If columns is non-null, it maps each target pixel
+     * to its source index relative to offset (used for scaling); otherwise source pixels are consecutive. The
+     * alpha mode is one of the ALPHA_ constants.
+     * <p>
+     * Does not call markModified and does not take any clipping into account.
+     */
+    void drawRgbRow(int x, int y, int width, int[] rgbData, int offset, int[] columns, int alphaMode) {
         int dst = pixelAddress(x, y);
-        if (!processAlpha) {
-            if (scaleX == 1) {
-                System.arraycopy(rgbData, offset, displayBuffer, dst, scaledWidth);
-            } {
-                for (int i = 0; i < scaledWidth; i++) {
-                    displayBuffer[dst + i] = rgbData[offset + (i + remainder) / scaleX];
+        if (alphaMode == ALPHA_IGNORE) {
+            if (columns == null) {
+                System.arraycopy(rgbData, offset, displayBuffer, dst, width);
+            } else {
+                for (int i = 0; i < width; i++) {
+                    displayBuffer[dst + i] = rgbData[offset + columns[i]];
                 }
             }
-        } else {
-            for (int i = 0; i < scaledWidth; i++) {
-                int srcArgb = rgbData[offset + i / scaleX];
-                int srcAlpha = (srcArgb >> 24) & 0xff;
-                switch (srcAlpha) {
-                    case 0 -> {}
-                    case 255 -> displayBuffer[dst + i] = srcArgb | 0xff000000;
-                    default -> {
-                        int dstRgb = displayBuffer[dst + i];
-
-                        int srcRed = (srcArgb >> 16) & 0xff;
-                        int srcGreen = (srcArgb >> 8) & 0xff;
-                        int srcBlue = srcArgb & 0xff;
-
-                        int dstRed = Math.min(255, (((dstRgb >> 16) & 0xff) * (255 - srcAlpha) + srcRed * srcAlpha) / 255);
-                        int dstGreen = Math.min(255, (((dstRgb >> 8) & 0xff) * (255 - srcAlpha) + srcGreen * srcAlpha) / 255);
-                        int dstBlue = Math.min(255, ((dstRgb & 0xff) * (255 - srcAlpha) + srcBlue * srcAlpha) / 255);
-
-                        displayBuffer[dst + i] = 0xff000000 | (dstRed << 16) | (dstGreen << 8) | dstBlue;
-                    }
-                }
+            return;
+        }
+        boolean premultiplied = alphaMode == ALPHA_PREMULTIPLIED;
+        for (int i = 0; i < width; i++) {
+            int srcArgb = rgbData[columns == null ? offset + i : offset + columns[i]];
+            int srcAlpha = srcArgb >>> 24;
+            if (srcAlpha == 255) {
+                displayBuffer[dst + i] = srcArgb;
+            } else if (srcAlpha != 0) {
+                displayBuffer[dst + i] = premultiplied
+                        ? blendPremultiplied(displayBuffer[dst + i], srcArgb, srcAlpha)
+                        : blend(displayBuffer[dst + i], srcArgb, srcAlpha);
             }
         }
     }
 
+    private static int blend(int dstRgb, int srcArgb, int srcAlpha) {
+        int dstAlpha = 255 - srcAlpha;
+        int red = (((dstRgb >> 16) & 0xff) * dstAlpha + ((srcArgb >> 16) & 0xff) * srcAlpha) / 255;
+        int green = (((dstRgb >> 8) & 0xff) * dstAlpha + ((srcArgb >> 8) & 0xff) * srcAlpha) / 255;
+        int blue = ((dstRgb & 0xff) * dstAlpha + (srcArgb & 0xff) * srcAlpha) / 255;
+        return 0xff000000 | (red << 16) | (green << 8) | blue;
+    }
+
+    /** Blends premultiplied source data, saving the multiplication of the source channels. */
+    private static int blendPremultiplied(int dstRgb, int srcArgb, int srcAlpha) {
+        int dstAlpha = 255 - srcAlpha;
+        int red = Math.min(255, ((srcArgb >> 16) & 0xff) + ((dstRgb >> 16) & 0xff) * dstAlpha / 255);
+        int green = Math.min(255, ((srcArgb >> 8) & 0xff) + ((dstRgb >> 8) & 0xff) * dstAlpha / 255);
+        int blue = Math.min(255, (srcArgb & 0xff) + (dstRgb & 0xff) * dstAlpha / 255);
+        return 0xff000000 | (red << 16) | (green << 8) | blue;
+    }
+
     void setPixelInternal(int x, int y, int color) {
         displayBuffer[pixelAddress(x, y)] = color;
     }
@@ -286,15 +468,140 @@ public class GraphicsDisplay {
         return y * displayWidth + x;
     }
 
-    /** Transfers the given display buffer area to the display driver, mapping the rotation */
-    private void transferBuffer(int xMin, int yMin, int xMax, int yMax) {
-        synchronized (lock) { // drivers access
-            for (DriverEntry driverEntry : drivers) {
-                driverEntry.transferBuffer(xMin, yMin, xMax, yMax);
+    private static ScheduledThreadPoolExecutor createTransferExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "GraphicsDisplay transfer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        return executor;
+    }
+
+    private void scheduleUpdate(long delayNanos) {
+        pendingUpdate = executor.schedule(this::update, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs on the transfer thread; consults the policy again (as it may postpone the transfer based on
+     * modifications made in the meantime) and postpones the transfer while any driver is busy.
+     */
+    private void update() {
+        synchronized (lock) {
+            pendingUpdate = null;
+            if (modified.isEmpty()) {
+                return;
+            }
+            long transferTime = updatePolicy.getTransferTime(statistics);
+            if (transferTime == UpdatePolicy.MANUAL) {
+                return;
+            }
+            long delay = transferTime - System.nanoTime();
+            if (delay > 0) {
+                scheduleUpdate(delay);
+                return;
+            }
+            boolean busy = transferring;
+            for (DriverEntry entry : drivers) {
+                busy |= entry.driver.isBusy();
+            }
+            if (busy) {
+                statistics.recordPostponement();
+                scheduleUpdate(BUSY_RETRY_NANOS);
+                return;
+            }
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Would otherwise get lost in the scheduled future.
+            log.error("Display transfer failed", e);
+        }
+    }
+
+    /** Waits for a transfer from the front buffer to finish. Must be called while holding the lock. */
+    private void awaitTransfer() {
+        while (transferring) {
+            try {
+                lock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
             }
         }
     }
 
+    /** Adds an area to the current transfer, copying it to the front buffer in double buffered mode. */
+    private void addTransferRect(int xMin, int yMin, int xMax, int yMax) {
+        if (transferRects.length < 4 * (transferRectCount + 1)) {
+            transferRects = Arrays.copyOf(transferRects, transferRects.length * 2);
+        }
+        int pos = 4 * transferRectCount++;
+        transferRects[pos] = xMin;
+        transferRects[pos + 1] = yMin;
+        transferRects[pos + 2] = xMax;
+        transferRects[pos + 3] = yMax;
+
+        if (frontBuffer != null) {
+            for (int y = yMin; y < yMax; y++) {
+                int address = pixelAddress(xMin, y);
+                System.arraycopy(displayBuffer, address, frontBuffer, address, xMax - xMin);
+            }
+        }
+    }
+
+    /**
+     * Transfers the areas of the current transfer from the given source buffer to the given drivers. If an
+     * executor is given, the drivers are updated concurrently; each driver entry uses its own transfer buffer.
+     */
+    private void transfer(int[] source, List<DriverEntry> targets, ExecutorService parallel) {
+        if (parallel == null || targets.size() < 2) {
+            for (DriverEntry driverEntry : targets) {
+                driverEntry.transferRects(source);
+            }
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<>(targets.size() - 1);
+        for (int i = 1; i < targets.size(); i++) {
+            DriverEntry driverEntry = targets.get(i);
+            futures.add(parallel.submit(() -> driverEntry.transferRects(source)));
+        }
+        RuntimeException failure = null;
+        try {
+            targets.get(0).transferRects(source);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        // All transfers need to complete before returning, as the source and rectangles will be reused.
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    RuntimeException cause = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new IllegalStateException("Parallel display transfer failed", e.getCause());
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
     enum ScanDirection {
         LEFT_TO_RIGHT, RIGHT_TO_LEFT, TOP_DOWN, BOTTOM_UP;
 
@@ -314,7 +621,7 @@ public class GraphicsDisplay {
         private final int y0;
         private final GraphicsDisplayDriver driver;
         private final Rotation rotation;
-        private final byte[] transferBuffer ;
+        private final ByteBuffer transferBuffer;
         private final Mirror mirror;
 
         private DriverEntry(int x0, int y0, GraphicsDisplayDriver driver, Rotation rotation, Mirror mirror) {
@@ -325,12 +632,26 @@ public class GraphicsDisplay {
             this.mirror = mirror;
             int bitsPerRow = driver.getDisplayInfo().getWidth() * driver.getDisplayInfo().getPixelFormat().getBitCount();
             // We limit the transfer size to 4000 bytes, but at least a full row of pixels
-            this.transferBuffer = new byte[Math.min(
+            int transferBufferSize = Math.min(
                     Math.max(driver.getTransferLimit(), (bitsPerRow + 7) / 8),
-                    ((bitsPerRow + 7) / 8 * driver.getDisplayInfo().getHeight()))];
+                    ((bitsPerRow + 7) / 8 * driver.getDisplayInfo().getHeight()));
+            this.transferBuffer = driver.isDirectBufferPreferred()
+                    ? ByteBuffer.allocateDirect(transferBufferSize)
+                    : ByteBuffer.allocate(transferBufferSize);
         }
 
-        private void transferBuffer(int xMin, int yMin, int xMax, int yMax) {
+        /** Transfers all areas of the current transfer to this driver and signals the end of the update. */
+        private void transferRects(int[] source) {
+            for (int i = 0; i < transferRectCount; i++) {
+                int pos = 4 * i;
+                transferBuffer(
+                        source, transferRects[pos], transferRects[pos + 1], transferRects[pos + 2], transferRects[pos + 3]);
+            }
+            driver.flush();
+        }
+
+        /** Transfers the given area of the source buffer to the display driver, mapping the rotation */
+        private void transferBuffer(int[] source, int xMin, int yMin, int xMax, int yMax) {
             ScanDirection columnScanDirection;
             ScanDirection rowScanDirection = switch (rotation) {
                 case ROTATE_0 -> {
@@ -426,6 +747,7 @@ public class GraphicsDisplay {
                 }
             }
             transferBuffer(
+                    source,
                     pixelAddress(sourceX, sourceY),
                     sourceStrideX,
                     sourceStrideY,
@@ -436,7 +758,7 @@ public class GraphicsDisplay {
         }
 
         /** Transfers the given display buffer area to the display driver */
-        private void transferBuffer(int sourceAddress, int sourceStrideX, int sourceStrideY, int xMin, int yMin, int xMax, int yMax) {
+        private void transferBuffer(int[] source, int sourceAddress, int sourceStrideX, int sourceStrideY, int xMin, int yMin, int xMax, int yMax) {
             GraphicsDisplayDescriptor displayInfo = driver.getDisplayInfo();
 
             // Bail out if the changed area is outside the area governed by this device.
@@ -446,7 +768,7 @@ public class GraphicsDisplay {
 
             // Restrict coordinates to the display size.
             if (xMin < 0) {
-                sourceAddress -= xMax * sourceStrideX;
+                sourceAddress -= xMin * sourceStrideX;
                 xMin = 0;
             }
             if (yMin < 0) {
@@ -472,22 +794,22 @@ public class GraphicsDisplay {
             int bitsPerRow = width * pixelFormat.getBitCount();
             int bitOffset = 0;
 
-            synchronized (lock) { // display / transfer buffer access
-                for (int i = 0; i < height; i++) {
-                    bitOffset += pixelFormat.writeRgb(
-                            displayBuffer,
-                            sourceAddress,
-                            sourceStrideX,
-                            transferBuffer,
-                            bitOffset,
-                            width);
-                    sourceAddress += sourceStrideY;
-                    // Transfer if the last row is reached or the next row would overflow the buffer.
-                    if (i == height - 1 || bitOffset + bitsPerRow > transferBuffer.length * 8) {
-                        int rows = bitOffset / bitsPerRow;
-                        driver.setPixels(xMin, yMin + i + 1 - rows, width, rows, transferBuffer);
-                        bitOffset = 0;
-                    }
+            // Called with the lock held or, for double buffering, while the transferring flag is set.
+            for (int i = 0; i < height; i++) {
+                bitOffset += pixelFormat.writeRgb(
+                        source,
+                        sourceAddress,
+                        sourceStrideX,
+                        transferBuffer,
+                        bitOffset,
+                        width);
+                sourceAddress += sourceStrideY;
+                // Transfer if the last row is reached or the next row would overflow the buffer.
+                if (i == height - 1 || bitOffset + bitsPerRow > transferBuffer.capacity() * 8) {
+                    int rows = bitOffset / bitsPerRow;
+                    transferBuffer.clear().limit((bitOffset + 7) / 8);
+                    driver.setPixels(xMin, yMin + i + 1 - rows, width, rows, transferBuffer);
+                    bitOffset = 0;
                 }
             }
         }
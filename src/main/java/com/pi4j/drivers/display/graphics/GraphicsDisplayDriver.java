@@ -1,6 +1,7 @@
 package com.pi4j.drivers.display.graphics;
 
 import java.io.Closeable;
+import java.nio.ByteBuffer;
 
 public interface GraphicsDisplayDriver extends Closeable {
 
@@ -8,6 +9,42 @@ public interface GraphicsDisplayDriver extends Closeable {
 
     void setPixels(int x, int y, int width, int height, byte[] data);
 
+    /**
+     * Variant of setPixels for pixel data in a ByteBuffer, starting at the buffer position. Drivers that can
+     * consume buffers directly (e.g. via a file channel or a native transfer) should override this method and
+     * return true from isDirectBufferPreferred(), so GraphicsDisplay converts pixels directly into a direct
+     * buffer. The buffer is only valid for the duration of the call.
+     * <p>
+     * The default implementation forwards to the array variant, passing the backing array of heap buffers
+     * without copying.
+     */
+    default void setPixels(int x, int y, int width, int height, ByteBuffer data) {
+        if (data.hasArray() && data.arrayOffset() == 0 && data.position() == 0) {
+            setPixels(x, y, width, height, data.array());
+        } else {
+            byte[] array = new byte[data.remaining()];
+            data.duplicate().get(array);
+            setPixels(x, y, width, height, array);
+        }
+    }
+
+    /**
+     * Returns true if this driver prefers to receive direct ByteBuffers via setPixels(..., ByteBuffer).
+     * Defaults to false.
+     */
+    default boolean isDirectBufferPreferred() {
+        return false;
+    }
+
+    /**
+     * Called by GraphicsDisplay after all modified areas of an update were sent via setPixels. Drivers that
+     * collect the data of multiple setPixels calls in order to send it in one go can use this method to
+     * trigger the transfer. For such drivers, setPixels alone doesn't change the display: code using the driver
+     * directly (without GraphicsDisplay) needs to call flush() itself. The default implementation does nothing.
+     */
+    default void flush() {
+    }
+
     /**
      * Displays that need time to update beyond the data transfer (typically e-Ink displays)
      * can use this method to signal their busy state. Display updates will be aggregated until
@@ -3,20 +3,27 @@ package com.pi4j.drivers.display.graphics;
 import com.pi4j.drivers.display.BitmapFont;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A class for rendering a scrolling message. Useful for showing longer texts on small displays.
+ * <p>
+ * The text is rasterized once into an off-screen strip, so scrolling just copies the visible part of the strip
+ * to the display. All animators share a single background thread.
  */
 public final class GraphicsTextAnimator {
 
+    /** Shared by all animators; the thread is started with the first animation. */
+    private static final ScheduledThreadPoolExecutor executor = createExecutor();
+
     private final int frameX;
     private final int frameY;
     private final int frameWidth;
     private final Object lock = new Object();
-    private final Timer timer = new Timer(/* daemon= */ true);
 
     private BitmapFont font = BitmapFont.get5x8Font(BitmapFont.Option.PROPORTIONAL);
     private int foreground = Argb32.WHITE;
@@ -25,9 +32,12 @@ public final class GraphicsTextAnimator {
     private boolean clearOnStop = false;
     private int stepPixels = 1;
     private String text;
-    private TimerTask scrollTask;
+    private ScheduledFuture<?> scrollTask;
     private Graphics graphics;
     private int offset;
+    /** The rasterized text, including the background; null if it needs to be re-rendered. */
+    private int[] strip;
+    private int stripWidth;
 
     /**
      * Creates a scrolling message at the top of the display, spanning the whole display width. Note that the
@@ -63,15 +73,25 @@ public final class GraphicsTextAnimator {
     }
 
     public void setText(String text) {
-        this.text = Objects.requireNonNull(text, "text must not be null");
+        synchronized (lock) {
+            this.text = Objects.requireNonNull(text, "text must not be null");
+            strip = null;
+        }
     }
 
     public String getText() {
         return text;
     }
 
+    /**
+     * Sets the font used for the text; the proportional 5x8 font by default. The font set on the display's Graphics
+     * instance is not used.
+     */
     public void setFont(BitmapFont font) {
-        this.font = Objects.requireNonNull(font, "font must not be null");
+        synchronized (lock) {
+            this.font = Objects.requireNonNull(font, "font must not be null");
+            strip = null;
+        }
     }
 
     public BitmapFont getFont() {
@@ -79,11 +99,14 @@ public final class GraphicsTextAnimator {
     }
 
     public void setForeground(int foreground) {
-        this.foreground = foreground;
+        synchronized (lock) {
+            this.foreground = foreground;
+            strip = null;
+        }
     }
 
     public void setForeground(int r, int g, int b) {
-        this.foreground = Argb32.fromRgb(r, g, b);
+        setForeground(Argb32.fromRgb(r, g, b));
     }
 
     public int getForeground() {
@@ -91,11 +114,14 @@ public final class GraphicsTextAnimator {
     }
 
     public void setBackground(int background) {
-        this.background = background;
+        synchronized (lock) {
+            this.background = background;
+            strip = null;
+        }
     }
 
     public void setBackground(int r, int g, int b) {
-        this.background = Argb32.fromRgb(r, g, b);
+        setBackground(Argb32.fromRgb(r, g, b));
     }
 
     public int getBackground() {
@@ -164,18 +190,29 @@ public final class GraphicsTextAnimator {
     /** Clears the frame and renders the text just once. */
     public int render() {
         synchronized (lock) {
-            clear();
-
-            // This uses clipping and the color from the last call
-            graphics.setClip(frameX, frameY, frameWidth, font.getCellHeight());
-            graphics.setColor(foreground);
-            return graphics.renderText(frameX + offset, frameY + font.getCellHeight(), text);
+            if (strip == null) {
+                renderStrip();
+            }
+            int height = font.getCellHeight();
+            int textX = frameX + offset;
+            graphics.setClip(frameX, frameY, frameWidth, height);
+            graphics.setColor(background);
+            // Clear the parts of the frame not covered by the text.
+            if (textX > frameX) {
+                graphics.fillRect(frameX, frameY, textX - frameX, height);
+            }
+            if (textX + stripWidth < frameX + frameWidth) {
+                graphics.fillRect(textX + stripWidth, frameY, frameX + frameWidth - textX - stripWidth, height);
+            }
+            graphics.drawRgb(textX, frameY, stripWidth, height, strip, 0, stripWidth, 1, 1);
+            return stripWidth;
         }
     }
 
     /** Clears the frame. */
     public void clear() {
         synchronized (lock) {
+            graphics.setClip(frameX, frameY, frameWidth, font.getCellHeight());
             graphics.setColor(background);
             graphics.fillRect(frameX, frameY, frameWidth, font.getCellHeight());
         }
@@ -201,14 +238,8 @@ public final class GraphicsTextAnimator {
             if (scrollTask != null) {
                 throw new IllegalStateException("Already started.");
             }
-            scrollTask = new TimerTask() {
-                @Override
-                public void run() {
-                        scroll();
-                }
-            };
-            long delayMs = delay.toMillis();
-            timer.schedule(scrollTask, delayMs, delayMs);
+            long delayNanos = delay.toNanos();
+            scrollTask = executor.scheduleAtFixedRate(this::scroll, delayNanos, delayNanos, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -216,7 +247,7 @@ public final class GraphicsTextAnimator {
     public void stop() {
         synchronized (lock) {
             if (scrollTask != null) {
-                scrollTask.cancel();
+                scrollTask.cancel(false);
                 scrollTask = null;
             }
             if (clearOnStop) {
@@ -231,4 +262,51 @@ public final class GraphicsTextAnimator {
             return scrollTask != null;
         }
     }
+
+    /** Rasterizes the text with the current font and colors into the strip. */
+    private void renderStrip() {
+        int height = font.getCellHeight();
+        int width = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codepoint = text.codePointAt(i);
+            i += Character.charCount(codepoint);
+            BitmapFont.Glyph glyph = font.getGlyph(codepoint);
+            width += glyph == null ? font.getCellWidth() : glyph.getWidth();
+        }
+
+        int[] pixels = new int[width * height];
+        Arrays.fill(pixels, background);
+        // Text is drawn opaque, matching Graphics.renderText without alpha processing.
+        int color = foreground | 0xff000000;
+        int x0 = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codepoint = text.codePointAt(i);
+            i += Character.charCount(codepoint);
+            BitmapFont.Glyph glyph = font.getGlyph(codepoint);
+            if (glyph == null) {
+                x0 += font.getCellWidth();
+                continue;
+            }
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < glyph.getWidth(); x++) {
+                    if (glyph.getPixel(x, y)) {
+                        pixels[y * width + x0 + x] = color;
+                    }
+                }
+            }
+            x0 += glyph.getWidth();
+        }
+        strip = pixels;
+        stripWidth = width;
+    }
+
+    private static ScheduledThreadPoolExecutor createExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "GraphicsTextAnimator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
 }
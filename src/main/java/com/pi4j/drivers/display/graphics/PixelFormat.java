@@ -1,5 +1,7 @@
 package com.pi4j.drivers.display.graphics;
 
+import java.nio.ByteBuffer;
+
 public enum PixelFormat {
 
     MONOCHROME(1),
@@ -17,7 +19,24 @@ public enum PixelFormat {
     RGB_565_LE(5, 6, 5, 11, 5, 0),
     RGB_888(8, 8, 8, 16, 8, 0),
     // The same as RGB_888, but with the shift for red and green swapped.
-    GRB_888(8, 8, 8, 8, 16, 0);
+    GRB_888(8, 8, 8, 8, 16, 0),
+    // RGB_888 padded to 32 bits and stored in little endian byte order (blue, green, red, unused), as used by
+    // 32 bit Linux framebuffers.
+    XRGB_8888_LE(0, 8, 8, 8, 16, 8, 0, 8);
+
+    /**
+     * Weighted red, green and blue contributions to the grayscale value (times 10000), indexed by the channel
+     * value plus 0, 256 and 512 respectively.
+     */
+    private static final int[] GRAY_WEIGHTS = new int[3 * 256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            GRAY_WEIGHTS[i] = i * 2989;
+            GRAY_WEIGHTS[256 + i] = i * 5870;
+            GRAY_WEIGHTS[512 + i] = i * 1140;
+        }
+    }
 
     private final int grayBitCount;
 
@@ -36,14 +55,14 @@ public enum PixelFormat {
     private final int bitCount;
 
     PixelFormat(int grayBitCount) {
-        this(grayBitCount, 0, 0, 0, 0,0);
+        this(grayBitCount, 0, 0, 0, 0, 0, 0, 0);
     }
 
     PixelFormat(int redBitCount, int greenBitCount, int blueBitCount, int redShift, int greenShift, int blueShift) {
-        this(0, redBitCount, greenBitCount, blueBitCount, redShift, greenShift, blueShift);
+        this(0, redBitCount, greenBitCount, blueBitCount, redShift, greenShift, blueShift, 0);
     }
 
-    PixelFormat(int grayBitCount, int redBitCount, int greenBitCount, int blueBitCount, int redShift, int greenShift, int blueShift) {
+    PixelFormat(int grayBitCount, int redBitCount, int greenBitCount, int blueBitCount, int redShift, int greenShift, int blueShift, int paddingBitCount) {
         this.grayBitCount = grayBitCount;
 
         this.redBitCount = redBitCount;
@@ -58,7 +77,7 @@ public enum PixelFormat {
         this.greenMask = (1 << greenBitCount) - 1;
         this.blueMask = (1 << blueBitCount) - 1;
 
-        this.bitCount = grayBitCount + redBitCount + greenBitCount + blueBitCount;
+        this.bitCount = grayBitCount + redBitCount + greenBitCount + blueBitCount + paddingBitCount;
     }
 
     // The total number of bits used by this format.
@@ -97,6 +116,12 @@ public enum PixelFormat {
                 buffer[byteOffset] = (byte) value;
                 buffer[byteOffset + 1] = (byte) (value >>> 8);
             }
+            case XRGB_8888_LE -> {
+                buffer[byteOffset] = (byte) value;
+                buffer[byteOffset + 1] = (byte) (value >>> 8);
+                buffer[byteOffset + 2] = (byte) (value >>> 16);
+                buffer[byteOffset + 3] = 0;
+            }
             default -> {
                 bitOffset %= 8;
                 int mask = ((1 << count) - 1) << (32 - count - bitOffset);
@@ -118,10 +143,7 @@ public enum PixelFormat {
             return rgb;
         }
         if (grayBitCount != 0) {
-            int grayscale10000x = ((rgb >>> 16) & 255) * 2989
-                        + ((rgb >>> 8) & 255) * 5870
-                        + ((rgb & 255) * 1140);
-            return (grayscale10000x / 10000) >>> (8 - grayBitCount);
+            return gray(rgb) >>> (8 - grayBitCount);
         }
         int red = (rgb >> (24 - redBitCount)) & redMask;
         int green = (rgb >> (16 - greenBitCount)) & greenMask;
@@ -134,9 +156,8 @@ public enum PixelFormat {
      * number of bits written.
      */
     int writeRgb(int rgb, byte[] buffer, int bitOffset) {
-        int count = redBitCount + greenBitCount + blueBitCount;
-        writeBits(fromRgb(rgb), count, buffer, bitOffset);
-        return count;
+        writeBits(fromRgb(rgb), bitCount, buffer, bitOffset);
+        return bitCount;
     }
 
     /**
@@ -178,12 +199,176 @@ public enum PixelFormat {
      * @return The number of bits written.
      */
      int writeRgb(int[] srcRgb, int srcOffset, int srcStride, byte[] dst, int dstBitOffset, int pixelCount) {
-        int bitsWritten = 0;
+        // Dispatch once per call to a loop specialized for the format instead of once per pixel.
+        switch (this) {
+            case RGB_888 -> write888(srcRgb, srcOffset, srcStride, dst, dstBitOffset / 8, pixelCount, 16, 8);
+            case GRB_888 -> write888(srcRgb, srcOffset, srcStride, dst, dstBitOffset / 8, pixelCount, 8, 16);
+            case RGB_565 -> write565(srcRgb, srcOffset, srcStride, dst, dstBitOffset / 8, pixelCount, 8, 0);
+            case RGB_565_LE -> write565(srcRgb, srcOffset, srcStride, dst, dstBitOffset / 8, pixelCount, 0, 8);
+            case XRGB_8888_LE -> write8888Le(srcRgb, srcOffset, srcStride, dst, dstBitOffset / 8, pixelCount);
+            default -> writePacked(srcRgb, srcOffset, srcStride, dst, dstBitOffset, pixelCount);
+        }
+        return pixelCount * bitCount;
+    }
+
+    /**
+     * Writes 24 bit integer RGB values from srcRgb to dst in "this" pixel format. Positions in dst are absolute,
+     * i.e. the position and limit of the buffer are ignored. Array backed buffers are handled by the array
+     * variant; for direct buffers, the pixels are converted directly into the buffer without an intermediate
+     * array.
+     *
+     * @return The number of bits written.
+     */
+    int writeRgb(int[] srcRgb, int srcOffset, int srcStride, ByteBuffer dst, int dstBitOffset, int pixelCount) {
+        if (dst.hasArray()) {
+            return writeRgb(srcRgb, srcOffset, srcStride, dst.array(), dst.arrayOffset() * 8 + dstBitOffset, pixelCount);
+        }
+        switch (this) {
+            case RGB_888 -> write888(srcRgb, srcOffset, srcStride, dst, dstBitOffset / 8, pixelCount, 16, 8);
+            case GRB_888 -> write888(srcRgb, srcOffset, srcStride, dst, dstBitOffset / 8, pixelCount, 8, 16);
+            case RGB_565 -> write565(srcRgb, srcOffset, srcStride, dst, dstBitOffset / 8, pixelCount, 8, 0);
+            case RGB_565_LE -> write565(srcRgb, srcOffset, srcStride, dst, dstBitOffset / 8, pixelCount, 0, 8);
+            case XRGB_8888_LE -> write8888Le(srcRgb, srcOffset, srcStride, dst, dstBitOffset / 8, pixelCount);
+            default -> writePacked(srcRgb, srcOffset, srcStride, dst, dstBitOffset, pixelCount);
+        }
+        return pixelCount * bitCount;
+    }
+
+    /** Returns the 8 bit grayscale value for the given rgb value. */
+    private static int gray(int rgb) {
+        return (GRAY_WEIGHTS[(rgb >>> 16) & 255] + GRAY_WEIGHTS[256 + ((rgb >>> 8) & 255)] + GRAY_WEIGHTS[512 + (rgb & 255)])
+                / 10000;
+    }
+
+    /** Writes byte aligned 24 bit pixels, with the given shifts for the first two bytes. */
+    private static void write888(int[] srcRgb, int srcOffset, int srcStride, byte[] dst, int dstOffset, int pixelCount, int shift0, int shift1) {
         for (int i = 0; i < pixelCount; i++) {
-            bitsWritten += writeRgb(srcRgb[srcOffset], dst, dstBitOffset + bitsWritten);
+            int rgb = srcRgb[srcOffset];
+            dst[dstOffset] = (byte) (rgb >>> shift0);
+            dst[dstOffset + 1] = (byte) (rgb >>> shift1);
+            dst[dstOffset + 2] = (byte) rgb;
+            dstOffset += 3;
             srcOffset += srcStride;
         }
-        return bitsWritten;
+    }
+
+    /** Writes byte aligned 16 bit 565 pixels, with the given shifts for the first and second byte. */
+    private static void write565(int[] srcRgb, int srcOffset, int srcStride, byte[] dst, int dstOffset, int pixelCount, int shift0, int shift1) {
+        for (int i = 0; i < pixelCount; i++) {
+            int rgb = srcRgb[srcOffset];
+            int value = ((rgb >> 8) & 0xf800) | ((rgb >> 5) & 0x07e0) | ((rgb >> 3) & 0x001f);
+            dst[dstOffset] = (byte) (value >>> shift0);
+            dst[dstOffset + 1] = (byte) (value >>> shift1);
+            dstOffset += 2;
+            srcOffset += srcStride;
+        }
+    }
+
+    /** Writes 32 bit pixels in blue, green, red, unused byte order. */
+    private static void write8888Le(int[] srcRgb, int srcOffset, int srcStride, byte[] dst, int dstOffset, int pixelCount) {
+        for (int i = 0; i < pixelCount; i++) {
+            int rgb = srcRgb[srcOffset];
+            dst[dstOffset] = (byte) rgb;
+            dst[dstOffset + 1] = (byte) (rgb >>> 8);
+            dst[dstOffset + 2] = (byte) (rgb >>> 16);
+            dst[dstOffset + 3] = 0;
+            dstOffset += 4;
+            srcOffset += srcStride;
+        }
+    }
+
+    /** ByteBuffer variant of write888. */
+    private static void write888(int[] srcRgb, int srcOffset, int srcStride, ByteBuffer dst, int dstOffset, int pixelCount, int shift0, int shift1) {
+        for (int i = 0; i < pixelCount; i++) {
+            int rgb = srcRgb[srcOffset];
+            dst.put(dstOffset, (byte) (rgb >>> shift0));
+            dst.put(dstOffset + 1, (byte) (rgb >>> shift1));
+            dst.put(dstOffset + 2, (byte) rgb);
+            dstOffset += 3;
+            srcOffset += srcStride;
+        }
+    }
+
+    /** ByteBuffer variant of write565. */
+    private static void write565(int[] srcRgb, int srcOffset, int srcStride, ByteBuffer dst, int dstOffset, int pixelCount, int shift0, int shift1) {
+        for (int i = 0; i < pixelCount; i++) {
+            int rgb = srcRgb[srcOffset];
+            int value = ((rgb >> 8) & 0xf800) | ((rgb >> 5) & 0x07e0) | ((rgb >> 3) & 0x001f);
+            dst.put(dstOffset, (byte) (value >>> shift0));
+            dst.put(dstOffset + 1, (byte) (value >>> shift1));
+            dstOffset += 2;
+            srcOffset += srcStride;
+        }
+    }
+
+    /** ByteBuffer variant of write8888Le. */
+    private static void write8888Le(int[] srcRgb, int srcOffset, int srcStride, ByteBuffer dst, int dstOffset, int pixelCount) {
+        for (int i = 0; i < pixelCount; i++) {
+            int rgb = srcRgb[srcOffset];
+            dst.put(dstOffset, (byte) rgb);
+            dst.put(dstOffset + 1, (byte) (rgb >>> 8));
+            dst.put(dstOffset + 2, (byte) (rgb >>> 16));
+            dst.put(dstOffset + 3, (byte) 0);
+            dstOffset += 4;
+            srcOffset += srcStride;
+        }
+    }
+
+    /** Returns the packed value of the given rgb value for formats that are not byte aligned. */
+    private int packedValue(int rgb) {
+        return grayBitCount != 0
+                ? gray(rgb) >>> (8 - grayBitCount)
+                : ((rgb >> 12) & 0xf00) | ((rgb >> 8) & 0x0f0) | ((rgb >> 4) & 0x00f);
+    }
+
+    /** ByteBuffer variant of writePacked. */
+    private void writePacked(int[] srcRgb, int srcOffset, int srcStride, ByteBuffer dst, int dstBitOffset, int pixelCount) {
+        int byteOffset = dstBitOffset / 8;
+        int accumulatedBits = dstBitOffset % 8;
+        int accumulator = accumulatedBits == 0 ? 0 : (dst.get(byteOffset) & 0xff) >>> (8 - accumulatedBits);
+
+        for (int i = 0; i < pixelCount; i++) {
+            accumulator = (accumulator << bitCount) | packedValue(srcRgb[srcOffset]);
+            accumulatedBits += bitCount;
+            while (accumulatedBits >= 8) {
+                accumulatedBits -= 8;
+                dst.put(byteOffset++, (byte) (accumulator >>> accumulatedBits));
+            }
+            accumulator &= (1 << accumulatedBits) - 1;
+            srcOffset += srcStride;
+        }
+
+        if (accumulatedBits > 0) {
+            int keepMask = 0xff >>> accumulatedBits;
+            dst.put(byteOffset, (byte) ((accumulator << (8 - accumulatedBits)) | (dst.get(byteOffset) & keepMask)));
+        }
+    }
+
+    /**
+     * Writes pixels of formats that are not byte aligned (grayscale and RGB_444), collecting the bits in an
+     * accumulator so each destination byte is written only once. Bits outside the written range are preserved.
+     */
+    private void writePacked(int[] srcRgb, int srcOffset, int srcStride, byte[] dst, int dstBitOffset, int pixelCount) {
+        int byteOffset = dstBitOffset / 8;
+        int accumulatedBits = dstBitOffset % 8;
+        // Start with the existing bits in front of the start position.
+        int accumulator = accumulatedBits == 0 ? 0 : (dst[byteOffset] & 0xff) >>> (8 - accumulatedBits);
+
+        for (int i = 0; i < pixelCount; i++) {
+            accumulator = (accumulator << bitCount) | packedValue(srcRgb[srcOffset]);
+            accumulatedBits += bitCount;
+            while (accumulatedBits >= 8) {
+                accumulatedBits -= 8;
+                dst[byteOffset++] = (byte) (accumulator >>> accumulatedBits);
+            }
+            accumulator &= (1 << accumulatedBits) - 1;
+            srcOffset += srcStride;
+        }
+
+        if (accumulatedBits > 0) {
+            int keepMask = 0xff >>> accumulatedBits;
+            dst[byteOffset] = (byte) ((accumulator << (8 - accumulatedBits)) | (dst[byteOffset] & keepMask));
+        }
     }
 
     /**
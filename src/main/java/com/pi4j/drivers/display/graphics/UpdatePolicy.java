@@ -0,0 +1,105 @@
+package com.pi4j.drivers.display.graphics;
+
+import java.time.Duration;
+
+/**
+ * Decides when modified content of a GraphicsDisplay is transferred to its drivers; see
+ * GraphicsDisplay.setUpdatePolicy().
+ * <p>
+ * Independent of the policy, transfers are postponed while any driver reports to be busy, and all
+ * modifications made until the transfer starts are combined into a single frame.
+ */
+public interface UpdatePolicy {
+
+    /** Returned by getTransferTime() if transfers should only take place on explicit flush() calls. */
+    long MANUAL = Long.MAX_VALUE;
+
+    /**
+     * Returns the System.nanoTime() value at which pending modifications should be transferred, or MANUAL.
+     * Called when the first modification after a transfer is made, and again when the transfer is due,
+     * so policies can postpone transfers based on modifications made in the meantime.
+     */
+    long getTransferTime(UpdateStatistics statistics);
+
+    /**
+     * If true, modifications are transferred synchronously on the drawing thread and getTransferTime()
+     * is not consulted.
+     */
+    default boolean isImmediate() {
+        return false;
+    }
+
+    /** Transfers all modifications immediately on the drawing thread. */
+    static UpdatePolicy immediate() {
+        return new UpdatePolicy() {
+            @Override
+            public long getTransferTime(UpdateStatistics statistics) {
+                return statistics.getFirstPendingModificationNanos();
+            }
+
+            @Override
+            public boolean isImmediate() {
+                return true;
+            }
+        };
+    }
+
+    /** Only transfers modifications when GraphicsDisplay.flush() is called. */
+    static UpdatePolicy manual() {
+        return statistics -> MANUAL;
+    }
+
+    /** Transfers modifications after the given delay, measured from the first modification. */
+    static UpdatePolicy delay(Duration delay) {
+        long delayNanos = delay.toNanos();
+        return statistics -> statistics.getFirstPendingModificationNanos() + delayNanos;
+    }
+
+    /**
+     * Limits transfers to the given frame rate. Frames are paced relative to the start of the previous
+     * transfer, so continuous drawing results in a steady frame rate as long as transfers are fast enough.
+     */
+    static UpdatePolicy maxFrameRate(double framesPerSecond) {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("framesPerSecond must be > 0");
+        }
+        long periodNanos = (long) (1e9 / framesPerSecond);
+        return statistics -> statistics.getTransferCount() == 0
+                ? statistics.getFirstPendingModificationNanos()
+                : Math.max(
+                        statistics.getFirstPendingModificationNanos(),
+                        statistics.getLastTransferStartNanos() + periodNanos);
+    }
+
+    /**
+     * Adapts the frame rate to the measured transfer time, so transfers occupy at most the given share
+     * (0..1] of the time. Useful for leaving bandwidth on a shared bus to other devices.
+     */
+    static UpdatePolicy adaptive(double maxBusyShare) {
+        if (maxBusyShare <= 0 || maxBusyShare > 1) {
+            throw new IllegalArgumentException("maxBusyShare must be in the range (0..1]");
+        }
+        double idleFactor = (1 - maxBusyShare) / maxBusyShare;
+        return statistics -> statistics.getTransferCount() == 0
+                ? statistics.getFirstPendingModificationNanos()
+                : Math.max(
+                        statistics.getFirstPendingModificationNanos(),
+                        statistics.getLastTransferEndNanos() + (long) (statistics.getAverageTransferNanos() * idleFactor));
+    }
+
+    /**
+     * Waits until no modifications were made for the given quiet period and at least minInterval has passed
+     * since the start of the last transfer. Intended for e-ink displays, where each transfer triggers a slow
+     * refresh.
+     */
+    static UpdatePolicy coalesceUntilIdle(Duration quietPeriod, Duration minInterval) {
+        long quietNanos = quietPeriod.toNanos();
+        long intervalNanos = minInterval.toNanos();
+        return statistics -> {
+            long idleTime = statistics.getLastModificationNanos() + quietNanos;
+            return statistics.getTransferCount() == 0
+                    ? idleTime
+                    : Math.max(idleTime, statistics.getLastTransferStartNanos() + intervalNanos);
+        };
+    }
+}
@@ -0,0 +1,167 @@
+package com.pi4j.drivers.display.graphics;
+
+/**
+ * Statistics about the transfers of a GraphicsDisplay to its drivers. Also provides the timing information
+ * that update policies base their decisions on. All times are System.nanoTime() values.
+ */
+public final class UpdateStatistics {
+    /** Weight of a new sample in the running averages is 1 / AVERAGE_WEIGHT. */
+    private static final int AVERAGE_WEIGHT = 8;
+
+    private long transferCount;
+    private long coalescedCount;
+    private long droppedFrameCount;
+    private long postponementCount;
+    private long lastTransferStartNanos;
+    private long lastTransferEndNanos;
+    private long averageTransferNanos;
+    private long maxTransferNanos;
+    private long averageFrameIntervalNanos;
+
+    private boolean modificationPending;
+    /** True if the pending modifications were due for transfer but had to be postponed. */
+    private boolean pendingPostponed;
+    private long firstPendingModificationNanos;
+    private long lastModificationNanos;
+
+    UpdateStatistics() {
+    }
+
+    /** Returns the number of transfers (frames) sent to the drivers. */
+    public synchronized long getTransferCount() {
+        return transferCount;
+    }
+
+    /** Returns the number of modifications that were merged into an already pending transfer. */
+    public synchronized long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    /**
+     * Returns the number of frames that were never shown: the transfer was due but postponed because a driver was
+     * busy or the previous transfer was still running, and further modifications superseded the content before it
+     * was transferred.
+     */
+    public synchronized long getDroppedFrameCount() {
+        return droppedFrameCount;
+    }
+
+    /**
+     * Returns the number of times a due transfer was postponed because a driver was busy or the previous transfer
+     * was still running. A frame postponed several times is counted each time.
+     */
+    public synchronized long getPostponementCount() {
+        return postponementCount;
+    }
+
+    /** The start time of the last transfer. Only meaningful if the transfer count is &gt; 0. */
+    public synchronized long getLastTransferStartNanos() {
+        return lastTransferStartNanos;
+    }
+
+    /** The end time of the last transfer. Only meaningful if the transfer count is &gt; 0. */
+    public synchronized long getLastTransferEndNanos() {
+        return lastTransferEndNanos;
+    }
+
+    /** The duration of the last transfer. */
+    public synchronized long getLastTransferNanos() {
+        return lastTransferEndNanos - lastTransferStartNanos;
+    }
+
+    /** The running average of the transfer duration. */
+    public synchronized long getAverageTransferNanos() {
+        return averageTransferNanos;
+    }
+
+    /** The longest transfer duration observed. */
+    public synchronized long getMaxTransferNanos() {
+        return maxTransferNanos;
+    }
+
+    /** The achieved frame rate, based on a running average of the time between transfer starts. */
+    public synchronized double getFramesPerSecond() {
+        return averageFrameIntervalNanos == 0 ? 0 : 1e9 / averageFrameIntervalNanos;
+    }
+
+    /** Returns true if there are modifications that have not been transferred yet. */
+    public synchronized boolean isModificationPending() {
+        return modificationPending;
+    }
+
+    /** The time of the first modification that has not been transferred yet. Only meaningful if one is pending. */
+    public synchronized long getFirstPendingModificationNanos() {
+        return firstPendingModificationNanos;
+    }
+
+    /** The time of the last modification. */
+    public synchronized long getLastModificationNanos() {
+        return lastModificationNanos;
+    }
+
+    /** Resets all counters and averages. */
+    public synchronized void reset() {
+        transferCount = 0;
+        coalescedCount = 0;
+        droppedFrameCount = 0;
+        postponementCount = 0;
+        averageTransferNanos = 0;
+        maxTransferNanos = 0;
+        averageFrameIntervalNanos = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+                "UpdateStatistics{transfers=%d, coalesced=%d, dropped=%d, postponed=%d, fps=%.1f, avgTransfer=%.2fms, "
+                        + "maxTransfer=%.2fms}",
+                transferCount, coalescedCount, droppedFrameCount, postponementCount, getFramesPerSecond(),
+                averageTransferNanos / 1e6, maxTransferNanos / 1e6);
+    }
+
+    // Package-private methods used by GraphicsDisplay
+
+    synchronized void recordModification(long nanos) {
+        if (modificationPending) {
+            coalescedCount++;
+            if (pendingPostponed) {
+                // The postponed frame is replaced by new content before it could be shown.
+                droppedFrameCount++;
+                pendingPostponed = false;
+            }
+        } else {
+            modificationPending = true;
+            firstPendingModificationNanos = nanos;
+        }
+        lastModificationNanos = nanos;
+    }
+
+    /** Called when a due transfer is postponed because a driver is busy. */
+    synchronized void recordPostponement() {
+        postponementCount++;
+        pendingPostponed = true;
+    }
+
+    /** Called when the modifications are taken for a transfer. */
+    synchronized void recordTransferStart(long nanos) {
+        modificationPending = false;
+        pendingPostponed = false;
+        if (transferCount > 0) {
+            long interval = nanos - lastTransferStartNanos;
+            averageFrameIntervalNanos = averageFrameIntervalNanos == 0
+                    ? interval
+                    : averageFrameIntervalNanos + (interval - averageFrameIntervalNanos) / AVERAGE_WEIGHT;
+        }
+        lastTransferStartNanos = nanos;
+    }
+
+    synchronized void recordTransferEnd(long nanos) {
+        long duration = nanos - lastTransferStartNanos;
+        averageTransferNanos = transferCount == 0
+                ? duration
+                : averageTransferNanos + (duration - averageTransferNanos) / AVERAGE_WEIGHT;
+        maxTransferNanos = Math.max(maxTransferNanos, duration);
+        lastTransferEndNanos = nanos;
+        transferCount++;
+    }
+}
@@ -23,12 +23,19 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class JFrameGraphicsDriver implements GraphicsDisplayDriver {
 
     private static final Logger log = LoggerFactory.getLogger(JFrameGraphicsDriver.class);
 
+    /** Reads 4 RGB_888 bytes at once, so 4 pixels can be unpacked from 3 reads. */
+    private static final VarHandle BIG_ENDIAN_INT =
+            MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
     private final GraphicsDisplayDescriptor displayInfo;
     private final BufferedImage imageBuffer;
     private final int[] pixelBuffer; // direct backing int[] (TYPE_INT_RGB)
@@ -39,6 +46,15 @@ public class JFrameGraphicsDriver implements GraphicsDisplayDriver {
     // Coalesce repaints under heavy write load
     private final AtomicBoolean repaintQueued = new AtomicBoolean(false);
 
+    // The area modified since the last repaint request; guarded by pixelBuffer. Max values are exclusive.
+    private int dirtyXMin = Integer.MAX_VALUE;
+    private int dirtyYMin = Integer.MAX_VALUE;
+    private int dirtyXMax = 0;
+    private int dirtyYMax = 0;
+    private long firstDirtyNanos;
+
+    private final FrameStatistics statistics = new FrameStatistics();
+
     public JFrameGraphicsDriver(int width, int height) {
         this.displayInfo = new GraphicsDisplayDescriptor(width, height, PixelFormat.RGB_888);
 
@@ -81,8 +97,129 @@ public class JFrameGraphicsDriver implements GraphicsDisplayDriver {
 
         @Override
         protected void paintComponent(Graphics g) {
+            long start = System.nanoTime();
             super.paintComponent(g);
-            g.drawImage(imageBuffer, 0, 0, this);
+            // Only the repainted clip area is actually drawn. Holding the lock avoids tearing.
+            synchronized (pixelBuffer) {
+                g.drawImage(imageBuffer, 0, 0, this);
+            }
+            statistics.recordPaint(start, System.nanoTime());
+        }
+    }
+
+    /**
+     * Frame time metrics of this driver. Times are in nanoseconds; averages are running averages. The latency of
+     * a frame is the time from the first modification to the repaint of the modified area.
+     */
+    public static final class FrameStatistics {
+        /** Weight of a new sample in the running averages is 1 / AVERAGE_WEIGHT. */
+        private static final int AVERAGE_WEIGHT = 8;
+
+        private long frameCount;
+        private long pixelCount;
+        private long averageConversionNanos;
+        private long averagePaintNanos;
+        private long maxPaintNanos;
+        private long averageLatencyNanos;
+        private long maxLatencyNanos;
+        private long lastFrameStartNanos;
+        private long averageFrameIntervalNanos;
+        private long pendingLatencyStart = -1;
+
+        private FrameStatistics() {
+        }
+
+        /** The number of repaints of modified areas. */
+        public synchronized long getFrameCount() {
+            return frameCount;
+        }
+
+        /** The number of pixels written via setPixels. */
+        public synchronized long getPixelCount() {
+            return pixelCount;
+        }
+
+        /** The running average of the time setPixels spends converting pixel data. */
+        public synchronized long getAverageConversionNanos() {
+            return averageConversionNanos;
+        }
+
+        /** The running average of the time spent painting the image to the panel. */
+        public synchronized long getAveragePaintNanos() {
+            return averagePaintNanos;
+        }
+
+        public synchronized long getMaxPaintNanos() {
+            return maxPaintNanos;
+        }
+
+        /** The running average of the time from the first modification to the repaint. */
+        public synchronized long getAverageLatencyNanos() {
+            return averageLatencyNanos;
+        }
+
+        public synchronized long getMaxLatencyNanos() {
+            return maxLatencyNanos;
+        }
+
+        /** The achieved frame rate, based on a running average of the time between repaints. */
+        public synchronized double getFramesPerSecond() {
+            return averageFrameIntervalNanos == 0 ? 0 : 1e9 / averageFrameIntervalNanos;
+        }
+
+        /** Resets all counters and averages. */
+        public synchronized void reset() {
+            frameCount = 0;
+            pixelCount = 0;
+            averageConversionNanos = 0;
+            averagePaintNanos = 0;
+            maxPaintNanos = 0;
+            averageLatencyNanos = 0;
+            maxLatencyNanos = 0;
+            averageFrameIntervalNanos = 0;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format(
+                    "FrameStatistics{frames=%d, fps=%.1f, avgConversion=%.2fms, avgPaint=%.2fms, avgLatency=%.2fms, maxLatency=%.2fms}",
+                    frameCount, getFramesPerSecond(), averageConversionNanos / 1e6, averagePaintNanos / 1e6,
+                    averageLatencyNanos / 1e6, maxLatencyNanos / 1e6);
+        }
+
+        private static long average(long average, long sample, long count) {
+            return count == 0 ? sample : average + (sample - average) / AVERAGE_WEIGHT;
+        }
+
+        private synchronized void recordConversion(int pixels, long nanos) {
+            averageConversionNanos = average(averageConversionNanos, nanos, pixelCount);
+            pixelCount += pixels;
+        }
+
+        /** Called on the event dispatch thread when a repaint of a modified area is requested. */
+        private synchronized void recordRepaintRequest(long firstModificationNanos) {
+            if (pendingLatencyStart == -1) {
+                pendingLatencyStart = firstModificationNanos;
+            }
+        }
+
+        private synchronized void recordPaint(long start, long end) {
+            long duration = end - start;
+            averagePaintNanos = average(averagePaintNanos, duration, frameCount);
+            maxPaintNanos = Math.max(maxPaintNanos, duration);
+            if (pendingLatencyStart == -1) {
+                // Not caused by a modification, e.g. the window was uncovered.
+                return;
+            }
+            long latency = end - pendingLatencyStart;
+            pendingLatencyStart = -1;
+            averageLatencyNanos = average(averageLatencyNanos, latency, frameCount);
+            maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+            if (frameCount > 0) {
+                averageFrameIntervalNanos = average(averageFrameIntervalNanos, start - lastFrameStartNanos, frameCount - 1);
+            }
+            lastFrameStartNanos = start;
+            frameCount++;
         }
     }
 
@@ -109,6 +246,17 @@ public class JFrameGraphicsDriver implements GraphicsDisplayDriver {
         return displayInfo;
     }
 
+    /** Whole frames can be converted in one call, avoiding a repaint request per transfer chunk. */
+    @Override
+    public int getTransferLimit() {
+        return Integer.MAX_VALUE;
+    }
+
+    /** Returns the frame time metrics of this driver. */
+    public FrameStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public void setPixels(int x, int y, int width, int height, byte[] data) {
         if (data == null)
@@ -142,26 +290,31 @@ public class JFrameGraphicsDriver implements GraphicsDisplayDriver {
         final int srcX0 = dstX0 - x;
         final int srcY0 = dstY0 - y;
 
-        // Fast path: direct array writes, row by row
-        // TYPE_INT_RGB layout expects 0x00RRGGBB
+        // Direct writes to the DataBufferInt backing array, converting whole rows at once.
+        long start = System.nanoTime();
         synchronized (pixelBuffer) {
-            for (int row = 0; row < copyH; row++) {
-                final int srcRow = srcY0 + row;
-                final int dstRow = dstY0 + row;
-
-                final int srcBase = (srcRow * width + srcX0) * bpp;
-                int dstIndex = dstRow * dispW + dstX0;
-                int srcIndex = srcBase;
-
-                for (int col = 0; col < copyW; col++) {
-                    int r = data[srcIndex] & 0xFF;
-                    int g = data[srcIndex + 1] & 0xFF;
-                    int b = data[srcIndex + 2] & 0xFF;
-                    pixelBuffer[dstIndex++] = (r << 16) | (g << 8) | b;
-                    srcIndex += bpp;
+            if (copyW == width && dstX0 == 0 && copyW == dispW) {
+                // Full rows are contiguous in both source and destination.
+                convertRgb888(data, srcY0 * width * bpp, pixelBuffer, dstY0 * dispW, copyW * copyH);
+            } else {
+                for (int row = 0; row < copyH; row++) {
+                    convertRgb888(
+                            data,
+                            ((srcY0 + row) * width + srcX0) * bpp,
+                            pixelBuffer,
+                            (dstY0 + row) * dispW + dstX0,
+                            copyW);
                 }
             }
+            if (dirtyXMin >= dirtyXMax) {
+                firstDirtyNanos = start;
+            }
+            dirtyXMin = Math.min(dirtyXMin, dstX0);
+            dirtyYMin = Math.min(dirtyYMin, dstY0);
+            dirtyXMax = Math.max(dirtyXMax, dstX1);
+            dirtyYMax = Math.max(dirtyYMax, dstY1);
         }
+        statistics.recordConversion(copyW * copyH, System.nanoTime() - start);
 
         if (log.isDebugEnabled()) {
             log.debug("setPixels: x={}, y={}, w={}, h={}", x, y, width, height);
@@ -170,13 +323,52 @@ public class JFrameGraphicsDriver implements GraphicsDisplayDriver {
         requestRepaint();
     }
 
+    /**
+     * Converts count RGB_888 pixels to TYPE_INT_RGB values (0x00RRGGBB), unpacking 4 pixels from 3 big endian int
+     * reads at a time.
+     */
+    static void convertRgb888(byte[] src, int srcIndex, int[] dst, int dstIndex, int count) {
+        int end = dstIndex + count;
+        int blockEnd = dstIndex + (count & ~3);
+        while (dstIndex < blockEnd) {
+            int w0 = (int) BIG_ENDIAN_INT.get(src, srcIndex);
+            int w1 = (int) BIG_ENDIAN_INT.get(src, srcIndex + 4);
+            int w2 = (int) BIG_ENDIAN_INT.get(src, srcIndex + 8);
+            dst[dstIndex] = w0 >>> 8;
+            dst[dstIndex + 1] = (w0 & 0xFF) << 16 | w1 >>> 16;
+            dst[dstIndex + 2] = (w1 & 0xFFFF) << 8 | w2 >>> 24;
+            dst[dstIndex + 3] = w2 & 0xFFFFFF;
+            dstIndex += 4;
+            srcIndex += 12;
+        }
+        while (dstIndex < end) {
+            dst[dstIndex++] = (src[srcIndex] & 0xFF) << 16 | (src[srcIndex + 1] & 0xFF) << 8 | (src[srcIndex + 2] & 0xFF);
+            srcIndex += 3;
+        }
+    }
+
     private void requestRepaint() {
         if (repaintQueued.compareAndSet(false, true)) {
             SwingUtilities.invokeLater(() -> {
-                try {
-                    customPanel.repaint();
-                } finally {
-                    repaintQueued.set(false);
+                int x0;
+                int y0;
+                int x1;
+                int y1;
+                long firstModification;
+                // Reset the flag before taking the dirty area, so later modifications queue a new request.
+                repaintQueued.set(false);
+                synchronized (pixelBuffer) {
+                    x0 = dirtyXMin;
+                    y0 = dirtyYMin;
+                    x1 = dirtyXMax;
+                    y1 = dirtyYMax;
+                    firstModification = firstDirtyNanos;
+                    dirtyXMin = dirtyYMin = Integer.MAX_VALUE;
+                    dirtyXMax = dirtyYMax = 0;
+                }
+                if (x0 < x1) {
+                    statistics.recordRepaintRequest(firstModification);
+                    customPanel.repaint(x0, y0, x1 - x0, y1 - y0);
                 }
             });
         }
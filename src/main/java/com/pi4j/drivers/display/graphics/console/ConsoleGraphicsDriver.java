@@ -4,23 +4,79 @@ import com.pi4j.drivers.display.graphics.GraphicsDisplayDriver;
 import com.pi4j.drivers.display.graphics.GraphicsDisplayDescriptor;
 import com.pi4j.drivers.display.graphics.PixelFormat;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
 /**
  * A graphics driver that renders to the console, mostly for debug / testing purposes.
  * <p>
- * Note that this will produce artifacts unless the line height matches the character height.
+ * Each character cell shows two pixels on top of each other, using the background color for the top pixel and
+ * the foreground color of a lower half block for the bottom pixel. Note that this will produce artifacts unless
+ * the line height matches the character height.
+ * <p>
+ * Unless rendering on close, changes are rendered when flush() is called (see
+ * {@link GraphicsDisplayDriver#flush()}). The driver keeps track of the emitted cells and only emits cells that changed, skipping redundant
+ * cursor moves and color codes. Each frame is written in a single write call. Frames of changes save the cursor
+ * position before rendering and restore it afterwards, and reset the colors, so other console output continues
+ * where it left off.
  */
 public class ConsoleGraphicsDriver implements GraphicsDisplayDriver {
+    private static final byte ESC = 0x1b;
+    private static final byte[] LOWER_HALF_BLOCK = {(byte) 0xe2, (byte) 0x96, (byte) 0x84};
+    private static final byte[] UPPER_HALF_BLOCK = {(byte) 0xe2, (byte) 0x96, (byte) 0x80};
+    private static final byte[] RESET = {ESC, '[', '0', 'm'};
+    private static final byte[] SAVE_CURSOR = {ESC, '7'};
+    private static final byte[] RESTORE_CURSOR = {ESC, '8'};
+    /**
+     * Upper bound for the bytes emitted per cell: a cursor position ("ESC[rrrrr;cccccH"), a combined color
+     * code ("ESC[48;2;rrr;ggg;bbb;38;2;rrr;ggg;bbbm") and the character.
+     */
+    private static final int MAX_CELL_BYTES = 14 + 36 + 3;
+    private static final long UNKNOWN = -1;
+
     // Screen buffer; we could get rid of this by adding y-granularity support but then would lose the
     // render on close option.
     private byte[] buffer;
 
     private final GraphicsDisplayDescriptor displayInfo;
     private final boolean renderOnClose;
+    private final OutputStream out;
+    private final int cellRows;
+    /** The top and bottom color of each cell as last emitted, or UNKNOWN. */
+    private final long[] emitted;
+    /** Sized for a full frame, so it never needs to grow. */
+    private final byte[] output;
+    private int outputLength;
+
+    // The area modified since the last render; empty if dirtyXMin >= dirtyXMax. Max values are exclusive.
+    private int dirtyXMin = Integer.MAX_VALUE;
+    private int dirtyYMin = Integer.MAX_VALUE;
+    private int dirtyXMax = 0;
+    private int dirtyYMax = 0;
+
+    // The terminal state while rendering a frame; -1 if unknown.
+    private int background;
+    private int foreground;
+    private int cursorRow;
+    private int cursorColumn;
 
     public ConsoleGraphicsDriver(int width, int height, boolean renderOnClose) {
+        this(width, height, renderOnClose, System.out);
+    }
+
+    /** Creates a driver rendering to the given output stream, e.g. a connection mirroring a device screen. */
+    public ConsoleGraphicsDriver(int width, int height, boolean renderOnClose, OutputStream out) {
         this.displayInfo = new GraphicsDisplayDescriptor(width, height, PixelFormat.RGB_888);
         this.renderOnClose = renderOnClose;
+        this.out = out;
         buffer = new byte[width * height * 3];
+        cellRows = (height + 1) / 2;
+        emitted = new long[cellRows * width];
+        Arrays.fill(emitted, UNKNOWN);
+        // Rows in render on close mode end with a reset and a line feed.
+        output = new byte[cellRows * (width * MAX_CELL_BYTES + RESET.length + 1)
+                + SAVE_CURSOR.length + RESET.length + RESTORE_CURSOR.length];
     }
 
     @Override
@@ -29,43 +85,175 @@ public class ConsoleGraphicsDriver implements GraphicsDisplayDriver {
     }
 
     @Override
-    public void setPixels(int x, int y, int width, int height, byte[] data) {
+    public synchronized void setPixels(int x, int y, int width, int height, byte[] data) {
         for (int i = 0; i < height; i++) {
             System.arraycopy(data, i * width * 3, buffer, pixelAddress(x, y + i), width * 3);
         }
-        if (!renderOnClose) {
-            render(x, y, width, height);
+        dirtyXMin = Math.min(dirtyXMin, x);
+        dirtyYMin = Math.min(dirtyYMin, y);
+        dirtyXMax = Math.max(dirtyXMax, x + width);
+        dirtyYMax = Math.max(dirtyYMax, y + height);
+    }
+
+    /** Renders the cells changed since the last call, unless rendering on close. */
+    @Override
+    public synchronized void flush() {
+        if (!renderOnClose && dirtyXMin < dirtyXMax) {
+            renderChanges();
         }
     }
 
     @Override
-    public void close() {
+    public synchronized void close() {
         if (renderOnClose) {
-            render(0, 0, displayInfo.getWidth(), displayInfo.getHeight());
+            renderAll();
+        } else {
+            flush();
         }
     }
 
-    private void render(int x, int y, int width, int height) {
-        if ((y & 1) != 0) {
-            y--;
-            height++;
+    /**
+     * Emits the changed cells of the modified area with absolute cursor positioning, restoring the cursor
+     * position afterwards.
+     */
+    private void renderChanges() {
+        startFrame();
+        append(SAVE_CURSOR);
+        int width = displayInfo.getWidth();
+        for (int row = dirtyYMin / 2; row <= (dirtyYMax - 1) / 2; row++) {
+            for (int column = dirtyXMin; column < dirtyXMax; column++) {
+                int top = pixel(column, row * 2);
+                int bottom = pixel(column, row * 2 + 1);
+                long cell = ((long) top << 32) | bottom;
+                int index = row * width + column;
+                if (emitted[index] == cell) {
+                    continue;
+                }
+                emitted[index] = cell;
+                if (cursorRow != row || cursorColumn != column) {
+                    appendCursorPosition(row, column);
+                }
+                appendCell(top, bottom);
+                cursorRow = row;
+                cursorColumn = column + 1;
+            }
+        }
+        dirtyXMin = dirtyYMin = Integer.MAX_VALUE;
+        dirtyXMax = dirtyYMax = 0;
+        if (outputLength > SAVE_CURSOR.length) {
+            append(RESET);
+            append(RESTORE_CURSOR);
+            write();
+        }
+    }
+
+    /** Emits the whole screen line by line at the current console position. */
+    private void renderAll() {
+        startFrame();
+        int width = displayInfo.getWidth();
+        for (int row = 0; row < cellRows; row++) {
+            for (int column = 0; column < width; column++) {
+                appendCell(pixel(column, row * 2), pixel(column, row * 2 + 1));
+            }
+            append(RESET);
+            output[outputLength++] = '\n';
+            background = foreground = -1;
         }
-        for (int i = 0; i < height; i += 2) {
-            if (!renderOnClose) {
-                System.out.print("\u001b[" + (x + 1) + ";" + ((y + i) / 2 + 1) + "H");
+        write();
+    }
+
+    private void startFrame() {
+        outputLength = 0;
+        // The console state may have been changed by other output since the last frame.
+        background = foreground = -1;
+        cursorRow = cursorColumn = -1;
+    }
+
+    /** Appends the given cell, emitting only the color codes that differ from the current terminal state. */
+    private void appendCell(int top, int bottom) {
+        if (top == bottom) {
+            if (background != top) {
+                appendColors(top, -1);
             }
-            int fgPos = pixelAddress(x,  i);
-            int bgPos = pixelAddress(x, i + 1);
-            for (int j = 0; j < width; j ++) {
-                System.out.print("\u001b[48;2;" + (buffer[fgPos] & 0xff) +";" +(buffer[fgPos + 1] & 0xff) + ";" + (buffer[fgPos + 2] & 0xff) + "m");
-                System.out.print("\u001b[38;2;" + (buffer[bgPos] & 0xff) +";" +(buffer[bgPos + 1] & 0xff) + ";" + (buffer[bgPos + 2] & 0xff) + "m▄");
-                fgPos += 3;
-                bgPos += 3;
+            output[outputLength++] = ' ';
+        } else if (foreground == top && background == bottom) {
+            append(UPPER_HALF_BLOCK);
+        } else {
+            if (background != top || foreground != bottom) {
+                appendColors(background != top ? top : -1, foreground != bottom ? bottom : -1);
             }
-            if (renderOnClose) {
-                System.out.println("\033[0m");
+            append(LOWER_HALF_BLOCK);
+        }
+    }
+
+    /** Appends a single SGR sequence setting the given background and foreground colors; -1 to keep a color. */
+    private void appendColors(int newBackground, int newForeground) {
+        output[outputLength++] = ESC;
+        output[outputLength++] = '[';
+        if (newBackground != -1) {
+            output[outputLength++] = '4';
+            appendRgb(newBackground);
+            background = newBackground;
+        }
+        if (newForeground != -1) {
+            if (newBackground != -1) {
+                output[outputLength++] = ';';
             }
+            output[outputLength++] = '3';
+            appendRgb(newForeground);
+            foreground = newForeground;
+        }
+        output[outputLength++] = 'm';
+    }
+
+    /** Appends "8;2;r;g;b", completing a 24 bit color SGR parameter. */
+    private void appendRgb(int rgb) {
+        output[outputLength++] = '8';
+        output[outputLength++] = ';';
+        output[outputLength++] = '2';
+        for (int shift = 16; shift >= 0; shift -= 8) {
+            output[outputLength++] = ';';
+            appendDecimal((rgb >> shift) & 0xff);
+        }
+    }
+
+    private void appendCursorPosition(int row, int column) {
+        output[outputLength++] = ESC;
+        output[outputLength++] = '[';
+        appendDecimal(row + 1);
+        output[outputLength++] = ';';
+        appendDecimal(column + 1);
+        output[outputLength++] = 'H';
+    }
+
+    private void appendDecimal(int value) {
+        if (value >= 10) {
+            appendDecimal(value / 10);
+        }
+        output[outputLength++] = (byte) ('0' + value % 10);
+    }
+
+    private void append(byte[] bytes) {
+        System.arraycopy(bytes, 0, output, outputLength, bytes.length);
+        outputLength += bytes.length;
+    }
+
+    private void write() {
+        try {
+            out.write(output, 0, outputLength);
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Returns the given pixel as 0xRRGGBB; black for the padding row of odd display heights. */
+    private int pixel(int x, int y) {
+        if (y >= displayInfo.getHeight()) {
+            return 0;
         }
+        int address = pixelAddress(x, y);
+        return (buffer[address] & 0xff) << 16 | (buffer[address + 1] & 0xff) << 8 | (buffer[address + 2] & 0xff);
     }
 
     private int pixelAddress(int x, int y) {
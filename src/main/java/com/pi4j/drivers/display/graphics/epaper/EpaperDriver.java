@@ -0,0 +1,377 @@
+package com.pi4j.drivers.display.graphics.epaper;
+
+import com.pi4j.drivers.display.graphics.GraphicsDisplay;
+import com.pi4j.drivers.display.graphics.GraphicsDisplayDescriptor;
+import com.pi4j.drivers.display.graphics.GraphicsDisplayDriver;
+import com.pi4j.drivers.display.graphics.PixelFormat;
+import com.pi4j.io.IODataWriter;
+import com.pi4j.io.ListenableOnOffRead;
+import com.pi4j.io.OnOffWrite;
+import com.pi4j.util.Delay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+
+/**
+ * Refresh engine shared by the SSD16xx e-paper controller drivers (SSD1677, SSD1680).
+ * <p>
+ * Monochrome pixel data is collected in a local frame buffer: setPixels() only updates this buffer and extends the
+ * pending region, and flush() (see {@link GraphicsDisplayDriver#flush()}) refreshes the bounding box of the
+ * pending region in a single windowed update. If the panel is still busy with the previous refresh, flush()
+ * returns immediately; further changes are merged into the pending region, which is refreshed as soon as the BUSY
+ * signal falls.
+ * <p>
+ * Partial updates write the previously displayed image to the "red" RAM and the new image to the black / white
+ * RAM, so the partial waveform only drives the changed pixels. Once the refresh has completed, the refreshed window
+ * of the red RAM is brought back in line with the displayed image (when BUSY falls, or at the latest before the next
+ * RAM write), so later partial updates don't drive these pixels again. The PartialUpdatePolicy decides when the
+ * accumulated ghosting requires a full refresh.
+ */
+public abstract class EpaperDriver implements GraphicsDisplayDriver {
+    private static final Logger log = LoggerFactory.getLogger(EpaperDriver.class);
+
+    // Command codes shared by the SSD16xx controllers.
+    private static final int DEEP_SLEEP_MODE = 0x10;
+    private static final int MASTER_ACTIVATION = 0x20;
+    private static final int WRITE_RAM_BW = 0x24;
+    private static final int WRITE_RAM_RED = 0x26;
+
+    /** While waiting for the falling BUSY edge, the pin is re-checked at this interval in case an event got lost. */
+    private static final long BUSY_RECHECK_MILLIS = 100;
+
+    private final IODataWriter spi;
+    private final OnOffWrite<?> rst;
+    private final OnOffWrite<?> dc;
+    private final ListenableOnOffRead<?> busy;
+    private final Delay delay = new Delay();
+    private final GraphicsDisplayDescriptor descriptor;
+    private final Object busyLock = new Object();
+    private final Consumer<Boolean> busyListener = this::onBusyStateChange;
+    private byte[] transferBuffer = new byte[64];
+
+    private final int rowBytes;
+    /** The image to display, one bit per pixel, rows padded to full bytes. */
+    private final byte[] frame;
+    /** The image currently shown on the panel; the "old" image for partial updates. */
+    private final byte[] shown;
+    private final byte[] windowBuffer;
+
+    // The pending region in pixels (x values are byte aligned); the max values are exclusive.
+    private int pendingXMin = Integer.MAX_VALUE;
+    private int pendingYMin = Integer.MAX_VALUE;
+    private int pendingXMax = 0;
+    private int pendingYMax = 0;
+    private volatile boolean pending;
+
+    // The window of the last partial update, for which the red RAM still holds the image shown before it.
+    private int staleXMin;
+    private int staleYMin;
+    private int staleXMax;
+    private int staleYMax;
+    private volatile boolean redRamStale;
+
+    private PartialUpdatePolicy partialUpdatePolicy = PartialUpdatePolicy.createDefault();
+    private boolean fullUpdateRequired = true;
+    private UpdateMode updateMode;
+
+    protected EpaperDriver(
+            IODataWriter spi,
+            OnOffWrite<?> dc,
+            OnOffWrite<?> rst,
+            ListenableOnOffRead<?> busy,
+            int width,
+            int height,
+            PixelFormat pixelFormat) {
+        this.spi = spi;
+        this.dc = dc;
+        this.rst = rst;
+        this.busy = busy;
+        this.descriptor = new GraphicsDisplayDescriptor(width, height, pixelFormat, 8, GraphicsDisplay.Rotation.ROTATE_0);
+        this.rowBytes = (width + 7) / 8;
+        this.frame = new byte[rowBytes * height];
+        this.shown = new byte[frame.length];
+        this.windowBuffer = new byte[frame.length];
+        busy.addConsumer(busyListener);
+    }
+
+    // Subclasses need to implement these ------------------------------------------------------------------------------
+
+    /** Sets the RAM window and moves the RAM address counter to its start; coordinates are inclusive. */
+    protected abstract void setWindow(int xStart, int yStart, int xEnd, int yEnd);
+
+    /** Sends the controller and LUT settings for the given update mode. */
+    protected abstract void setUpdateMode(UpdateMode mode);
+
+    // Public API ------------------------------------------------------------------------------------------------------
+
+    @Override
+    public synchronized void close() {
+        if (pending) {
+            refresh();
+        }
+        sendCommand(DEEP_SLEEP_MODE, 0x03); //enter deep sleep
+        delay.setMillis(100).materialize();
+        busy.removeConsumer(busyListener);
+    }
+
+    @Override
+    public boolean isBusy() {
+        return busy.isOn();
+    }
+
+    @Override
+    public int getTransferLimit() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public GraphicsDisplayDescriptor getDisplayInfo() {
+        return descriptor;
+    }
+
+    public synchronized PartialUpdatePolicy getPartialUpdatePolicy() {
+        return partialUpdatePolicy;
+    }
+
+    /** Sets the policy deciding between partial and full updates; PartialUpdatePolicy.createDefault() by default. */
+    public synchronized void setPartialUpdatePolicy(PartialUpdatePolicy partialUpdatePolicy) {
+        this.partialUpdatePolicy = partialUpdatePolicy;
+    }
+
+    /** Makes the next update a full update, e.g. to clear ghosting. */
+    public synchronized void requestFullUpdate() {
+        fullUpdateRequired = true;
+    }
+
+    /**
+     * Copies the given MONOCHROME pixel data to the frame buffer and adds the area to the pending region. The x
+     * coordinate needs to be a multiple of 8. Call flush() to refresh the display.
+     */
+    @Override
+    public synchronized void setPixels(int x, int y, int width, int height, byte[] data) {
+        if ((x & 7) != 0 || x < 0 || y < 0 || x + width > rowBytes * 8 || y + height > descriptor.getHeight()) {
+            throw new IllegalArgumentException("Invalid area " + x + ", " + y + ", " + width + "x" + height);
+        }
+        int xByte = x >> 3;
+        int widthBytes = (width + 7) >> 3;
+        if ((width & 7) == 0) {
+            for (int row = 0; row < height; row++) {
+                System.arraycopy(data, row * widthBytes, frame, (y + row) * rowBytes + xByte, widthBytes);
+            }
+        } else {
+            // Source rows are not byte aligned.
+            int bitOffset = 0;
+            for (int row = 0; row < height; row++) {
+                int address = (y + row) * rowBytes + xByte;
+                for (int i = 0; i < widthBytes; i++) {
+                    int bits = Math.min(8, width - i * 8);
+                    int mask = (0xFF << (8 - bits)) & 0xFF;
+                    int value = readBits(data, bitOffset, bits) << (8 - bits);
+                    frame[address + i] = (byte) ((frame[address + i] & ~mask) | value);
+                    bitOffset += bits;
+                }
+            }
+        }
+        pendingXMin = Math.min(pendingXMin, x);
+        pendingYMin = Math.min(pendingYMin, y);
+        pendingXMax = Math.max(pendingXMax, x + widthBytes * 8);
+        pendingYMax = Math.max(pendingYMax, y + height);
+        pending = true;
+    }
+
+    /**
+     * Refreshes the pending region of the display. If the panel is busy, this returns immediately and the pending
+     * region is refreshed when the panel becomes ready.
+     */
+    @Override
+    public synchronized void flush() {
+        if (pending && !isBusy()) {
+            refresh();
+        }
+    }
+
+    // Helpers -------------------------------------------------------------------------------------------------
+
+    /** Selects the given update mode, sending the corresponding settings only if the mode changes. */
+    protected void applyUpdateMode(UpdateMode mode) {
+        if (mode != updateMode) {
+            setUpdateMode(mode);
+            updateMode = mode;
+        }
+        if (mode == UpdateMode.GRAYSCALE) {
+            // The frame buffers don't reflect grayscale content.
+            fullUpdateRequired = true;
+        }
+    }
+
+    protected void reset() {
+        rst.on();
+        delay.setMillis(100).materialize();
+        rst.off();
+        delay.setMillis(20).materialize();
+        rst.on();
+        delay.setMillis(200);  // Was 100, but following commands had extra 100
+        updateMode = null;
+    }
+
+    /** Sends the given command code and data bytes after waiting for the panel to become ready. */
+    protected void sendCommand(int code, int... data) {
+        awaitReady();
+        dc.off();
+        transferBuffer[0] = (byte) code;
+        spi.write(transferBuffer, 0, 1);
+        sendData(data);
+    }
+
+    protected void sendData(int... data) {
+        if (data.length > transferBuffer.length) {
+            transferBuffer = new byte[data.length];
+        }
+        for (int i = 0; i < data.length; i++) {
+            transferBuffer[i] = (byte) data[i];
+        }
+        sendData(transferBuffer, 0, data.length);
+    }
+
+    protected void sendData(byte[] data, int offset, int length) {
+        dc.on();
+        int written = 0;
+        while (written < length) {
+            int count = Math.min(length - written, 4000);
+            spi.write(data, offset + written, count);
+            written += count;
+        }
+    }
+
+    /**
+     * Writes the image shown in the window of the last partial update to the red RAM, once the panel has finished
+     * refreshing it. Must be called while holding the lock.
+     */
+    private void syncRedRam() {
+        if (redRamStale) {
+            redRamStale = false;
+            writeWindow(WRITE_RAM_RED, shown, staleXMin, staleYMin, staleXMax, staleYMax);
+        }
+    }
+
+    /** Refreshes the pending region in a single windowed update. Must be called while holding the lock. */
+    private void refresh() {
+        syncRedRam();
+
+        int xMin = pendingXMin;
+        int yMin = pendingYMin;
+        int xMax = pendingXMax;
+        int yMax = pendingYMax;
+        pendingXMin = pendingYMin = Integer.MAX_VALUE;
+        pendingXMax = pendingYMax = 0;
+        pending = false;
+
+        boolean partial;
+        if (fullUpdateRequired) {
+            partialUpdatePolicy.fullUpdatePerformed();
+            partial = false;
+        } else {
+            partial = partialUpdatePolicy.shouldPerformPartialUpdate(xMin, yMin, xMax - xMin, yMax - yMin);
+        }
+        log.debug("{} update {}, {} - {}, {}", partial ? "Partial" : "Full", xMin, yMin, xMax, yMax);
+
+        if (partial) {
+            applyUpdateMode(UpdateMode.PARTIAL);
+            writeWindow(WRITE_RAM_RED, shown, xMin, yMin, xMax, yMax);
+            writeWindow(WRITE_RAM_BW, frame, xMin, yMin, xMax, yMax);
+        } else {
+            applyUpdateMode(UpdateMode.FULL);
+            writeWindow(WRITE_RAM_BW, frame, xMin, yMin, xMax, yMax);
+            writeWindow(WRITE_RAM_RED, frame, xMin, yMin, xMax, yMax);
+            fullUpdateRequired = false;
+        }
+        sendCommand(MASTER_ACTIVATION);
+
+        if (partial) {
+            staleXMin = xMin;
+            staleYMin = yMin;
+            staleXMax = xMax;
+            staleYMax = yMax;
+            redRamStale = true;
+        }
+        int xByte = xMin >> 3;
+        int widthBytes = (xMax - xMin) >> 3;
+        for (int y = yMin; y < yMax; y++) {
+            System.arraycopy(frame, y * rowBytes + xByte, shown, y * rowBytes + xByte, widthBytes);
+        }
+    }
+
+    /** Writes the given window of the given buffer to the RAM selected by the command code. */
+    private void writeWindow(int ramCommand, byte[] source, int xMin, int yMin, int xMax, int yMax) {
+        setWindow(xMin, yMin, xMax - 1, yMax - 1);
+        sendCommand(ramCommand);
+        int xByte = xMin >> 3;
+        int widthBytes = (xMax - xMin) >> 3;
+        if (widthBytes == rowBytes) {
+            sendData(source, yMin * rowBytes, (yMax - yMin) * rowBytes);
+        } else {
+            int length = 0;
+            for (int y = yMin; y < yMax; y++) {
+                System.arraycopy(source, y * rowBytes + xByte, windowBuffer, length, widthBytes);
+                length += widthBytes;
+            }
+            sendData(windowBuffer, 0, length);
+        }
+    }
+
+    /** Blocks until pending delays have passed and the BUSY signal is low. */
+    private void awaitReady() {
+        delay.materialize();
+        synchronized (busyLock) {
+            while (busy.isOn()) {
+                try {
+                    busyLock.wait(BUSY_RECHECK_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    private void onBusyStateChange(boolean on) {
+        if (on) {
+            return;
+        }
+        synchronized (busyLock) {
+            busyLock.notifyAll();
+        }
+        if (pending || redRamStale) {
+            // Don't block the GPIO event thread with the SPI transfer.
+            Thread.ofVirtual().name("EpaperDriver refresh").start(() -> {
+                try {
+                    refreshCompleted();
+                } catch (RuntimeException e) {
+                    log.error("Deferred e-paper refresh failed", e);
+                }
+            });
+        }
+    }
+
+    /** Called after the falling BUSY edge: syncs the red RAM and refreshes changes made in the meantime. */
+    private synchronized void refreshCompleted() {
+        if (isBusy()) {
+            return;
+        }
+        syncRedRam();
+        if (pending) {
+            refresh();
+        }
+    }
+
+    /** Returns count (up to 8) bits starting at the given bit offset, MSB first. */
+    private static int readBits(byte[] data, int bitOffset, int count) {
+        int index = bitOffset >> 3;
+        int word = (data[index] & 0xFF) << 8;
+        if (index + 1 < data.length) {
+            word |= data[index + 1] & 0xFF;
+        }
+        return (word >>> (16 - (bitOffset & 7) - count)) & ((1 << count) - 1);
+    }
+}
@@ -0,0 +1,56 @@
+package com.pi4j.drivers.display.graphics.epaper;
+
+/** Controls partial display updates. */
+public interface PartialUpdatePolicy {
+
+    /**
+     * Called before the given screen region is updated. Tells the driver whether it should perform
+     * a partial display update (fast but causes ghosting) or a full update (slow).
+     */
+    boolean shouldPerformPartialUpdate(int x, int y, int width, int height);
+
+    /**
+     * Called when the driver performs a full update regardless of the policy, e.g. for the first update after
+     * initialization, so the policy can reset its ghosting budget.
+     */
+    default void fullUpdatePerformed() {
+    }
+
+    /**
+     * Returns a new policy that performs partial updates until either the given number of partial updates or the
+     * given number of updated pixels is exceeded; then it forces a full refresh to clear the accumulated ghosting
+     * and starts over.
+     */
+    static PartialUpdatePolicy ghostingBudget(int maxPartialUpdates, long maxPixels) {
+        return new PartialUpdatePolicy() {
+            int updateCount = 0;
+            long pixelCount = 0;
+
+            @Override
+            public boolean shouldPerformPartialUpdate(int x, int y, int width, int height) {
+                pixelCount += (long) width * height;
+                updateCount++;
+
+                if (pixelCount > maxPixels || updateCount > maxPartialUpdates) {
+                    fullUpdatePerformed();
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void fullUpdatePerformed() {
+                pixelCount = 0;
+                updateCount = 0;
+            }
+        };
+    }
+
+    /** Returns a new instance of the default policy, forcing a full refresh after 100'000 pixels or 5 partial refreshes. */
+    static PartialUpdatePolicy createDefault() {
+        return ghostingBudget(5, 100_000);
+    }
+
+    /** Always performs full updates. */
+    PartialUpdatePolicy FULL_UPDATES_ONLY = (x, y, width, height) -> false;
+}
@@ -0,0 +1,8 @@
+package com.pi4j.drivers.display.graphics.epaper;
+
+/** The e-paper display update modes; controllers map these to their waveform / LUT settings. */
+public enum UpdateMode {
+    FULL,
+    PARTIAL,
+    GRAYSCALE,
+}
@@ -5,15 +5,37 @@ import com.pi4j.drivers.display.graphics.GraphicsDisplayDescriptor;
 import com.pi4j.drivers.display.graphics.PixelFormat;
 
 import java.io.*;
+import java.lang.foreign.Arena;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
+/**
+ * Driver for Linux framebuffer devices (/dev/fbN).
+ * <p>
+ * In memory mapped mode, the framebuffer is mapped into memory (using a native mmap call) and pixel data is
+ * copied directly into the mapping, so updates don't require any system calls. Otherwise, data is written using
+ * positional writes.
+ */
 public class FramebufferDriver implements GraphicsDisplayDriver, Closeable {
 
     private static final String SENSE_HAT_FB_NAME = "RPi-Sense FB";
+    private static final File SYSFS_GRAPHICS = new File("/sys/class/graphics/");
+
     private final GraphicsDisplayDescriptor displayInfo;
+    /** The device file for positional writes; null in memory mapped mode. */
     private final RandomAccessFile file;
+    private final FileChannel channel;
+    /** The number of bytes per framebuffer line; may exceed the visible width. */
+    private final int lineLength;
+    /** The byte offset of the visible area, which may be panned within a larger virtual framebuffer. */
+    private final int baseAddress;
+    /** Owns the memory mapping; null if not in memory mapped mode. */
+    private final Arena mappingArena;
+    /** The memory mapped framebuffer; null if not in memory mapped mode. */
+    private final ByteBuffer mapping;
 
     public static String resolveFramebufferName(String name) {
-        File dir = new File("/sys/class/graphics/");
+        File dir = SYSFS_GRAPHICS;
         for (File candidate :  dir.listFiles()) {
             if (candidate.getName().startsWith("fb")) {
                 File nameFile = new File(candidate, "name");
@@ -36,17 +58,83 @@ public class FramebufferDriver implements GraphicsDisplayDriver, Closeable {
         return new FramebufferDriver(resolveFramebufferName(SENSE_HAT_FB_NAME), 8, 8, PixelFormat.RGB_565_LE);
     }
 
-    public FramebufferDriver(String filename, int width, int height, PixelFormat pixelFormat) {
-        try {
-            this.file = new RandomAccessFile(filename, "rw");
-        } catch (IOException e) {
-            throw new IllegalStateException(e);
+    /**
+     * Opens the given framebuffer device (e.g. "/dev/fb0") in memory mapped mode, querying the visible size,
+     * pixel format and line length from the device. Supports 16 bit (RGB 565) and 32 bit (XRGB 8888)
+     * framebuffers.
+     */
+    public static FramebufferDriver open(String device) {
+        return open(device, FramebufferMapping.readScreenInfo(device), true);
+    }
+
+    /** Opens the given framebuffer device or file with the given screen info. */
+    static FramebufferDriver open(String device, FramebufferMapping.ScreenInfo screenInfo, boolean memoryMapped) {
+        int bitsPerPixel = screenInfo.bitsPerPixel();
+        // Linux framebuffers use the native (little) endianness.
+        PixelFormat pixelFormat = switch (bitsPerPixel) {
+            case 16 -> PixelFormat.RGB_565_LE;
+            case 32 -> screenInfo.redOffset() == 16 ? PixelFormat.XRGB_8888_LE : null;
+            default -> null;
+        };
+        if (pixelFormat == null) {
+            throw new IllegalArgumentException("Unsupported framebuffer format: " + bitsPerPixel
+                    + " bits per pixel with red at bit " + screenInfo.redOffset());
         }
+        int baseAddress = screenInfo.yOffset() * screenInfo.lineLength() + screenInfo.xOffset() * bitsPerPixel / 8;
+        return new FramebufferDriver(device, screenInfo.width(), screenInfo.height(), pixelFormat,
+                screenInfo.lineLength(), baseAddress, memoryMapped);
+    }
+
+    public FramebufferDriver(String filename, int width, int height, PixelFormat pixelFormat) {
+        this(filename, width, height, pixelFormat, false);
+    }
+
+    /**
+     * Creates a framebuffer driver for the given device with the given geometry. If memoryMapped is set, the
+     * framebuffer will be mapped into memory.
+     */
+    public FramebufferDriver(String filename, int width, int height, PixelFormat pixelFormat, boolean memoryMapped) {
+        this(filename, width, height, pixelFormat, width * pixelFormat.getBitCount() / 8, 0, memoryMapped);
+    }
+
+    private FramebufferDriver(String filename, int width, int height, PixelFormat pixelFormat, int lineLength, int baseAddress, boolean memoryMapped) {
+        this.lineLength = lineLength;
+        this.baseAddress = baseAddress;
         this.displayInfo = new GraphicsDisplayDescriptor(width, height, pixelFormat);
+        if (memoryMapped) {
+            long size = baseAddress + (long) lineLength * height;
+            File regularFile = new File(filename);
+            // Accessing a mapping beyond the end of a regular file crashes with SIGBUS.
+            if (regularFile.isFile() && regularFile.length() < size) {
+                throw new IllegalArgumentException(filename + " is smaller than the framebuffer size " + size);
+            }
+            this.file = null;
+            this.channel = null;
+            this.mappingArena = Arena.ofShared();
+            try {
+                this.mapping = FramebufferMapping.map(filename, size, mappingArena).asByteBuffer();
+            } catch (RuntimeException e) {
+                mappingArena.close();
+                throw e;
+            }
+        } else {
+            this.mappingArena = null;
+            this.mapping = null;
+            try {
+                this.file = new RandomAccessFile(filename, "rw");
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            this.channel = file.getChannel();
+        }
     }
 
     @Override
     public void close() {
+        if (mappingArena != null) {
+            mappingArena.close();
+            return;
+        }
         try {
             file.close();
         } catch (IOException e) {
@@ -59,31 +147,64 @@ public class FramebufferDriver implements GraphicsDisplayDriver, Closeable {
         return displayInfo;
     }
 
+    /** Returns true if the framebuffer is memory mapped. */
+    public boolean isMemoryMapped() {
+        return mapping != null;
+    }
 
     @Override
     public void setPixels(int x, int y, int width, int height, byte[] data) {
+        setPixels(x, y, width, height, ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Copies the pixel data into the memory mapping or writes it using positional channel writes. Full-width
+     * areas are contiguous in the framebuffer and are written in a single operation.
+     */
+    @Override
+    public void setPixels(int x, int y, int width, int height, ByteBuffer data) {
         try {
-            int srcOffset = 0;
             int bitsPerRow = (width * getDisplayInfo().getPixelFormat().getBitCount());
             if (bitsPerRow % 8 != 0) {
                 throw new IllegalArgumentException("Row bit width " + bitsPerRow + " must be a multiple of 8");
             }
             int bytesPerRow = bitsPerRow / 8;
+            int start = data.position();
+            if (x == 0 && bytesPerRow == lineLength) {
+                writeBlock(data, start, bytesPerRow * height, getPixelAddress(0, y));
+                return;
+            }
             for (int i = 0; i < height; i++) {
-                file.seek(getPixelAddress(x, y + i));
-                file.write(data, srcOffset, bytesPerRow);
-                srcOffset += bytesPerRow;
+                writeBlock(data, start + i * bytesPerRow, bytesPerRow, getPixelAddress(x, y + i));
             }
         } catch (IOException e) {
             throw new IllegalStateException(e);
         }
     }
 
+    @Override
+    public boolean isDirectBufferPreferred() {
+        // File channels copy heap buffers into a temporary direct buffer before writing.
+        return true;
+    }
+
+    private void writeBlock(ByteBuffer data, int offset, int length, int address) throws IOException {
+        if (mapping != null) {
+            mapping.put(address, data, offset, length);
+            return;
+        }
+        ByteBuffer slice = data.slice(offset, length);
+        long position = address;
+        while (slice.hasRemaining()) {
+            position += channel.write(slice, position);
+        }
+    }
+
     private int getPixelAddress(int x, int y) {
-        int bitAddress = (y * getDisplayInfo().getWidth() + x) *  getDisplayInfo().getPixelFormat().getBitCount();
+        int bitAddress = x * getDisplayInfo().getPixelFormat().getBitCount();
         if (bitAddress % 8 != 0) {
             throw new IllegalArgumentException("Pixel bit address " + bitAddress + " for " + x + ", " + y + " is not on a byte boundary.");
         }
-        return bitAddress / 8;
+        return baseAddress + y * lineLength + bitAddress / 8;
     }
 }
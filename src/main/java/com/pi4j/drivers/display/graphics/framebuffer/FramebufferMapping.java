@@ -0,0 +1,147 @@
+package com.pi4j.drivers.display.graphics.framebuffer;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.invoke.MethodHandle;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+/**
+ * Native access to Linux framebuffer devices. Framebuffer devices are character devices, so FileChannel.map
+ * can't be used: the channel size is 0, and mapping tries to grow the device to the requested size. Assumes a
+ * 64 bit (LP64) platform.
+ */
+final class FramebufferMapping {
+
+    /** The geometry of the visible framebuffer area, as reported by the device. */
+    record ScreenInfo(int width, int height, int xOffset, int yOffset, int bitsPerPixel, int redOffset, int lineLength) {
+    }
+
+    private static final int O_RDWR = 2;
+    private static final int PROT_READ = 1;
+    private static final int PROT_WRITE = 2;
+    private static final int MAP_SHARED = 1;
+    private static final long FBIOGET_VSCREENINFO = 0x4600;
+    private static final long FBIOGET_FSCREENINFO = 0x4602;
+
+    /** Size of struct fb_var_screeninfo; all fields are 32 bit. */
+    private static final int VAR_SCREENINFO_SIZE = 160;
+    /** Size of struct fb_fix_screeninfo on LP64 platforms. */
+    private static final int FIX_SCREENINFO_SIZE = 80;
+    private static final int LINE_LENGTH_OFFSET = 48;
+
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final StructLayout CAPTURED_STATE = Linker.Option.captureStateLayout();
+    private static final long ERRNO_OFFSET = CAPTURED_STATE.byteOffset(MemoryLayout.PathElement.groupElement("errno"));
+
+    private static final MethodHandle OPEN = downcall("open",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT));
+    private static final MethodHandle CLOSE = downcall("close",
+            FunctionDescriptor.of(JAVA_INT, JAVA_INT));
+    private static final MethodHandle IOCTL = downcall("ioctl",
+            FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_LONG, ADDRESS), Linker.Option.firstVariadicArg(2));
+    private static final MethodHandle MMAP = downcall("mmap",
+            FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_LONG, JAVA_INT, JAVA_INT, JAVA_INT, JAVA_LONG));
+    private static final MethodHandle MUNMAP = downcall("munmap",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_LONG));
+
+    private FramebufferMapping() {
+    }
+
+    private static MethodHandle downcall(String name, FunctionDescriptor descriptor, Linker.Option... options) {
+        Linker.Option[] allOptions = new Linker.Option[options.length + 1];
+        System.arraycopy(options, 0, allOptions, 0, options.length);
+        allOptions[options.length] = Linker.Option.captureCallState("errno");
+        return LINKER.downcallHandle(LINKER.defaultLookup().find(name).orElseThrow(), descriptor, allOptions);
+    }
+
+    /** Reads the visible size, panning offset, depth and line length of the given framebuffer device. */
+    static ScreenInfo readScreenInfo(String device) {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment errno = arena.allocate(CAPTURED_STATE);
+            int fd = open(device, errno, arena);
+            try {
+                MemorySegment variable = arena.allocate(VAR_SCREENINFO_SIZE);
+                MemorySegment fixed = arena.allocate(FIX_SCREENINFO_SIZE);
+                if ((int) IOCTL.invokeExact(errno, fd, FBIOGET_VSCREENINFO, variable) == -1
+                        || (int) IOCTL.invokeExact(errno, fd, FBIOGET_FSCREENINFO, fixed) == -1) {
+                    throw failure("Reading the screen info of " + device, errno);
+                }
+                // xres, yres, xres_virtual, yres_virtual, xoffset, yoffset, bits_per_pixel, grayscale, red.offset
+                return new ScreenInfo(
+                        variable.get(JAVA_INT, 0),
+                        variable.get(JAVA_INT, 4),
+                        variable.get(JAVA_INT, 16),
+                        variable.get(JAVA_INT, 20),
+                        variable.get(JAVA_INT, 24),
+                        variable.get(JAVA_INT, 32),
+                        fixed.get(JAVA_INT, LINE_LENGTH_OFFSET));
+            } finally {
+                int _ = (int) CLOSE.invokeExact(errno, fd);
+            }
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Maps size bytes of the given device into memory. The mapping is removed when the given arena is closed.
+     */
+    static MemorySegment map(String device, long size, Arena arena) {
+        try (Arena local = Arena.ofConfined()) {
+            MemorySegment errno = local.allocate(CAPTURED_STATE);
+            int fd = open(device, errno, local);
+            MemorySegment address;
+            try {
+                address = (MemorySegment) MMAP.invokeExact(
+                        errno, MemorySegment.NULL, size, PROT_READ | PROT_WRITE, MAP_SHARED, fd, 0L);
+                if (address.address() == -1L) {
+                    throw failure("Mapping " + device, errno);
+                }
+            } finally {
+                // The mapping stays valid after the descriptor is closed.
+                int _ = (int) CLOSE.invokeExact(errno, fd);
+            }
+            // The cleanup action receives a zero length segment, so the size is passed separately.
+            return address.reinterpret(size, arena, segment -> unmap(segment, size));
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static void unmap(MemorySegment address, long size) {
+        try (Arena arena = Arena.ofConfined()) {
+            int _ = (int) MUNMAP.invokeExact(arena.allocate(CAPTURED_STATE), address, size);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static int open(String device, MemorySegment errno, Arena arena) throws Throwable {
+        int fd = (int) OPEN.invokeExact(errno, arena.allocateFrom(device), O_RDWR);
+        if (fd == -1) {
+            throw failure("Opening " + device, errno);
+        }
+        return fd;
+    }
+
+    private static IllegalStateException failure(String action, MemorySegment errno) {
+        return new IllegalStateException(action + " failed with errno " + errno.get(JAVA_INT, ERRNO_OFFSET));
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(e);
+    }
+}
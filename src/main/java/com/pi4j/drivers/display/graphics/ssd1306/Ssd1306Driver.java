@@ -13,6 +13,15 @@ import org.slf4j.LoggerFactory;
 import java.io.Closeable;
 import java.io.IOException;
 
+/**
+ * Driver for SSD1306 based 128x64 monochrome OLED displays.
+ * <p>
+ * Pixel data is collected in a local copy of the display RAM. setPixels() only updates this copy, tracking the
+ * modified column / page window; flush() sends only this window.
+ * <p>
+ * setPixels() doesn't transmit anything: when using this driver without GraphicsDisplay, call flush() after
+ * setting the pixels (see {@link GraphicsDisplayDriver#flush()}).
+ */
 public class Ssd1306Driver implements GraphicsDisplayDriver {
 
     private static Logger log = LoggerFactory.getLogger(Ssd1306Driver.class);
@@ -26,6 +35,7 @@ public class Ssd1306Driver implements GraphicsDisplayDriver {
     private static final int COMMAND_SET_MEM_ADDRESS_MODE_HORZ = 0x00;
     private static final int COMMAND_SET_MEM_ADDRESS_MODE_VERT = 0x01;
     private static final int COMMAND_SET_COLUMN_ADDRESS = 0x21;
+    private static final int COMMAND_SET_PAGE_ADDRESS = 0x22;
     private static final int COMMAND_SET_DISPLAY_OFFSET = 0xD3;
 
     private static final int DISABLE_DISPLAY = 0x00;
@@ -38,6 +48,14 @@ public class Ssd1306Driver implements GraphicsDisplayDriver {
     private final byte[] page_buffer;
     private final OnOffWrite<?> dc;
     private final byte[] commandBuffer = new byte[8];
+    /** Data prefix byte followed by the transferred window of the page buffer. */
+    private final byte[] transferBuffer;
+
+    // The modified window of the page buffer; empty if dirtyMinX > dirtyMaxX.
+    private int dirtyMinX = Integer.MAX_VALUE;
+    private int dirtyMaxX = -1;
+    private int dirtyMinPage = Integer.MAX_VALUE;
+    private int dirtyMaxPage = -1;
 
 
     /** Constructor for I2c, using WITH_ONE_COMMAND / WITH_DATA instead of dc to switch between data and command mode. */
@@ -51,6 +69,8 @@ public class Ssd1306Driver implements GraphicsDisplayDriver {
         this.dc = dc;
         this.displayInfo = new GraphicsDisplayDescriptor(128, 64, PixelFormat.MONOCHROME, 8, GraphicsDisplay.Rotation.ROTATE_0);
         page_buffer = new byte[128 * 8]; // 1024
+        transferBuffer = new byte[page_buffer.length + 1];
+        transferBuffer[0] = WITH_DATA_ONLY;
         commandBuffer[0] = WITH_ONE_COMMAND;
         init();
     }
@@ -102,7 +122,6 @@ public class Ssd1306Driver implements GraphicsDisplayDriver {
     }
 
     public void clear() {
-        setColumnAddress(0, 127);
         int valueAllOff = 0x00;
         java.util.Arrays.fill(page_buffer, 0, page_buffer.length, (byte) valueAllOff);
         sendBuffer();
@@ -138,54 +157,99 @@ public class Ssd1306Driver implements GraphicsDisplayDriver {
         writeCommand(3);
     }
 
+    private void setPageAddress(int start, int end) {
+        commandBuffer[1] = COMMAND_SET_PAGE_ADDRESS;
+        commandBuffer[2] = (byte) (start & 0x07);
+        commandBuffer[3] = (byte) (end & 0x07);
+        writeCommand(3);
+    }
+
+    /** Sends the whole page buffer to the display. */
     public void sendBuffer() {
         command(COMMAND_SET_ADDRESS_LINE | (byte) (0x00 & 0x3F));
+        if (log.isTraceEnabled()) {
+            log.trace("Page Buffer: {}", java.util.HexFormat.of().formatHex(page_buffer));
+        }
+        markDirty(0, 127, 0, 7);
+        flush();
+    }
 
-        String raw = java.util.HexFormat.of().formatHex(page_buffer);
-        log.trace("Page Buffer: {}", raw);
-
-        byte[] buf = new byte[page_buffer.length + 1];
-        buf[0] = WITH_DATA_ONLY;
-        System.arraycopy(page_buffer, 0, buf, 1, page_buffer.length);
+    /** Sends the modified window of the page buffer to the display. */
+    @Override
+    public void flush() {
+        if (dirtyMinX > dirtyMaxX) {
+            return;
+        }
+        setColumnAddress(dirtyMinX, dirtyMaxX);
+        setPageAddress(dirtyMinPage, dirtyMaxPage);
+
+        // In horizontal addressing mode, the data is written row by row within the window.
+        int windowWidth = dirtyMaxX - dirtyMinX + 1;
+        int length = 0;
+        for (int page = dirtyMinPage; page <= dirtyMaxPage; page++) {
+            System.arraycopy(page_buffer, page * 128 + dirtyMinX, transferBuffer, 1 + length, windowWidth);
+            length += windowWidth;
+        }
 
         if (dc != null) {
             dc.on();
-            writer.write(buf, 1, buf.length - 1);
+            writer.write(transferBuffer, 1, length);
         } else {
-            writer.write(buf, buf.length);
+            writer.write(transferBuffer, 0, length + 1);
         }
+        dirtyMinX = dirtyMinPage = Integer.MAX_VALUE;
+        dirtyMaxX = dirtyMaxPage = -1;
     }
 
+    /** Sets the given pixel in the page buffer; call flush() to send it to the display. */
     public void setPixelOn(int x, int y) {
-        log.debug("setPixelOn {} {}", x, y);
+        setPixel(x, y, true);
+    }
+
+    /** Clears the given pixel in the page buffer; call flush() to send it to the display. */
+    public void setPixelOff(int x, int y) {
+        setPixel(x, y, false);
+    }
 
-        if (y > 63) {
-            log.error("Y too high: {}");
+    private void setPixel(int x, int y, boolean on) {
+        if (y < 0 || y > 63 || x < 0 || x > 127) {
+            log.error("Pixel out of range: {}, {}", x, y);
             return;
         }
-
         int page = y >> 3;
-        int bit = y & 0x07;
-
         int index = page * 128 + x;
-        log.debug("buffer index: " + index);
-        page_buffer[index] |= (1 << bit);
+        int mask = 1 << (y & 0x07);
+        updatePageByte(index, on ? page_buffer[index] | mask : page_buffer[index] & ~mask);
     }
 
-    public void setPixelOff(int x, int y) {
-        log.debug("setPixelOff {} {}", x, y);
-
-        if (y > 63) {
-            log.error("Y too high: {}");
-            return;
+    private void updatePageByte(int index, int value) {
+        if (page_buffer[index] != (byte) value) {
+            page_buffer[index] = (byte) value;
+            int x = index & 127;
+            int page = index >> 7;
+            markDirty(x, x, page, page);
         }
+    }
 
-        int page = y >> 3;
-        int bit = y & 0x07;
+    private void markDirty(int minX, int maxX, int minPage, int maxPage) {
+        dirtyMinX = Math.min(dirtyMinX, minX);
+        dirtyMaxX = Math.max(dirtyMaxX, maxX);
+        dirtyMinPage = Math.min(dirtyMinPage, minPage);
+        dirtyMaxPage = Math.max(dirtyMaxPage, maxPage);
+    }
 
-        int index = page * 128 + x;
-        log.debug("buffer index: " + index);
-        page_buffer[index] &= ~(1 << bit);
+    /**
+     * Transposes an 8x8 bit matrix given as 8 row bytes (row 0 in the lowest byte, leftmost pixel in the most
+     * significant bit) into 8 column bytes (leftmost column in the highest byte, row 0 in the least significant
+     * bit), matching the SSD1306 page layout.
+     */
+    static long transpose8x8(long x) {
+        long t = (x ^ (x >>> 7)) & 0x00AA00AA00AA00AAL;
+        x = x ^ t ^ (t << 7);
+        t = (x ^ (x >>> 14)) & 0x0000CCCC0000CCCCL;
+        x = x ^ t ^ (t << 14);
+        t = (x ^ (x >>> 28)) & 0x00000000F0F0F0F0L;
+        return x ^ t ^ (t << 28);
     }
 
     @Override
@@ -193,24 +257,51 @@ public class Ssd1306Driver implements GraphicsDisplayDriver {
         return displayInfo;
     }
 
+    /**
+     * Converts the MONOCHROME row data into page bytes and updates the page buffer. Call flush() to send the
+     * modified window to the display.
+     */
     @Override
     public void setPixels(int x, int y, int width, int height, byte[] data) {
         log.debug("setPixels {} {} {} {} {}", x, y, width, height, data.length);
+        if (x < 0 || y < 0 || x + width > 128 || y + height > 64) {
+            throw new IllegalArgumentException("Area " + x + ", " + y + ", " + width + "x" + height + " out of range");
+        }
 
-        int bitIndex = 0;
-        for (int py = 0; py < height; py++) {
-            for (int px = 0; px < width; px++) {
-                boolean pixel = (data[bitIndex / 8] & (1 << (7 - bitIndex % 8))) != 0;
-                bitIndex++;
-                if (pixel) {
-                    setPixelOn(x + px, y + py);
-                } else {
-                    setPixelOff(x + px, y + py);
+        boolean byteAligned = (width & 7) == 0;
+        for (int page = y >> 3; page <= (y + height - 1) >> 3; page++) {
+            int rowStart = Math.max(y, page * 8);
+            int rowEnd = Math.min(y + height, page * 8 + 8);
+            if (byteAligned && rowEnd - rowStart == 8) {
+                // Full page: transpose 8 rows x 8 columns at a time.
+                int rowBytes = width / 8;
+                int firstByte = (rowStart - y) * rowBytes;
+                for (int column = 0; column < rowBytes; column++) {
+                    long rows = 0;
+                    for (int i = 0; i < 8; i++) {
+                        rows |= (data[firstByte + i * rowBytes + column] & 0xFFL) << (8 * i);
+                    }
+                    long columns = transpose8x8(rows);
+                    int index = page * 128 + x + column * 8;
+                    for (int i = 0; i < 8; i++) {
+                        updatePageByte(index + i, (int) (columns >>> (56 - 8 * i)));
+                    }
+                }
+            } else {
+                int mask = ((1 << (rowEnd - rowStart)) - 1) << (rowStart & 7);
+                for (int px = 0; px < width; px++) {
+                    int bits = 0;
+                    for (int row = rowStart; row < rowEnd; row++) {
+                        int bitIndex = (row - y) * width + px;
+                        if ((data[bitIndex >> 3] & (0x80 >> (bitIndex & 7))) != 0) {
+                            bits |= 1 << (row & 7);
+                        }
+                    }
+                    int index = page * 128 + x + px;
+                    updatePageByte(index, (page_buffer[index] & ~mask) | bits);
                 }
             }
         }
-
-        sendBuffer();
     }
 
     @Override
@@ -1,32 +1,33 @@
 package com.pi4j.drivers.display.graphics.ssd1677;
 
-/** Controls partial display updates. */
-public interface PartialUpdatePolicy {
-
-    /**
-     * Called before the given screen region is updated. Tells the driver whether it should perform
-     * a partial display update (fast but causes ghosting) or a full update (slow).
-     */
-    boolean shouldPerformPartialUpdate(int x, int y, int width, int height);
+/**
+ * Controls partial display updates.
+ *
+ * @deprecated moved to {@link com.pi4j.drivers.display.graphics.epaper.PartialUpdatePolicy}, which is shared with
+ *     the other e-paper drivers.
+ */
+@Deprecated
+public interface PartialUpdatePolicy extends com.pi4j.drivers.display.graphics.epaper.PartialUpdatePolicy {
 
     /**
      * A default partial update policy that forces a full refresh after 100'000 pixels or 5 partial refreshes.
+     *
+     * @deprecated this instance is shared by all users; use
+     *     {@link com.pi4j.drivers.display.graphics.epaper.PartialUpdatePolicy#createDefault()} instead.
      */
+    @Deprecated
     PartialUpdatePolicy DEFAULT_POLICY = new PartialUpdatePolicy() {
-        int updateCount = 0;
-        int pixelCount = 0;
+        private final com.pi4j.drivers.display.graphics.epaper.PartialUpdatePolicy delegate =
+                com.pi4j.drivers.display.graphics.epaper.PartialUpdatePolicy.createDefault();
+
         @Override
         public boolean shouldPerformPartialUpdate(int x, int y, int width, int height) {
-            pixelCount += width * height;
-            updateCount++;
+            return delegate.shouldPerformPartialUpdate(x, y, width, height);
+        }
 
-            if (pixelCount > 100_000 || updateCount > 5) {
-                pixelCount = 0;
-                updateCount = 0;
-                return false;
-            }
-            return true;
+        @Override
+        public void fullUpdatePerformed() {
+            delegate.fullUpdatePerformed();
         }
     };
-
 }
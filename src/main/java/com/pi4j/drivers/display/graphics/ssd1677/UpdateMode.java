@@ -1,7 +1,24 @@
 package com.pi4j.drivers.display.graphics.ssd1677;
 
+/**
+ * The SSD1677 update modes.
+ *
+ * @deprecated moved to {@link com.pi4j.drivers.display.graphics.epaper.UpdateMode}, which is shared with the other
+ *     e-paper drivers.
+ */
+@Deprecated
 public enum UpdateMode {
     FULL,
     PARTIAL,
-    GRAYSCALE,
+    GRAYSCALE;
+
+    /** Returns the corresponding mode of the shared e-paper enum. */
+    public com.pi4j.drivers.display.graphics.epaper.UpdateMode toEpaperMode() {
+        return com.pi4j.drivers.display.graphics.epaper.UpdateMode.valueOf(name());
+    }
+
+    /** Returns the legacy constant for the given mode of the shared e-paper enum. */
+    public static UpdateMode of(com.pi4j.drivers.display.graphics.epaper.UpdateMode mode) {
+        return valueOf(mode.name());
+    }
 }
@@ -1,5 +1,6 @@
 package com.pi4j.drivers.display.graphics.ssd1677;
 
+import com.pi4j.drivers.display.graphics.epaper.UpdateMode;
 import com.pi4j.io.gpio.digital.DigitalInput;
 import com.pi4j.io.gpio.digital.DigitalOutput;
 import com.pi4j.io.spi.Spi;
@@ -37,6 +38,7 @@ public class Waveshare13in3kDriver extends Ssd1677Driver {
     }
 
 
+    @Override
     protected void setUpdateMode(UpdateMode mode) {
         switch (mode) {
             case FULL -> {
@@ -25,10 +25,17 @@ public enum Command {
      */
     DISPLAY_UPDATE_CONTROL_1(0x21, 2),
 
+    /**
+     * Controls the display update sequence; 0xf7: full update using display mode 1, 0xff: display mode 2 (partial
+     * update, using the red RAM as the previous image).
+     */
     DISPLAY_UPDATE_CONTROL_2(0x22, 1),
 
     WRITE_RAM(0x24, -1),
 
+    /** The previous image for display mode 2 updates. */
+    WRITE_RAM_RED(0x26, -1),
+
     BORDER_WAVEFORM_CONTROL(0x3C, 1),
 
     SET_RAM_X_ADDRESS_RANGE(0x44, 2),
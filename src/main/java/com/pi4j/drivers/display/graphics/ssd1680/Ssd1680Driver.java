@@ -1,23 +1,17 @@
 package com.pi4j.drivers.display.graphics.ssd1680;
 
-import com.pi4j.drivers.display.graphics.GraphicsDisplay;
-import com.pi4j.drivers.display.graphics.GraphicsDisplayDescriptor;
-import com.pi4j.drivers.display.graphics.GraphicsDisplayDriver;
 import com.pi4j.drivers.display.graphics.PixelFormat;
+import com.pi4j.drivers.display.graphics.epaper.EpaperDriver;
+import com.pi4j.drivers.display.graphics.epaper.UpdateMode;
 import com.pi4j.io.gpio.digital.DigitalInput;
 import com.pi4j.io.gpio.digital.DigitalOutput;
 import com.pi4j.io.spi.Spi;
-import com.pi4j.util.Delay;
-
-public abstract class Ssd1680Driver implements GraphicsDisplayDriver {
-    private final Spi spi;
-    private final DigitalOutput rst;
-    private final DigitalOutput dc;
-    private final DigitalInput busy;
-    private final Delay delay = new Delay();
-    private final GraphicsDisplayDescriptor descriptor;
-    private byte[] transferBuffer = new byte[64];
 
+/**
+ * Driver for SSD1680 based e-paper displays. Partial updates use the partial waveform from the controller OTP
+ * (display mode 2); see EpaperDriver for the update handling.
+ */
+public abstract class Ssd1680Driver extends EpaperDriver {
 
     protected Ssd1680Driver(
             Spi spi,
@@ -26,113 +20,36 @@ public abstract class Ssd1680Driver implements GraphicsDisplayDriver {
             DigitalInput busy,
             int width,
             int height) {
-        this.spi = spi;
-        this.dc = dc;
-        this.rst = rst;
-        this.busy = busy;
-        this.descriptor = new GraphicsDisplayDescriptor(
-                width,
-                height,
-                PixelFormat.MONOCHROME,
-                8, GraphicsDisplay.Rotation.ROTATE_0);
+        super(spi, dc, rst, busy, width, height, PixelFormat.MONOCHROME);
 
         reset();
         sendCommand(Command.SW_RESET);
         sendCommand(Command.DRIVER_OUTPUT_CONTROL, 0xf9, 0, 0);
         sendCommand(Command.DATA_ENTRY_MODE_SETTING, 0x03);
         sendCommand(Command.DISPLAY_UPDATE_CONTROL_1, 0, 0x80);
-        sendCommand(Command.DISPLAY_UPDATE_CONTROL_2, 0xf7);
         sendCommand(Command.TEMPERATURE_SENSOR_CONTROL, 0x80);
     }
 
-
-    // Public API ------------------------------------------------------------------------------------------------------
-
-    @Override
-    public void close() {
-        sendCommand(Command.DEEP_SLEEP_MODE, 0x03); //enter deep sleep
-        delay.setMillis(100).materialize();
-    }
-
-    @Override
-    public int getTransferLimit() {
-        return Integer.MAX_VALUE;
-    }
-
-    @Override
-    public GraphicsDisplayDescriptor getDisplayInfo() {
-        return descriptor;
-    }
-
-    @Override
-    public boolean isBusy() {
-        return busy.isOn();
-    }
-
-    public void setPixels(int x, int y, int width, int height, byte[] data) {
-
-        setWindow(x, y, x + width - 1, y + height - 1);
-
-        int byteCount = (width * height + 7) / 8;
-
-        sendCommand(Command.WRITE_RAM);
-        sendData(data, 0, byteCount);
-        sendCommand(Command.MASTER_ACTIVATION);
-    }
-
     // Helpers -------------------------------------------------------------------------------------------------
 
-    protected void reset() {
-        rst.setState(1);
-        delay.setMillis(100).materialize();
-        rst.setState(0);
-        delay.setMillis(20).materialize();
-        rst.setState(1);
-        delay.setMillis(200);  // Was 100, but following commands had extra 100
+    @Override
+    protected void setUpdateMode(UpdateMode mode) {
+        switch (mode) {
+            case FULL -> sendCommand(Command.DISPLAY_UPDATE_CONTROL_2, 0xf7);
+            case PARTIAL -> sendCommand(Command.DISPLAY_UPDATE_CONTROL_2, 0xff);
+            default -> throw new IllegalArgumentException("Unsupported update mode: " + mode);
+        }
     }
 
     protected void sendCommand(Command command, int... data) {
-        blockWhileBusy();
-        delay.materialize();
-
         if (command.dataCount != -1 && command.dataCount != data.length) {
             throw new IllegalArgumentException("Expected " + command.dataCount + " data bytes for " + command + "; got: " + data.length);
         }
-
-        dc.setState(0);
-        spi.write(command.code);
-        sendData(data);
-    }
-
-    protected void sendData(int... data) {
-        if (data.length > transferBuffer.length) {
-            transferBuffer = new byte[data.length];
-        }
-        for (int i = 0; i < data.length; i++) {
-            transferBuffer[i] = (byte) data[i];
-        }
-        sendData(transferBuffer, 0, data.length);
-    }
-
-    protected void sendData(byte[] data, int offset, int length) {
-        dc.setState(1);
-        int written = 0;
-        while (written < length) {
-            int count = Math.min(length - written, 4000);
-            spi.write(data, offset + written, count);
-            written += count;
-        }
-    }
-
-    private void blockWhileBusy() {
-        delay.materialize();
-        while(isBusy()) {
-            delay.setMillis(20).materialize();
-        }
-        delay.setMillis(20);
+        sendCommand(command.code, data);
     }
 
     /** Note that x-coordinates have to be a multiple of 8 */
+    @Override
     protected void setWindow(int xStart, int yStart, int xEnd, int yEnd) {
         sendCommand(Command.SET_RAM_X_ADDRESS_RANGE,(xStart >>> 3) & 0xFF, (xEnd >>> 3) & 0xFF);
         sendCommand(Command.SET_RAM_Y_ADDRESS_RANGE, yStart & 0xFF, (yStart>>8) & 0x03, yEnd & 0xFF, (yEnd>>8) & 0x03);
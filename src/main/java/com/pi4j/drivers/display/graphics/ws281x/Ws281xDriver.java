@@ -5,8 +5,7 @@ import com.pi4j.drivers.display.graphics.GraphicsDisplayDescriptor;
 import com.pi4j.drivers.display.graphics.PixelFormat;
 import com.pi4j.io.spi.Spi;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Implements a driver for WS 281x LED strips using a SPI interface. Note that the baud rate of the
@@ -14,6 +13,10 @@ import java.time.temporal.ChronoUnit;
  * <p>
  * This driver is based on timing information form this article:
  * https://wp.josh.com/2014/05/13/ws2812-neopixels-are-not-so-finicky-once-you-get-to-know-them/
+ * <p>
+ * As the LEDs are chained, data always needs to be sent from the first LED on, but the transfer stops after the
+ * last changed LED. In frame synchronous mode (see setFrameSynchronous), the changes of all setPixels calls of
+ * an update are collected and sent in a single SPI write when flush() is called.
  */
 public class Ws281xDriver implements GraphicsDisplayDriver {
 
@@ -34,6 +37,10 @@ public class Ws281xDriver implements GraphicsDisplayDriver {
     private static final int BIT_STRETCH = 4;
     /** The baud rate the SPI channel needs to be configured to. */
     public static final int SPI_BAUD = 800_000 * BIT_STRETCH;
+    /** The minimum low time that latches the data into the LEDs. */
+    private static final long LATCH_NANOS = 50_000;
+    /** Remaining wait times below this threshold are spent spinning instead of parking the thread. */
+    private static final long SPIN_THRESHOLD_NANOS = 200_000;
 
     /** A buffer of the transformed pixels in the format they will be sent over SPI */
     private final byte[] spiBuffer;
@@ -41,8 +48,21 @@ public class Ws281xDriver implements GraphicsDisplayDriver {
     private final Spi spi;
     private final int[] pixelMap;
 
-    private Instant busyUntil = Instant.now();
+    private long busyUntilNanos = System.nanoTime();
+    /** The index of the last LED that was changed but not sent yet; -1 if there are no pending changes. */
+    private int lastPendingLed = -1;
+    private boolean frameSynchronous;
+    private long sentByteCount;
+    private long skippedByteCount;
     private int brightness = 64;
+    private double gamma = 1;
+    /** White balance scale factors in the channel order of the pixel data (green, red, blue). */
+    private final int[] whiteBalance = {255, 255, 255};
+    /**
+     * The SPI bit pattern for each byte value and channel, including brightness, gamma and white balance
+     * adjustments. Four bytes per value, packed into an int with the first byte to send in the highest bits.
+     */
+    private int[] encodingTable;
 
     public static int[] createPixelMap(int width, int height, Pattern pattern) {
         int[] result = new int[width * height];
@@ -94,6 +114,7 @@ public class Ws281xDriver implements GraphicsDisplayDriver {
 
         spiBuffer = new byte[width * height * COLOR_CHANNELS * BIT_STRETCH];
         displayInfo = new GraphicsDisplayDescriptor(width, height, PixelFormat.GRB_888);
+        updateEncodingTable();
     }
 
     @Override
@@ -103,16 +124,16 @@ public class Ws281xDriver implements GraphicsDisplayDriver {
 
     @Override
     public void setPixels(int x, int y, int width, int height, byte[] bytes) {
+        int[] encodingTable = this.encodingTable;
         int src = 0;
-        int lastChangedByte = 0;
+        int lastChangedByte = -1;
         for (int i = 0; i < height; i++) {
             for (int j = 0; j < width; j++) {
                 int dst = getPixelAddress(x + j, y + i);
                 for (int k = 0; k < COLOR_CHANNELS; k++) {
-                    int value = (bytes[src++] & 0xff) * brightness / 255;
-                    for (int bitIdex = 0; bitIdex < 8; bitIdex += 2) {
-                        byte newValue = (byte) ((((value << bitIdex) & 0x80) == 0 ? 0b1000_0000 : 0b1100_0000)
-                                | (((value << bitIdex) & 0x40) == 0 ? 0b1000 : 0b1100));
+                    int pattern = encodingTable[(k << 8) | (bytes[src++] & 0xff)];
+                    for (int shift = 24; shift >= 0; shift -= 8) {
+                        byte newValue = (byte) (pattern >>> shift);
                         if (newValue != spiBuffer[dst]) {
                             spiBuffer[dst] = newValue;
                             lastChangedByte = dst;
@@ -122,20 +143,86 @@ public class Ws281xDriver implements GraphicsDisplayDriver {
                 }
             }
         }
-        // We always need to start at 0, but we only need to send up to the last changed pixel.
-        // Dividing and then multiplying makes sure we always send full pixel data and don't stop somewhere in the
-        // middle of a pixel.
-        int lastChangedPixel = lastChangedByte / COLOR_CHANNELS / BIT_STRETCH;
-        if (lastChangedPixel > 0) {
-            materializeDelay();
-            spi.write(spiBuffer, 0, lastChangedPixel * COLOR_CHANNELS * BIT_STRETCH);
-            setDelayNanos(50000);
+        if (lastChangedByte >= 0) {
+            lastPendingLed = Math.max(lastPendingLed, lastChangedByte / COLOR_CHANNELS / BIT_STRETCH);
+        }
+        if (!frameSynchronous) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends all pending changes. We always need to start at the first LED, but we only need to send up to the last
+     * changed LED.
+     */
+    @Override
+    public void flush() {
+        if (lastPendingLed < 0) {
+            return;
         }
+        int length = (lastPendingLed + 1) * COLOR_CHANNELS * BIT_STRETCH;
+        lastPendingLed = -1;
+        awaitLatch();
+        spi.write(spiBuffer, 0, length);
+        sentByteCount += length;
+        skippedByteCount += spiBuffer.length - length;
+        busyUntilNanos = System.nanoTime() + LATCH_NANOS;
+    }
+
+    /**
+     * If enabled, setPixels only updates the internal buffer and all changes are sent in a single SPI write when
+     * flush() is called, which GraphicsDisplay does after each update. This avoids a transfer and latch wait per
+     * setPixels call. Disabled by default, so drivers used without GraphicsDisplay send immediately.
+     */
+    public void setFrameSynchronous(boolean frameSynchronous) {
+        this.frameSynchronous = frameSynchronous;
+        if (!frameSynchronous) {
+            flush();
+        }
+    }
+
+    /** Returns the total number of bytes sent via SPI. */
+    public long getSentByteCount() {
+        return sentByteCount;
+    }
+
+    /**
+     * Returns the total number of bytes that didn't need to be sent in transfers because the corresponding LEDs
+     * (after the last changed LED) were unchanged.
+     */
+    public long getSkippedByteCount() {
+        return skippedByteCount;
     }
 
     /** Sets the brightness of the LED matrix to the given value between 0 and 255. The default value is 64. */
     public void setBrightness(int brightness) {
         this.brightness = Math.max(0, Math.min(brightness, 255));
+        updateEncodingTable();
+    }
+
+    /**
+     * Sets the gamma correction exponent applied to all color values before brightness scaling. LEDs have a
+     * linear response, so a value around 2.2 makes color gradients look perceptually even. The default value
+     * of 1 disables gamma correction.
+     */
+    public void setGamma(double gamma) {
+        if (!(gamma > 0)) {
+            throw new IllegalArgumentException("Gamma must be > 0");
+        }
+        this.gamma = gamma;
+        updateEncodingTable();
+    }
+
+    /**
+     * Sets per-channel scale factors between 0 and 255 to compensate for color casts of the LEDs. The default
+     * is 255 for all channels (no adjustment).
+     */
+    public void setWhiteBalance(int red, int green, int blue) {
+        // Pixel data is sent in GRB order.
+        whiteBalance[0] = Math.max(0, Math.min(green, 255));
+        whiteBalance[1] = Math.max(0, Math.min(red, 255));
+        whiteBalance[2] = Math.max(0, Math.min(blue, 255));
+        updateEncodingTable();
     }
 
     @Override
@@ -147,30 +234,57 @@ public class Ws281xDriver implements GraphicsDisplayDriver {
     // Private methods
 
 
+    /**
+     * Returns the SPI bit pattern for the given byte value: each bit is stretched to four bits, 1000 for a
+     * zero bit and 1100 for a one bit. The first byte to send is stored in the highest bits.
+     */
+    static int encode(int value) {
+        int pattern = 0;
+        for (int bit = 7; bit >= 0; bit--) {
+            pattern = (pattern << BIT_STRETCH) | (((value >> bit) & 1) == 0 ? 0b1000 : 0b1100);
+        }
+        return pattern;
+    }
+
+    /**
+     * Builds the encoding lookup table for the given adjustments; one entry per byte value and channel (in the
+     * order of the channel scale factors).
+     */
+    static int[] createEncodingTable(int brightness, double gamma, int[] channelScale) {
+        int[] table = new int[channelScale.length * 256];
+        for (int value = 0; value < 256; value++) {
+            int corrected = gamma == 1 ? value : (int) Math.round(255 * Math.pow(value / 255.0, gamma));
+            for (int channel = 0; channel < channelScale.length; channel++) {
+                table[(channel << 8) | value] = encode(corrected * brightness * channelScale[channel] / (255 * 255));
+            }
+        }
+        return table;
+    }
+
+    private void updateEncodingTable() {
+        // A new table is created instead of updating it in place, so concurrent setPixels() calls always see a
+        // consistent table.
+        encodingTable = createEncodingTable(brightness, gamma, whiteBalance);
+    }
+
     private int getPixelAddress(int x, int y) {
         int pixelIndex = pixelMap[y * displayInfo.getWidth() + x];
         return pixelIndex * COLOR_CHANNELS * BIT_STRETCH;
     }
 
-    private void materializeDelay() {
+    /** Waits until the latch time of the previous transfer has passed. */
+    private void awaitLatch() {
         while (true) {
-            long remaining = Instant.now().until(busyUntil, ChronoUnit.NANOS);
-            if (remaining < 0) {
+            long remaining = busyUntilNanos - System.nanoTime();
+            if (remaining <= 0) {
                 break;
             }
-            try {
-                Thread.sleep(remaining / 1_000_000, (int) (remaining % 1_000_000));
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException(e);
+            // Parking has a granularity of tens of microseconds, so we spin for short waits.
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
             }
         }
     }
-
-    private void setDelayNanos(long nanos) {
-        Instant target = Instant.now().plusNanos(nanos);
-        if (target.isAfter(busyUntil)) {
-            busyUntil = target;
-        }
-    }
 }
@@ -0,0 +1,49 @@
+package com.pi4j.drivers.input.linux;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Decodes raw input_event structs into frames of events, delimited by EV_SYN / SYN_REPORT. Events of a frame that
+ * was partially dropped by the kernel (signalled by SYN_DROPPED) are discarded.
+ */
+final class EventDecoder {
+    private final List<LinuxInputDriver.Event> pending = new ArrayList<>();
+    private boolean dropping;
+
+    /**
+     * Decodes all complete events in the given buffer, which must be in read mode. Completed frames are passed to
+     * the given consumer. Afterwards, the buffer is compacted, so incomplete trailing events are retained for the
+     * next read.
+     */
+    void decode(ByteBuffer buffer, Consumer<List<LinuxInputDriver.Event>> frameConsumer) {
+        while (buffer.remaining() >= LinuxInputDriver.Event.STRUCT_SIZE) {
+            int position = buffer.position();
+            int type = buffer.getShort(position + LinuxInputDriver.Event.OFFSET_TYPE) & 0xffff;
+            int code = buffer.getShort(position + LinuxInputDriver.Event.OFFSET_CODE) & 0xffff;
+            if (type == LinuxInputDriver.EV_SYN) {
+                if (code == LinuxInputDriver.SYN_REPORT) {
+                    if (!dropping && !pending.isEmpty()) {
+                        frameConsumer.accept(List.copyOf(pending));
+                    }
+                    pending.clear();
+                    dropping = false;
+                } else if (code == LinuxInputDriver.SYN_DROPPED) {
+                    pending.clear();
+                    dropping = true;
+                }
+            } else if (!dropping) {
+                pending.add(new LinuxInputDriver.Event(
+                        buffer.getLong(position + LinuxInputDriver.Event.OFFSET_SECONDS),
+                        buffer.getLong(position + LinuxInputDriver.Event.OFFSET_MICROSECONDS),
+                        type,
+                        code,
+                        buffer.getInt(position + LinuxInputDriver.Event.OFFSET_VALUE)));
+            }
+            buffer.position(position + LinuxInputDriver.Event.STRUCT_SIZE);
+        }
+        buffer.compact();
+    }
+}
@@ -3,21 +3,46 @@ package com.pi4j.drivers.input.linux;
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Consumer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * Driver for linux input devices.
+ * <p>
+ * Events are read in batches on a dedicated reader thread and grouped into frames delimited by EV_SYN /
+ * SYN_REPORT events, so related events (e.g. the x and y coordinates of a touch) are delivered together.
+ * Listeners are notified from a separate dispatcher thread, so slow listeners don't delay reading. If listeners
+ * fall behind by more than MAX_QUEUED_FRAMES frames, the oldest queued frames are dropped. Exceptions thrown by
+ * listeners are logged and don't affect other listeners or later events.
  */
 public class LinuxInputDriver implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(LinuxInputDriver.class);
 
     private static final String SENSE_STICK_NAME = "Raspberry Pi Sense HAT Joystick";
 
+    /** The maximum number of events read from the device in a single read call. */
+    private static final int READ_BATCH_SIZE = 64;
+
+    /** The maximum number of frames waiting for the dispatcher thread. */
+    public static final int MAX_QUEUED_FRAMES = 1024;
+
+    public static final int EV_SYN = 0;
     public static final int EV_KEY = 1;
+    public static final int EV_REL = 2;
+    public static final int EV_ABS = 3;
+
+    public static final int SYN_REPORT = 0;
+    public static final int SYN_DROPPED = 3;
 
     public static final int STATE_RELEASE = 0;
     public static final int STATE_PRESS = 1;
@@ -29,14 +54,36 @@ public class LinuxInputDriver implements Closeable {
     public static final int KEY_DOWN = 108;
     public static final int KEY_ENTER = 28;
 
-    private final Object lock = new Object(); // Gates the listener list.
-    private final List<Consumer<Event>> listeners = new ArrayList<>();
-    private final InputStream inputStream;
-    private final ByteBuffer buffer = ByteBuffer.allocate(Event.STRUCT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    public static final int BTN_LEFT = 0x110;
+    public static final int BTN_RIGHT = 0x111;
+    public static final int BTN_MIDDLE = 0x112;
+    public static final int BTN_TOUCH = 0x14a;
+
+    public static final int REL_X = 0;
+    public static final int REL_Y = 1;
+    public static final int REL_WHEEL = 8;
 
-    private final Timer timer = new Timer();
+    public static final int ABS_X = 0;
+    public static final int ABS_Y = 1;
+    public static final int ABS_PRESSURE = 0x18;
+    public static final int ABS_MT_SLOT = 0x2f;
+    public static final int ABS_MT_POSITION_X = 0x35;
+    public static final int ABS_MT_POSITION_Y = 0x36;
+    public static final int ABS_MT_TRACKING_ID = 0x39;
 
-    private boolean closed;
+    private final List<Consumer<Event>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<List<Event>>> frameListeners = new CopyOnWriteArrayList<>();
+    private final FileChannel channel;
+    private final ByteBuffer buffer =
+            ByteBuffer.allocateDirect(READ_BATCH_SIZE * Event.STRUCT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final EventDecoder decoder = new EventDecoder();
+    private final BlockingQueue<List<Event>> frames = new LinkedBlockingQueue<>(MAX_QUEUED_FRAMES);
+    private final Thread readerThread;
+    private final Thread dispatcherThread;
+
+    private volatile boolean closed;
+    private volatile long droppedFrameCount;
+    private boolean dropping;
 
     /**
      * Resolves a linux input device name to the corresponding device path in /dev/input. Returns null if not found.
@@ -77,35 +124,51 @@ public class LinuxInputDriver implements Closeable {
      */
     public LinuxInputDriver(String devicePath) {
         try {
-            this.inputStream = new BufferedInputStream(new FileInputStream(devicePath));
-            timer.schedule(new TimerTask() {
-                public void run() {
-                    processEvent();
-                }
-            }, 0);
+            this.channel = FileChannel.open(Path.of(devicePath), StandardOpenOption.READ);
         } catch (IOException e) {
             throw new com.pi4j.io.exception.IOException(e);
         }
+        // Reads block in the kernel, so a platform thread is used for reading.
+        readerThread = new Thread(this::readEvents, "LinuxInputDriver reader " + devicePath);
+        readerThread.setDaemon(true);
+        dispatcherThread = Thread.ofVirtual().name("LinuxInputDriver dispatcher " + devicePath).unstarted(this::dispatchEvents);
+        dispatcherThread.start();
+        readerThread.start();
     }
 
+    /** Adds a listener that is notified about each event, except for EV_SYN events. */
     public void addListener(Consumer<Event> listener) {
-        synchronized (lock) {
-            listeners.add(listener);
-        }
+        listeners.add(listener);
     }
 
     public void removeListener(Consumer<Event> listener) {
-        synchronized (lock) {
-            listeners.remove(listener);
-        }
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds a listener that is notified with all events between two EV_SYN / SYN_REPORT events. Frame listeners are
+     * notified before the listeners for individual events.
+     */
+    public void addFrameListener(Consumer<List<Event>> listener) {
+        frameListeners.add(listener);
+    }
+
+    public void removeFrameListener(Consumer<List<Event>> listener) {
+        frameListeners.remove(listener);
+    }
+
+    /** Returns the number of frames dropped because the listeners didn't keep up. */
+    public long getDroppedFrameCount() {
+        return droppedFrameCount;
     }
 
     @Override
     public void close() {
         closed = true;
-        timer.cancel();
+        dispatcherThread.interrupt();
         try {
-            inputStream.close();
+            // Also terminates a blocking read on the reader thread.
+            channel.close();
         } catch (IOException e) {
             throw new com.pi4j.io.exception.IOException(e);
         }
@@ -113,30 +176,12 @@ public class LinuxInputDriver implements Closeable {
 
     // Private methods
 
-    private void processEvent() {
+    private void readEvents() {
         try {
-            if (closed || inputStream.readNBytes(buffer.array(), 0, Event.STRUCT_SIZE) != Event.STRUCT_SIZE) {
-                return;
+            while (!closed && channel.read(buffer) >= 0) {
+                buffer.flip();
+                decoder.decode(buffer, this::enqueue);
             }
-            int type = buffer.getShort(Event.OFFSET_TYPE);
-            if (type != 0) {
-                long seconds = buffer.getLong(Event.OFFSET_SECONDS);
-                long microSeconds = buffer.getLong(Event.OFFSET_MICROSECONDS);
-                int code = buffer.getShort(Event.OFFSET_CODE);
-                int value = buffer.getInt(Event.OFFSET_VALUE);
-                Event event = new Event(Instant.ofEpochSecond(seconds, microSeconds * 1000), type, code, value);
-                synchronized (lock) {
-                    for (Consumer<Event> listener : this.listeners) {
-                        listener.accept(event);
-                    }
-                }
-            }
-            timer.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    processEvent();
-                }
-            }, 0);
         } catch (IOException e) {
             if (!closed) {
                 throw new com.pi4j.io.exception.IOException(e);
@@ -144,29 +189,74 @@ public class LinuxInputDriver implements Closeable {
         }
     }
 
+    /** Called on the reader thread; drops the oldest frames if the dispatcher has fallen too far behind. */
+    private void enqueue(List<Event> frame) {
+        if (frames.offer(frame)) {
+            dropping = false;
+            return;
+        }
+        if (!dropping) {
+            log.warn("Listeners don't keep up with the input events; dropping the oldest frames");
+            dropping = true;
+        }
+        do {
+            if (frames.poll() != null) {
+                droppedFrameCount++;
+            }
+        } while (!frames.offer(frame));
+    }
+
+    private void dispatchEvents() {
+        try {
+            while (!closed) {
+                List<Event> frame = frames.take();
+                for (Consumer<List<Event>> listener : frameListeners) {
+                    try {
+                        listener.accept(frame);
+                    } catch (RuntimeException e) {
+                        log.error("Input frame listener failed", e);
+                    }
+                }
+                for (Event event : frame) {
+                    for (Consumer<Event> listener : listeners) {
+                        try {
+                            listener.accept(event);
+                        } catch (RuntimeException e) {
+                            log.error("Input event listener failed", e);
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed.
+        }
+    }
+
 
     public static class Event {
-        private static final int STRUCT_SIZE = 24;
-        private static final int OFFSET_SECONDS = 0;
-        private static final int OFFSET_MICROSECONDS = 8;
-        private static final int OFFSET_TYPE = 16;
-        private static final int OFFSET_CODE = 18;
-        private static final int OFFSET_VALUE = 20;
-
-        private final Instant time;
+        static final int STRUCT_SIZE = 24;
+        static final int OFFSET_SECONDS = 0;
+        static final int OFFSET_MICROSECONDS = 8;
+        static final int OFFSET_TYPE = 16;
+        static final int OFFSET_CODE = 18;
+        static final int OFFSET_VALUE = 20;
+
+        private final long seconds;
+        private final long microSeconds;
         private final int type;
         private final int code;
         private final int value;
 
-        Event(Instant time, int type, int code, int value) {
-            this.time = time;
+        Event(long seconds, long microSeconds, int type, int code, int value) {
+            this.seconds = seconds;
+            this.microSeconds = microSeconds;
             this.type = type;
             this.code = code;
             this.value = value;
         }
 
         public Instant getTime() {
-            return time;
+            return Instant.ofEpochSecond(seconds, microSeconds * 1000);
         }
         public int getType() {
             return type;
@@ -178,7 +268,7 @@ public class LinuxInputDriver implements Closeable {
             return value;
         }
         public String toString() {
-            return "Event time: " + time + ", type: " + type + ", code: " + code + ", value: " + value;
+            return "Event time: " + getTime() + ", type: " + type + ", code: " + code + ", value: " + value;
         }
     }
 }
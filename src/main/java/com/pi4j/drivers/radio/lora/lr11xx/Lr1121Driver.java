@@ -3,6 +3,14 @@ package com.pi4j.drivers.radio.lora.lr11xx;
 import java.io.Closeable;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import com.pi4j.context.Context;
 import com.pi4j.io.ListenableOnOffRead;
@@ -17,6 +25,8 @@ import com.pi4j.io.spi.Spi;
 import com.pi4j.io.spi.SpiChipSelect;
 import com.pi4j.io.spi.SpiConfigBuilder;
 import com.pi4j.io.spi.SpiMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * A Semtech LR1121 (or LR1110 / LR1120) driven over SPI.
@@ -41,10 +51,22 @@ import com.pi4j.io.spi.SpiMode;
  * response. Forgetting that byte shifts every field by one and produces values
  * that look almost right, which is why it is handled in one place here.
  *
+ * <h2>Blocking and in the background</h2>
+ *
+ * {@link #receive} and {@link #transmit} hold the calling thread for the whole
+ * exchange, which is the simplest thing that works for a sensor that sends now
+ * and then. A gateway needs the other shape: {@link #listen} keeps the radio in
+ * continuous receive and hands packets to a listener from threads of its own,
+ * and {@link #transmitAsync} queues packets for sending in between. A packet
+ * that arrives while the application is still busy with the previous one is then
+ * queued rather than missed.
+ *
  * @see <a href="https://github.com/Lora-net/SWDR001">SWDR001, the C driver</a>
  */
 public class Lr1121Driver implements Closeable {
 
+    private static final Logger log = LoggerFactory.getLogger(Lr1121Driver.class);
+
     // System
     private static final int GET_STATUS = 0x0100;
     private static final int GET_VERSION = 0x0101;
@@ -80,6 +102,13 @@ public class Lr1121Driver implements Closeable {
     private static final int LFCLK_XTAL = 0x01;
     private static final int STANDBY_RC = 0x00;
 
+    /**
+     * The SetRx timeout that means "stay in receive". The radio goes back to
+     * listening by itself after each packet, so nothing arriving between the
+     * reception and the driver reading it out is lost to a receiver that is off.
+     */
+    private static final int RX_CONTINUOUS = 0xFFFFFF;
+
     /** Every calibration block: oscillators, PLL, ADC and image. */
     private static final int CALIBRATE_ALL = 0x3F;
 
@@ -101,6 +130,33 @@ public class Lr1121Driver implements Closeable {
 
     private final Lr11xxIo io;
 
+    /**
+     * Held for every exchange with the radio that takes more than one command, so
+     * that the background thread and a caller never interleave their bytes.
+     */
+    private final Object radioLock = new Object();
+
+    /** Guards the creation of the background threads. */
+    private final Object workerLock = new Object();
+
+    /** Packets waiting for the background thread to send them. */
+    private final BlockingQueue<Outgoing> outgoing = new LinkedBlockingQueue<>();
+
+    /** What {@link #listen} was last asked for, or null when not listening. */
+    private volatile LoraSettings listening;
+    private volatile Consumer<ReceivedPacket> packetListener;
+
+    /**
+     * The settings the radio is actually in continuous receive with, or null when
+     * it is not. A transmission leaves the radio in standby, which is how the
+     * background thread knows to put it back. Guarded by {@link #radioLock}.
+     */
+    private LoraSettings armedFor;
+
+    private volatile boolean closed;
+    private Thread worker;
+    private ExecutorService dispatcher;
+
     /**
      * Remembered from {@link #configure(BoardConfig)}, because the amplifier belongs
      * to the board rather than to the power asked for.
@@ -376,6 +432,16 @@ public class Lr1121Driver implements Closeable {
      *         which is the only safe reading of a packet the radio knows is wrong
      */
     public Optional<ReceivedPacket> receive(LoraSettings settings, Duration timeout) {
+        if (listening != null) {
+            throw new IllegalStateException(
+                    "The radio is listening in the background; packets go to the listener");
+        }
+        synchronized (radioLock) {
+            return receiveNow(settings, timeout);
+        }
+    }
+
+    private Optional<ReceivedPacket> receiveNow(LoraSettings settings, Duration timeout) {
         // 255: the largest a LoRa packet can be, since we do not know yet.
         packetParams(settings, 255);
         command(SET_DIO_IRQ_PARAMS, irqMask(IRQ_RX_DONE | IRQ_CRC_ERROR | IRQ_HEADER_ERROR | IRQ_TIMEOUT));
@@ -401,6 +467,13 @@ public class Lr1121Driver implements Closeable {
             return Optional.empty();
         }
 
+        ReceivedPacket packet = readPacket();
+        standby();
+        return Optional.of(packet);
+    }
+
+    /** Reads the packet the radio has just reported, from where it says it is. */
+    private ReceivedPacket readPacket() {
         byte[] status = query(GET_RX_BUFFER_STATUS, 2);
         int length = status[0] & 0xFF;
         int start = status[1] & 0xFF;
@@ -411,8 +484,7 @@ public class Lr1121Driver implements Closeable {
         int rssi = -(packetStatus[0] & 0xFF) / 2;
         double snr = ((byte) packetStatus[1]) / 4.0;
 
-        standby();
-        return Optional.of(new ReceivedPacket(payload, rssi, snr));
+        return new ReceivedPacket(payload, rssi, snr);
     }
 
     /**
@@ -426,11 +498,40 @@ public class Lr1121Driver implements Closeable {
      * @param timeout how long to wait for the radio to report the packet as sent
      */
     public void transmit(byte[] payload, LoraSettings settings, int powerDbm, Duration timeout) {
+        requirePacketSize(payload);
+
+        if (listening != null) {
+            // The background thread owns the radio; queue behind whatever it is doing.
+            try {
+                transmitAsync(payload, settings, powerDbm, timeout).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+            return;
+        }
+        synchronized (radioLock) {
+            send(payload, settings, powerDbm, timeout);
+        }
+    }
+
+    private static void requirePacketSize(byte[] payload) {
         if (payload.length > 255) {
             throw new IllegalArgumentException(
                     "A LoRa packet holds 255 bytes, was given " + payload.length);
         }
+    }
 
+    /**
+     * The transmission itself, ending in standby.
+     *
+     * <p>A wait that ends without either flag is not taken as the end of the
+     * transmission: the interrupt line is a hint, and {@link Lr11xxIo#wake} can end
+     * a wait on purpose. Only the time running out is.
+     */
+    private void send(byte[] payload, LoraSettings settings, int powerDbm, Duration timeout) {
         writeBuffer(payload);
         packetParams(settings, payload.length);
         transmitPower(powerDbm);
@@ -439,12 +540,17 @@ public class Lr1121Driver implements Closeable {
 
         command(SET_TX, 0, 0, 0);
 
-        if (!io.awaitInterrupt(timeout)) {
-            standby();
-            throw new IllegalStateException("The radio did not report the packet as sent within " + timeout);
-        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int irq;
+        do {
+            Duration remaining = Duration.ofNanos(deadline - System.nanoTime());
+            if (remaining.isNegative() || !io.awaitInterrupt(remaining)) {
+                standby();
+                throw new IllegalStateException("The radio did not report the packet as sent within " + timeout);
+            }
+            irq = irqStatus();
+        } while ((irq & (IRQ_TX_DONE | IRQ_TIMEOUT)) == 0);
 
-        int irq = irqStatus();
         clearIrq(irq);
         standby();
 
@@ -454,6 +560,194 @@ public class Lr1121Driver implements Closeable {
         }
     }
 
+    /**
+     * Puts the radio in continuous receive and hands every packet to the listener,
+     * until {@link #stopListening()} or {@link #close()}.
+     *
+     * <p>Two threads do the work. One owns the radio: it waits on the interrupt
+     * line, reads each packet out as soon as the radio reports it, and sends what
+     * {@link #transmitAsync} queued — putting the radio back into receive after
+     * each transmission. The other calls the listener, one packet at a time and in
+     * the order they arrived, so a listener that takes its time delays the next
+     * call rather than the next reception.
+     *
+     * <p>Corrupt packets are dropped, as {@link #receive} drops them. Calling this
+     * again switches to the new settings and listener.
+     *
+     * @param settings the same settings the senders use
+     * @param listener called on the driver's dispatch thread
+     */
+    public void listen(LoraSettings settings, Consumer<ReceivedPacket> listener) {
+        requireOpen();
+        packetListener = listener;
+        synchronized (radioLock) {
+            if (armedFor != null && armedFor != settings) {
+                // Re-arming rewrites the packet parameters, which the radio
+                // must not be receiving with at the time.
+                standby();
+                armedFor = null;
+            }
+            listening = settings;
+        }
+        startWorker();
+        io.wake();
+    }
+
+    /**
+     * Takes the radio out of receive and back to standby. Packets already read out
+     * are still handed to the listener; packets queued for sending are still sent.
+     */
+    public void stopListening() {
+        listening = null;
+        io.wake();
+        synchronized (radioLock) {
+            if (armedFor != null) {
+                standby();
+                armedFor = null;
+            }
+        }
+    }
+
+    public boolean isListening() {
+        return listening != null;
+    }
+
+    /**
+     * Queues a packet for sending on the driver's own thread and returns at once.
+     * Packets go out one after another, in the order they were queued; while
+     * listening, the radio returns to receive after each.
+     *
+     * @return completed when the radio reports the packet as sent, or
+     *         exceptionally with what {@link #transmit} would have thrown
+     */
+    public CompletableFuture<Void> transmitAsync(byte[] payload, LoraSettings settings, int powerDbm,
+                                                 Duration timeout) {
+        requirePacketSize(payload);
+        requireOpen();
+        Outgoing packet = new Outgoing(payload.clone(), settings, powerDbm, timeout, new CompletableFuture<>());
+        startWorker();
+        outgoing.add(packet);
+        io.wake();
+        return packet.done();
+    }
+
+    /** A packet waiting to be sent, and who is waiting for it. */
+    private record Outgoing(byte[] payload, LoraSettings settings, int powerDbm, Duration timeout,
+                            CompletableFuture<Void> done) {
+    }
+
+    private void requireOpen() {
+        if (closed) {
+            throw new IllegalStateException("The radio has been closed");
+        }
+    }
+
+    private void startWorker() {
+        synchronized (workerLock) {
+            if (worker == null) {
+                dispatcher = Executors.newSingleThreadExecutor(
+                        Thread.ofPlatform().name("lr11xx-dispatch").daemon().factory());
+                worker = Thread.ofPlatform().name("lr11xx-radio").daemon().start(this::runRadio);
+            }
+        }
+    }
+
+    /** The background thread: sends what is queued, and otherwise listens if asked to. */
+    private void runRadio() {
+        while (!closed) {
+            try {
+                Outgoing next = outgoing.poll();
+                if (next != null) {
+                    sendQueued(next);
+                    continue;
+                }
+                LoraSettings settings = listening;
+                if (settings == null) {
+                    next = outgoing.poll(POLL_SLICE.toMillis(), TimeUnit.MILLISECONDS);
+                    if (next != null) {
+                        sendQueued(next);
+                    }
+                    continue;
+                }
+                synchronized (radioLock) {
+                    // Checked again under the lock: stopListening() may have won the race.
+                    if (listening == settings && armedFor != settings) {
+                        armContinuousReception(settings);
+                        armedFor = settings;
+                    }
+                }
+                io.awaitInterrupt(POLL_SLICE);
+                collectReception();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                if (closed) {
+                    return;
+                }
+                log.warn("The radio thread failed; receive will be re-armed", e);
+                synchronized (radioLock) {
+                    armedFor = null;
+                }
+                sleep(POLL_SLICE);
+            }
+        }
+    }
+
+    private void armContinuousReception(LoraSettings settings) {
+        packetParams(settings, 255);
+        command(SET_DIO_IRQ_PARAMS, irqMask(IRQ_RX_DONE | IRQ_CRC_ERROR | IRQ_HEADER_ERROR | IRQ_TIMEOUT));
+        clearIrq(0xFFFFFFFF);
+        command(SET_RX, (RX_CONTINUOUS >> 16) & 0xFF, (RX_CONTINUOUS >> 8) & 0xFF, RX_CONTINUOUS & 0xFF);
+    }
+
+    private void sendQueued(Outgoing packet) {
+        synchronized (radioLock) {
+            try {
+                send(packet.payload(), packet.settings(), packet.powerDbm(), packet.timeout());
+                packet.done().complete(null);
+            } catch (RuntimeException e) {
+                packet.done().completeExceptionally(e);
+            } finally {
+                // Sending ends in standby, so a listening radio needs to be put back.
+                armedFor = null;
+            }
+        }
+    }
+
+    /**
+     * Reads out a packet if the flags say one arrived. The radio is still in
+     * receive, so the next packet can arrive while this one is handed over.
+     */
+    private void collectReception() {
+        ReceivedPacket packet;
+        synchronized (radioLock) {
+            if (armedFor == null) {
+                return;
+            }
+            int irq = irqStatus();
+            if ((irq & (IRQ_RX_DONE | IRQ_CRC_ERROR | IRQ_HEADER_ERROR | IRQ_TIMEOUT)) == 0) {
+                return;
+            }
+            clearIrq(irq);
+            if ((irq & IRQ_TIMEOUT) != 0) {
+                // Continuous receive should not time out; if it did, the radio is no longer listening.
+                armedFor = null;
+            }
+            if ((irq & IRQ_RX_DONE) == 0 || (irq & (IRQ_CRC_ERROR | IRQ_HEADER_ERROR)) != 0) {
+                return;
+            }
+            packet = readPacket();
+        }
+        Consumer<ReceivedPacket> listener = packetListener;
+        dispatcher.execute(() -> {
+            try {
+                listener.accept(packet);
+            } catch (RuntimeException e) {
+                log.warn("The packet listener failed", e);
+            }
+        });
+    }
+
     /**
      * Resets the radio and waits for it to hand over from its bootloader.
      *
@@ -604,8 +898,40 @@ public class Lr1121Driver implements Closeable {
                 (mask >>> 8) & 0xFF, mask & 0xFF);
     }
 
+    /**
+     * Stops the background threads, if any, and releases the wires. Packets still
+     * queued for sending complete exceptionally.
+     */
     @Override
     public void close() {
+        closed = true;
+        listening = null;
+        Thread thread;
+        synchronized (workerLock) {
+            thread = worker;
+        }
+        if (thread != null) {
+            io.wake();
+            thread.interrupt();
+            try {
+                thread.join(READY_TIMEOUT.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            dispatcher.shutdown();
+        }
+        for (Outgoing packet; (packet = outgoing.poll()) != null; ) {
+            packet.done().completeExceptionally(new IllegalStateException("The radio was closed before sending"));
+        }
+        synchronized (radioLock) {
+            // A radio left in receive keeps drawing current with nobody to read it.
+            try {
+                standby();
+            } catch (RuntimeException e) {
+                log.warn("The radio did not go to standby before closing", e);
+            }
+            armedFor = null;
+        }
         io.close();
     }
 
@@ -47,6 +47,18 @@ public interface Lr11xxIo extends Closeable {
      */
     boolean awaitInterrupt(Duration timeout);
 
+    /**
+     * Makes a thread waiting in {@link #awaitInterrupt} return early, as though the
+     * line had gone high. The driver's background thread uses this to pick up a
+     * packet queued for sending, or to stop, without waiting for the radio.
+     *
+     * <p>A spurious return is harmless: the driver reads the radio's flags after
+     * every wait, and they say nothing happened. The default does nothing, which
+     * leaves the waiting thread to notice at the end of its wait instead.
+     */
+    default void wake() {
+    }
+
     @Override
     void close();
 }
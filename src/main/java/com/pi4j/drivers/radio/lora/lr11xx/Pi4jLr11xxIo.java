@@ -203,6 +203,12 @@ class Pi4jLr11xxIo implements Lr11xxIo {
         }
     }
 
+    /** A permit without an edge: the waiter reads the flags, finds nothing, and moves on. */
+    @Override
+    public void wake() {
+        edges.release();
+    }
+
     @Override
     public void close() {
         interrupt.removeConsumer(edgeListener);
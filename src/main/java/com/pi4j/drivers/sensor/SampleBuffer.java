@@ -0,0 +1,119 @@
+package com.pi4j.drivers.sensor;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free ring buffer holding the most recent timestamped samples of a sensor, filled by a SensorSampler.
+ * <p>
+ * There is a single writer; any number of threads can read concurrently without blocking the writer or touching
+ * the bus. Samples are identified by a sequence number, starting at 0 for the first sample. Readers detect
+ * samples that were overwritten while being copied and report them as unavailable.
+ */
+public final class SampleBuffer {
+    private final int capacity;
+    private final int valueCount;
+    private final long[] timestamps;
+    private final double[] values;
+
+    /** The number of samples published. */
+    private final AtomicLong count = new AtomicLong();
+    /** The sequence number of the sample that is being written or was written last. */
+    private final AtomicLong writing = new AtomicLong();
+
+    private final AtomicLong errorCount = new AtomicLong();
+    private volatile RuntimeException lastError;
+
+    /** Creates a sample buffer for samples consisting of valueCount values, retaining capacity samples. */
+    public SampleBuffer(int valueCount, int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        this.capacity = capacity;
+        this.valueCount = valueCount;
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity * valueCount];
+    }
+
+    /** The number of values per sample, corresponding to the sensor descriptor values. */
+    public int getValueCount() {
+        return valueCount;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Returns the total number of samples added; this is also the sequence number of the next sample. */
+    public long getSampleCount() {
+        return count.getAcquire();
+    }
+
+    /** Returns the sequence number of the oldest sample that can be read safely. */
+    public long getOldestSequence() {
+        // The slot of the oldest sample may be overwritten next.
+        return Math.max(0, getSampleCount() - capacity + 1);
+    }
+
+    /**
+     * Copies the latest sample to the given array and returns its timestamp in milliseconds since the epoch.
+     * Returns -1 if no sample is available yet.
+     */
+    public long getLatest(double[] target) {
+        while (true) {
+            long sampleCount = getSampleCount();
+            if (sampleCount == 0) {
+                return -1;
+            }
+            long timestamp = getSample(sampleCount - 1, target);
+            if (timestamp != -1) {
+                return timestamp;
+            }
+        }
+    }
+
+    /**
+     * Copies the sample with the given sequence number to the given array and returns its timestamp in
+     * milliseconds since the epoch. Returns -1 if the sample is not available (yet or anymore); in this case,
+     * the content of the target array is undefined.
+     */
+    public long getSample(long sequence, double[] target) {
+        if (sequence < 0 || sequence >= getSampleCount()) {
+            return -1;
+        }
+        int slot = (int) (sequence % capacity);
+        long timestamp = timestamps[slot];
+        System.arraycopy(values, slot * valueCount, target, 0, valueCount);
+        // Make sure the copy is complete before checking whether the writer has started overwriting the slot.
+        VarHandle.acquireFence();
+        return writing.getOpaque() < sequence + capacity ? timestamp : -1;
+    }
+
+    /** The number of failed sampling attempts. */
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    /** The exception thrown by the last failed sampling attempt, or null. */
+    public RuntimeException getLastError() {
+        return lastError;
+    }
+
+    // Package-private methods used by SensorSampler. Must not be called concurrently.
+
+    void add(long timestamp, double[] sample) {
+        long sequence = count.getPlain();
+        writing.setOpaque(sequence);
+        // Readers must see the writing marker before any of the slot modifications.
+        VarHandle.releaseFence();
+        int slot = (int) (sequence % capacity);
+        timestamps[slot] = timestamp;
+        System.arraycopy(sample, 0, values, slot * valueCount, valueCount);
+        count.setRelease(sequence + 1);
+    }
+
+    void recordError(RuntimeException e) {
+        lastError = e;
+        errorCount.incrementAndGet();
+    }
+}
@@ -1,6 +1,7 @@
 package com.pi4j.drivers.sensor;
 
 import java.io.Closeable;
+import java.time.Instant;
 
 /** Implemented by sensor drivers providing one or multiple values. */
 public interface Sensor extends Closeable {
@@ -9,6 +10,14 @@ public interface Sensor extends Closeable {
     /** Reads a single measurement. For information about the values, please refer to getDescriptor(). */
     void readMeasurement(double[] values);
 
+    /**
+     * Returns the instant when the sensor will be ready for the next read without waiting, or null if unknown.
+     * Used by SensorSampler to schedule reads instead of blocking in readMeasurement().
+     */
+    default Instant getBusyUntil() {
+        return null;
+    }
+
     @Override
     void close();
 
@@ -17,17 +17,36 @@ public class SensorDescriptor {
     private final List<Value> values;
     private final List<Integer> i2cAddresses;
     private final Function<I2C, Sensor> i2cSensorDetector;
+    private final int i2cIdRegister;
+    private final int[] i2cIdValues;
 
     public SensorDescriptor(
             String sensorName,
             List<Value> values,
             List<Integer> i2cAddresses,
             Function<I2C, Sensor> i2cSensorDetector
+    ) {
+        this(sensorName, values, i2cAddresses, i2cSensorDetector, -1, new int[0]);
+    }
+
+    /**
+     * If i2cIdRegister is not negative, the detector is only invoked if the given register contains one of the
+     * given id values. This allows sensor detection to share a single register read between sensors.
+     */
+    public SensorDescriptor(
+            String sensorName,
+            List<Value> values,
+            List<Integer> i2cAddresses,
+            Function<I2C, Sensor> i2cSensorDetector,
+            int i2cIdRegister,
+            int[] i2cIdValues
     ) {
         this.sensorName = sensorName;
         this.values = Collections.unmodifiableList(values);
         this.i2cAddresses = Collections.unmodifiableList(i2cAddresses);
         this.i2cSensorDetector = i2cSensorDetector;
+        this.i2cIdRegister = i2cIdRegister;
+        this.i2cIdValues = i2cIdValues.clone();
     }
 
     /**
@@ -58,7 +77,37 @@ public class SensorDescriptor {
         return i2cAddresses;
     }
 
+    /** Returns the register containing the chip id, or -1 if the sensor can't be identified by a register. */
+    public int getI2cIdRegister() {
+        return i2cIdRegister;
+    }
+
+    /** Returns true if the given value read from the id register identifies this sensor. */
+    public boolean matchesI2cId(int value) {
+        for (int idValue : i2cIdValues) {
+            if (idValue == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a driver for the sensor if it is connected via the given I2C instance, or null otherwise. If an id
+     * register is set, it is checked before the detector is invoked.
+     */
     public Sensor detect(I2C i2c) {
+        if (i2cIdRegister >= 0 && !matchesI2cId(i2c.readRegister(i2cIdRegister))) {
+            return null;
+        }
+        return createDriver(i2c);
+    }
+
+    /**
+     * Invokes the detector without checking the id register; used by SensorDetector, which reads the id register
+     * once per address and checks it with matchesI2cId().
+     */
+    Sensor createDriver(I2C i2c) {
         return i2cSensorDetector.apply(i2c);
     }
 
@@ -67,6 +116,8 @@ public class SensorDescriptor {
         private final List<Value> values = new ArrayList<>();
         private final List<Integer> i2cAddresses = new ArrayList<>();
         private Function<I2C, Sensor> i2cSensorDetector;
+        private int i2cIdRegister = -1;
+        private int[] i2cIdValues = new int[0];
 
         public Builder(String sensorName) {
             this.sensorName = sensorName;
@@ -82,13 +133,24 @@ public class SensorDescriptor {
             return this;
         }
 
+        /**
+         * Sets the function creating the driver. If an id register is set, the function is only invoked after the id
+         * has been checked, so it doesn't need to read the id register again.
+         */
         public Builder setI2cSensorDetector(Function<I2C, Sensor> i2cSensorDetector) {
             this.i2cSensorDetector = i2cSensorDetector;
             return this;
         }
 
+        /** Sets the register containing the chip id and the id values identifying the sensor. */
+        public Builder setI2cIdRegister(int register, int... idValues) {
+            this.i2cIdRegister = register;
+            this.i2cIdValues = idValues;
+            return this;
+        }
+
         public SensorDescriptor build() {
-            return new SensorDescriptor(sensorName, values, i2cAddresses, i2cSensorDetector);
+            return new SensorDescriptor(sensorName, values, i2cAddresses, i2cSensorDetector, i2cIdRegister, i2cIdValues);
         }
     }
 
@@ -8,15 +8,30 @@ import com.pi4j.drivers.sensor.environment.scd4x.Scd4xDriver;
 import com.pi4j.drivers.sensor.environment.tcs3400.Tcs3400Driver;
 import com.pi4j.drivers.sensor.geospatial.lsm9ds1.Lsm9ds1Driver;
 import com.pi4j.drivers.sensor.geospatial.lsm9ds1.Lsm9ds1MagnetometerDriver;
-import com.pi4j.io.i2c.I2C;
+import com.pi4j.io.SerialCircuitIO;
 import com.pi4j.io.i2c.I2CConfigBuilder;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
 
 /**
  * Tools for detecting sensors.
+ * <p>
+ * Detection probes each I2C address only once: the id register read is shared between all sensors that may be
+ * found at the address (e.g. BMP280 and BME280), addresses without a responding device are skipped after the
+ * first failed read, and handles for addresses without a detected sensor are closed.
  */
 public class SensorDetector {
     public static final List<SensorDescriptor> DESCRIPTORS = List.of(
@@ -36,22 +51,185 @@ public class SensorDetector {
 
     /** Returns a list of all detected I2c sensors on the given bus, providing at least one value in the given set of kinds. */
     public static List<Sensor> detectI2cSensors(Context context, int bus, EnumSet<SensorDescriptor.Kind> kinds) {
-        List<Sensor> result = new ArrayList<>();
-        for (SensorDescriptor descriptor: DESCRIPTORS) {
+        return scanI2cBuses(context, kinds, bus).getSensors();
+    }
+
+    /**
+     * Scans the given buses in parallel for sensors providing at least one value in the given set of kinds.
+     * Returns the detected sensors and scan statistics.
+     */
+    public static ScanResult scanI2cBuses(Context context, EnumSet<SensorDescriptor.Kind> kinds, int... buses) {
+        return scan(
+                DESCRIPTORS,
+                kinds,
+                buses,
+                (bus, address) -> context.create(I2CConfigBuilder.newInstance(context).bus(bus).device(address)),
+                SensorDescriptor::createDriver);
+    }
+
+    /** Creates the I/O instances for scanning; allows tests to provide fakes. */
+    interface IoFactory<T extends SerialCircuitIO> {
+        T create(int bus, int address);
+    }
+
+    static <T extends SerialCircuitIO> ScanResult scan(
+            List<SensorDescriptor> descriptors,
+            EnumSet<SensorDescriptor.Kind> kinds,
+            int[] buses,
+            IoFactory<T> factory,
+            BiFunction<SensorDescriptor, T, Sensor> driverFactory) {
+        long start = System.nanoTime();
+
+        // Group the candidate descriptors by address, retaining the descriptor order for each address.
+        Map<Integer, List<SensorDescriptor>> candidates = new TreeMap<>();
+        for (SensorDescriptor descriptor : descriptors) {
             if (descriptor.getValues().stream().anyMatch(value -> kinds.contains(value.getKind()))) {
-                for (int address: descriptor.getI2cAddresses()) {
-                    try {
-                        I2C i2c = context.create(I2CConfigBuilder.newInstance(context).bus(bus).device(address));
-                        Sensor sensor = descriptor.detect(i2c);
-                        if (sensor != null) {
-                            result.add(sensor);
+                for (int address : descriptor.getI2cAddresses()) {
+                    candidates.computeIfAbsent(address, key -> new ArrayList<>()).add(descriptor);
+                }
+            }
+        }
+
+        Map<Integer, BusScan> busScans = new LinkedHashMap<>();
+        if (buses.length == 1) {
+            busScans.put(buses[0], scanBus(buses[0], candidates, factory, driverFactory));
+        } else {
+            // Buses are independent, so they are scanned concurrently, one thread per bus.
+            Map<Integer, Future<BusScan>> futures = new LinkedHashMap<>();
+            try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofPlatform().name("SensorDetector").daemon().factory())) {
+                for (int bus : buses) {
+                    futures.put(bus, executor.submit(() -> scanBus(bus, candidates, factory, driverFactory)));
+                }
+            }
+            for (Map.Entry<Integer, Future<BusScan>> entry : futures.entrySet()) {
+                try {
+                    busScans.put(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Scanning bus " + entry.getKey() + " failed", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return new ScanResult(busScans, System.nanoTime() - start);
+    }
+
+    private static <T extends SerialCircuitIO> BusScan scanBus(
+            int bus,
+            Map<Integer, List<SensorDescriptor>> candidates,
+            IoFactory<T> factory,
+            BiFunction<SensorDescriptor, T, Sensor> driverFactory) {
+        long start = System.nanoTime();
+        BusScan scan = new BusScan();
+        Map<Integer, Integer> idCache = new HashMap<>();
+        byte[] idBuffer = new byte[1];
+        for (Map.Entry<Integer, List<SensorDescriptor>> entry : candidates.entrySet()) {
+            T io;
+            try {
+                io = factory.create(bus, entry.getKey());
+            } catch (Exception e) {
+                continue;
+            }
+            scan.probedAddressCount++;
+            idCache.clear();
+            Sensor sensor = null;
+            try {
+                for (SensorDescriptor descriptor : entry.getValue()) {
+                    int idRegister = descriptor.getI2cIdRegister();
+                    if (idRegister >= 0) {
+                        Integer id = idCache.get(idRegister);
+                        if (id == null) {
+                            scan.idReadCount++;
+                            io.writeThenRead(new byte[] {(byte) idRegister}, 0, 1, 0, idBuffer, 0, 1);
+                            id = idBuffer[0] & 0xff;
+                            idCache.put(idRegister, id);
+                        }
+                        if (!descriptor.matchesI2cId(id)) {
+                            continue;
                         }
+                    }
+                    try {
+                        sensor = driverFactory.apply(descriptor, io);
                     } catch (Exception e) {
-                        // Ignore all exception
+                        // Not this sensor; try the next candidate.
                     }
+                    if (sensor != null) {
+                        scan.sensors.add(sensor);
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                // Reading the id register failed, so there is no device at this address.
+            }
+            if (sensor == null) {
+                try {
+                    io.close();
+                } catch (Exception e) {
+                    // Ignore
                 }
             }
         }
-        return result;
+        scan.nanos = System.nanoTime() - start;
+        return scan;
+    }
+
+    private static class BusScan {
+        final List<Sensor> sensors = new ArrayList<>();
+        int probedAddressCount;
+        int idReadCount;
+        long nanos;
+    }
+
+    /** The detected sensors and statistics of a scan. */
+    public static class ScanResult {
+        private final List<Sensor> sensors = new ArrayList<>();
+        private final Map<Integer, Duration> busScanTimes = new LinkedHashMap<>();
+        private final Duration scanTime;
+        private int probedAddressCount;
+        private int idReadCount;
+
+        private ScanResult(Map<Integer, BusScan> busScans, long nanos) {
+            for (Map.Entry<Integer, BusScan> entry : busScans.entrySet()) {
+                BusScan busScan = entry.getValue();
+                sensors.addAll(busScan.sensors);
+                busScanTimes.put(entry.getKey(), Duration.ofNanos(busScan.nanos));
+                probedAddressCount += busScan.probedAddressCount;
+                idReadCount += busScan.idReadCount;
+            }
+            this.scanTime = Duration.ofNanos(nanos);
+        }
+
+        /** Returns an unmodifiable list of the detected sensors, ordered by bus and address. */
+        public List<Sensor> getSensors() {
+            return Collections.unmodifiableList(sensors);
+        }
+
+        /** Returns the total scan time. */
+        public Duration getScanTime() {
+            return scanTime;
+        }
+
+        /** Returns an unmodifiable map from the bus number to the scan time for the bus. */
+        public Map<Integer, Duration> getBusScanTimes() {
+            return Collections.unmodifiableMap(busScanTimes);
+        }
+
+        /** Returns the number of addresses probed over all buses. */
+        public int getProbedAddressCount() {
+            return probedAddressCount;
+        }
+
+        /** Returns the number of id register reads over all buses. */
+        public int getIdReadCount() {
+            return idReadCount;
+        }
+
+        @Override
+        public String toString() {
+            return "ScanResult{sensors=" + sensors.size() + ", addresses=" + probedAddressCount
+                    + ", idReads=" + idReadCount + ", time=" + scanTime.toMillis() + "ms, buses=" + busScanTimes + "}";
+        }
     }
 }
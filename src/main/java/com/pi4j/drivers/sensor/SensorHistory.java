@@ -0,0 +1,256 @@
+package com.pi4j.drivers.sensor;
+
+import java.time.Duration;
+
+/**
+ * Time series of sensor samples in a fixed size ring buffer, backed by primitive arrays. Once the capacity is
+ * reached, the oldest samples are replaced.
+ * <p>
+ * Values are addressed by the value index of the sensor descriptor (see SensorDescriptor.indexOf()).
+ * Timestamps are milliseconds since the epoch and must not decrease. Time ranges include the start and exclude
+ * the end. Aggregations are computed on the stored primitive values without allocating.
+ */
+public class SensorHistory {
+
+    /** Aggregation functions for aggregate() and downsample(). */
+    public enum Aggregation {
+        MIN,
+        MAX,
+        MEAN,
+        /** The number of samples; not NaN for empty ranges. */
+        COUNT
+    }
+
+    private final SensorDescriptor descriptor;
+    private final int capacity;
+    private final int valueCount;
+    private final long[] timestamps;
+    private final double[] values;
+    /** Holds a sample copied from a SampleBuffer in addFrom(). */
+    private final double[] transferSample;
+
+    /** The physical index of the oldest sample. */
+    private int start;
+    private int size;
+
+    /** Creates a history for the given sensor, retaining up to capacity samples. */
+    public SensorHistory(SensorDescriptor descriptor, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.descriptor = descriptor;
+        this.capacity = capacity;
+        this.valueCount = descriptor.getValues().size();
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity * valueCount];
+        this.transferSample = new double[valueCount];
+    }
+
+    /** Creates a history with sufficient capacity to hold samples at the given interval for the given duration. */
+    public static SensorHistory forRetention(SensorDescriptor descriptor, Duration retention, Duration interval) {
+        long capacity = retention.toMillis() / interval.toMillis() + 1;
+        if (capacity > Integer.MAX_VALUE / Math.max(1, descriptor.getValues().size())) {
+            throw new IllegalArgumentException("Retention " + retention + " too long for interval " + interval);
+        }
+        return new SensorHistory(descriptor, (int) capacity);
+    }
+
+    public SensorDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Returns the number of stored samples. */
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Adds a sample, values indexed by the descriptor value index. */
+    public synchronized void add(long timestamp, double[] sample) {
+        if (size > 0 && timestamp < timestamps[physicalIndex(size - 1)]) {
+            throw new IllegalArgumentException("Timestamp " + timestamp + " before the last sample");
+        }
+        int index;
+        if (size < capacity) {
+            index = physicalIndex(size++);
+        } else {
+            index = start;
+            start = (start + 1) % capacity;
+        }
+        timestamps[index] = timestamp;
+        System.arraycopy(sample, 0, values, index * valueCount, valueCount);
+    }
+
+    /**
+     * Adds all samples from the given sample buffer, starting at the given sequence number (or the oldest available
+     * sample, if later). Returns the sequence number to continue with in the next call.
+     * <p>
+     * Sample buffer timestamps come from the wall clock, which may step backwards (e.g. on an NTP correction).
+     * Timestamps before the last sample are therefore clamped to the timestamp of the last sample.
+     */
+    public synchronized long addFrom(SampleBuffer buffer, long fromSequence) {
+        long end = buffer.getSampleCount();
+        for (long sequence = Math.max(fromSequence, buffer.getOldestSequence()); sequence < end; sequence++) {
+            long timestamp = buffer.getSample(sequence, transferSample);
+            if (timestamp != -1) {
+                if (size > 0) {
+                    timestamp = Math.max(timestamp, timestamps[physicalIndex(size - 1)]);
+                }
+                add(timestamp, transferSample);
+            }
+        }
+        return end;
+    }
+
+    /** Returns the timestamp of the sample with the given index, where 0 is the oldest sample. */
+    public synchronized long getTimestamp(int index) {
+        return timestamps[physicalIndex(checkIndex(index))];
+    }
+
+    /** Returns the value with the given value index of the sample with the given index (0 is the oldest sample). */
+    public synchronized double getValue(int index, int valueIndex) {
+        return values[physicalIndex(checkIndex(index)) * valueCount + valueIndex];
+    }
+
+    /** Aggregates the given value over the samples in the given time range. Returns NaN for empty ranges. */
+    public synchronized double aggregate(int valueIndex, long from, long to, Aggregation aggregation) {
+        double min = Double.NaN;
+        double max = Double.NaN;
+        double sum = 0;
+        int count = 0;
+        for (int i = firstIndexAtOrAfter(from); i < size; i++) {
+            int physical = physicalIndex(i);
+            if (timestamps[physical] >= to) {
+                break;
+            }
+            double value = values[physical * valueCount + valueIndex];
+            min = count == 0 ? value : Math.min(min, value);
+            max = count == 0 ? value : Math.max(max, value);
+            sum += value;
+            count++;
+        }
+        return aggregation(aggregation, min, max, sum, count);
+    }
+
+    /**
+     * Returns the exponentially weighted moving average of the given value over the samples in the given time
+     * range. The weight of a sample decays with the given time constant, taking the time between samples into
+     * account, so irregular sampling doesn't skew the result. Returns NaN for empty ranges.
+     */
+    public synchronized double ewma(int valueIndex, long from, long to, Duration timeConstant) {
+        double tau = timeConstant.toMillis();
+        double average = Double.NaN;
+        long lastTimestamp = 0;
+        for (int i = firstIndexAtOrAfter(from); i < size; i++) {
+            int physical = physicalIndex(i);
+            long timestamp = timestamps[physical];
+            if (timestamp >= to) {
+                break;
+            }
+            double value = values[physical * valueCount + valueIndex];
+            if (Double.isNaN(average)) {
+                average = value;
+            } else {
+                average += (1 - Math.exp(-(timestamp - lastTimestamp) / tau)) * (value - average);
+            }
+            lastTimestamp = timestamp;
+        }
+        return average;
+    }
+
+    /**
+     * Splits the given time range into buckets.length buckets of equal duration and stores the aggregated value
+     * for each bucket in the buckets array. Empty buckets are set to NaN (or 0 for COUNT). Returns the number of
+     * samples in the time range.
+     */
+    public synchronized int downsample(int valueIndex, long from, long to, Aggregation aggregation, double[] buckets) {
+        if (to <= from) {
+            throw new IllegalArgumentException("Empty time range");
+        }
+        int bucketCount = buckets.length;
+        double bucketsPerMilli = (double) bucketCount / (to - from);
+        int total = 0;
+        int bucket = 0;
+        double min = Double.NaN;
+        double max = Double.NaN;
+        double sum = 0;
+        int count = 0;
+        for (int i = firstIndexAtOrAfter(from); i < size; i++) {
+            int physical = physicalIndex(i);
+            long timestamp = timestamps[physical];
+            if (timestamp >= to) {
+                break;
+            }
+            int sampleBucket = Math.min(bucketCount - 1, (int) ((timestamp - from) * bucketsPerMilli));
+            // Samples are sorted, so buckets are completed in order.
+            while (bucket < sampleBucket) {
+                buckets[bucket++] = aggregation(aggregation, min, max, sum, count);
+                count = 0;
+                sum = 0;
+            }
+            double value = values[physical * valueCount + valueIndex];
+            min = count == 0 ? value : Math.min(min, value);
+            max = count == 0 ? value : Math.max(max, value);
+            sum += value;
+            count++;
+            total++;
+        }
+        while (bucket < bucketCount) {
+            buckets[bucket++] = aggregation(aggregation, min, max, sum, count);
+            count = 0;
+        }
+        return total;
+    }
+
+    /** Removes all samples. */
+    public synchronized void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    // Private helpers
+
+    private static double aggregation(Aggregation aggregation, double min, double max, double sum, int count) {
+        if (aggregation == Aggregation.COUNT) {
+            return count;
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return switch (aggregation) {
+            case MIN -> min;
+            case MAX -> max;
+            default -> sum / count;
+        };
+    }
+
+    /** Returns the logical index of the first sample with a timestamp at or after the given time. */
+    private int firstIndexAtOrAfter(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[physicalIndex(mid)] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int physicalIndex(int index) {
+        int physical = start + index;
+        return physical >= capacity ? physical - capacity : physical;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range 0.." + (size - 1));
+        }
+        return index;
+    }
+}
@@ -0,0 +1,168 @@
+package com.pi4j.drivers.sensor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Continuously samples a set of sensors at configured intervals on a shared scheduler, publishing the samples
+ * into a SampleBuffer per sensor. Consumers read the buffers instead of the sensors, so any number of consumers
+ * can access the latest values without triggering additional bus transactions.
+ * <p>
+ * If a sensor reports that it is busy via getBusyUntil(), the next sample is postponed accordingly instead of
+ * blocking a scheduler thread. If sampling takes longer than the interval, missed samples are skipped.
+ */
+public class SensorSampler implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(SensorSampler.class);
+
+    /** The default number of samples retained per sensor. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final Map<Sensor, Entry> entries = new ConcurrentHashMap<>();
+
+    /** Creates a sensor sampler with two scheduler threads. */
+    public SensorSampler() {
+        this(2);
+    }
+
+    /**
+     * Creates a sensor sampler with the given number of scheduler threads. As sensor reads are blocking, more
+     * threads allow more sensors on different buses to be sampled concurrently.
+     */
+    public SensorSampler(int threadCount) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "SensorSampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+        this.ownsScheduler = true;
+    }
+
+    /** Creates a sensor sampler using the given scheduler, which is not shut down when the sampler is closed. */
+    public SensorSampler(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+        this.ownsScheduler = false;
+    }
+
+    /** Starts sampling the given sensor at the given interval, retaining DEFAULT_CAPACITY samples. */
+    public SampleBuffer add(Sensor sensor, Duration interval) {
+        return add(sensor, interval, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Starts sampling the given sensor at the given interval, retaining the given number of samples.
+     * Returns the buffer the samples are published to.
+     */
+    public SampleBuffer add(Sensor sensor, Duration interval, int capacity) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        Entry entry = new Entry(
+                sensor,
+                interval.toNanos(),
+                new SampleBuffer(sensor.getDescriptor().getValues().size(), capacity));
+        if (entries.putIfAbsent(sensor, entry) != null) {
+            throw new IllegalArgumentException("Sensor " + sensor.getDescriptor().getSensorName() + " already added");
+        }
+        entry.schedule(System.nanoTime());
+        return entry.buffer;
+    }
+
+    /** Returns the sample buffer for the given sensor, or null if the sensor is not sampled. */
+    public SampleBuffer getBuffer(Sensor sensor) {
+        Entry entry = entries.get(sensor);
+        return entry == null ? null : entry.buffer;
+    }
+
+    /** Stops sampling the given sensor. The sensor is not closed. */
+    public void remove(Sensor sensor) {
+        Entry entry = entries.remove(sensor);
+        if (entry != null) {
+            entry.cancel();
+        }
+    }
+
+    /** Stops sampling all sensors. The sensors are not closed. */
+    @Override
+    public void close() {
+        for (Sensor sensor : entries.keySet()) {
+            remove(sensor);
+        }
+        if (ownsScheduler) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private final class Entry implements Runnable {
+        private final Sensor sensor;
+        private final long intervalNanos;
+        private final SampleBuffer buffer;
+        private final double[] sample;
+
+        private long dueNanos;
+        private volatile ScheduledFuture<?> future;
+        private volatile boolean cancelled;
+
+        Entry(Sensor sensor, long intervalNanos, SampleBuffer buffer) {
+            this.sensor = sensor;
+            this.intervalNanos = intervalNanos;
+            this.buffer = buffer;
+            this.sample = new double[buffer.getValueCount()];
+        }
+
+        void schedule(long dueNanos) {
+            this.dueNanos = dueNanos;
+            long delayNanos = dueNanos - System.nanoTime();
+            Instant busyUntil = sensor.getBusyUntil();
+            if (busyUntil != null) {
+                delayNanos = Math.max(delayNanos, Duration.between(Instant.now(), busyUntil).toNanos());
+            }
+            try {
+                future = scheduler.schedule(this, Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                if (!cancelled) {
+                    throw e;
+                }
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> future = this.future;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                sensor.readMeasurement(sample);
+                buffer.add(System.currentTimeMillis(), sample);
+            } catch (RuntimeException e) {
+                buffer.recordError(e);
+                log.warn("Sampling {} failed", sensor.getDescriptor().getSensorName(), e);
+            }
+            if (!cancelled) {
+                schedule(Math.max(dueNanos + intervalNanos, System.nanoTime()));
+            }
+        }
+    }
+}
@@ -45,7 +45,8 @@ public class Bmx280Driver implements Sensor {
             .addValue(SensorDescriptor.Kind.TEMPERATURE)
             .addValue(SensorDescriptor.Kind.PRESSURE)
             .addI2cAddress(ADDRESS_BMP_280)
-            .setI2cSensorDetector(i2c -> i2c.readRegister(Bmp280Constants.CHIP_ID) == Bmp280Constants.ID_VALUE_BMP ? new Bmx280Driver(i2c) : null)
+            .setI2cIdRegister(Bmp280Constants.CHIP_ID, Bmp280Constants.ID_VALUE_BMP)
+            .setI2cSensorDetector(Bmx280Driver::new)
             .build();
 
     public final static SensorDescriptor DESCRIPTOR_BME_280 = new SensorDescriptor.Builder("BME280")
@@ -54,12 +55,18 @@ public class Bmx280Driver implements Sensor {
             .addValue(SensorDescriptor.Kind.HUMIDITY)
             .addI2cAddress(ADDRESS_BME_280_PRIMARY)
             .addI2cAddress(ADDRESS_BME_280_SECONDARY)
-            .setI2cSensorDetector(i2c -> i2c.readRegister(Bmp280Constants.CHIP_ID) == Bmp280Constants.ID_VALUE_BME ? new Bmx280Driver(i2c) : null)
+            .setI2cIdRegister(Bmp280Constants.CHIP_ID, Bmp280Constants.ID_VALUE_BME)
+            .setI2cSensorDetector(Bmx280Driver::new)
             .build();
 
     private final static double[] BME_280_STANDBY_TIMES = {0.5, 62.5, 125, 250, 500, 1000, 2000, 4000};
     private final static double[] BMP_280_STANDBY_TIMES = {0.5, 62.5, 125, 250, 500, 1000, 10, 20};
 
+    /** Calibration block 0x88 - 0xA1 */
+    private final static int CALIBRATION_LENGTH_TP = 26;
+    /** Calibration block 0xE1 - 0xE7 */
+    private final static int CALIBRATION_LENGTH_H = 7;
+
     private final SerialCircuitIO io;
     private final Model model;
 
@@ -72,6 +79,12 @@ public class Bmx280Driver implements Sensor {
 
     // ByteBuffer doesn't seem to help a lot, given mixed big and little endian access.
     private final byte[] ioBuf = new byte[8];
+    /** Compensated values of the last measurement (temperature, pressure, humidity). */
+    private final double[] compensated = {Double.NaN, Double.NaN, Double.NaN};
+
+    /** Raw ADC values of the last measurement. */
+    private int adcT, adcP, adcH;
+    private boolean integerCompensation = false;
 
     private MeasurementMode measurementMode = MeasurementMode.SLEEPING;
     private Instant busyUntil = Instant.now();
@@ -105,60 +118,53 @@ public class Bmx280Driver implements Sensor {
         this.io = io;
 
         int chipId = readRegister(Bmp280Constants.CHIP_ID);
+        if (chipId != Bmp280Constants.ID_VALUE_BMP && chipId != Bmp280Constants.ID_VALUE_BME) {
+            throw new IllegalStateException("Unrecognized chip ID: " + chipId);
+        }
+
+        // Read the temperature and pressure calibration values (and dig_H1 for the BME 280) in one burst.
+        byte[] calibration = new byte[CALIBRATION_LENGTH_TP];
+        readRegister(Bmp280Constants.REG_DIG_T1, calibration, 0, CALIBRATION_LENGTH_TP);
+
+        digT1 = u16(calibration, Bmp280Constants.REG_DIG_T1);
+        digT2 = s16(calibration, Bmp280Constants.REG_DIG_T2);
+        digT3 = s16(calibration, Bmp280Constants.REG_DIG_T3);
+
+        digP1 = u16(calibration, Bmp280Constants.REG_DIG_P1);
+        digP2 = s16(calibration, Bmp280Constants.REG_DIG_P2);
+        digP3 = s16(calibration, Bmp280Constants.REG_DIG_P3);
+        digP4 = s16(calibration, Bmp280Constants.REG_DIG_P4);
+        digP5 = s16(calibration, Bmp280Constants.REG_DIG_P5);
+        digP6 = s16(calibration, Bmp280Constants.REG_DIG_P6);
+        digP7 = s16(calibration, Bmp280Constants.REG_DIG_P7);
+        digP8 = s16(calibration, Bmp280Constants.REG_DIG_P8);
+        digP9 = s16(calibration, Bmp280Constants.REG_DIG_P9);
+
         if (chipId == Bmp280Constants.ID_VALUE_BMP) {
             model = Model.BMP280;
             digH1 = digH2 = digH3 = digH4 = digH5 = digH6 = 0;
             humidityMode = SensorMode.DISABLED;
-
-        } else if (chipId == Bmp280Constants.ID_VALUE_BME) {
+        } else {
             model = Model.BME280;
-
-            digH1 = readRegister(Bme280Constants.REG_DIG_H1);
-            digH2 = readRegisterS16(Bme280Constants.REG_DIG_H2);
-            digH3 = readRegister(Bme280Constants.REG_DIG_H3);
-
-            int e4 = readRegister(0xe4);
-            int e5 = readRegister(0xe5);
-
-            int h4Hsb = e4 * 16;
-            int h4Lsb = e5 & 0x0f;
-            digH4 = h4Hsb | h4Lsb;
-
-            int e6 = readRegister(0xe6);
-
-            int h5Lsb = e5 >> 4;
-            int h5Hsb = e6 * 16;
-            digH5 = h5Hsb | h5Lsb;
-
-            // Casting to byte will force a sign extension
-            digH6 = (byte) readRegister(Bme280Constants.REG_DIG_H6);
+            digH1 = calibration[Bme280Constants.REG_DIG_H1 - Bmp280Constants.REG_DIG_T1] & 0xff;
+
+            // Second calibration block with the remaining humidity values, 0xE1 - 0xE7.
+            readRegister(Bme280Constants.REG_DIG_H2, calibration, 0, CALIBRATION_LENGTH_H);
+            digH2 = (calibration[0] & 0xff) | (calibration[1] << 8);
+            digH3 = calibration[2] & 0xff;
+            // dig_H4 and dig_H5 are 12 bit values sharing the nibbles of 0xE5; the high bytes are signed.
+            digH4 = (calibration[3] << 4) | (calibration[4] & 0x0f);
+            digH5 = (calibration[5] << 4) | ((calibration[4] & 0xff) >> 4);
+            digH6 = calibration[6];
             humidityMode = SensorMode.ENABLED;
-
-        } else {
-            throw new IllegalStateException("Unrecognized chip ID: " + chipId);
         }
-
-        // Read calibration values.
-
-        digT1 = readRegisterU16(Bmp280Constants.REG_DIG_T1);
-        digT2 = readRegisterS16(Bmp280Constants.REG_DIG_T2);
-        digT3 = readRegisterS16(Bmp280Constants.REG_DIG_T3);
-
-        digP1 = readRegisterU16(Bmp280Constants.REG_DIG_P1);
-        digP2 = readRegisterS16(Bmp280Constants.REG_DIG_P2);
-        digP3 = readRegisterS16(Bmp280Constants.REG_DIG_P3);
-        digP4 = readRegisterS16(Bmp280Constants.REG_DIG_P4);
-        digP5 = readRegisterS16(Bmp280Constants.REG_DIG_P5);
-        digP6 = readRegisterS16(Bmp280Constants.REG_DIG_P6);
-        digP7 = readRegisterS16(Bmp280Constants.REG_DIG_P7);
-        digP8 = readRegisterS16(Bmp280Constants.REG_DIG_P8);
-        digP9 = readRegisterS16(Bmp280Constants.REG_DIG_P9);
     }
 
     /**
      * Returns the instant when the chip will be ready for new commands after processing the last command.
      * This can be used for scheduling purposes, avoiding forced sleep time when the next command is issued.
      */
+    @Override
     public Instant getBusyUntil() {
         return busyUntil;
     }
@@ -272,6 +278,14 @@ public class Bmx280Driver implements Sensor {
         this.humidityMode = mode;
     }
 
+    /**
+     * If enabled, measurements are compensated using the fixed point integer formulas from the datasheet instead of
+     * the floating point formulas. The results differ only slightly (within the resolution of the sensor).
+     */
+    public void setIntegerCompensation(boolean integerCompensation) {
+        this.integerCompensation = integerCompensation;
+    }
+
     /**
      * Read measure registers 0xF7 - 0xFC in single read to ensure all the data pertains to
      * a single measurement. The result is returned in a "Measurement" instance.
@@ -282,70 +296,32 @@ public class Bmx280Driver implements Sensor {
      * Blocking can be avoided by setting FORCED or NORMAL mode ahead of time.
      */
     public Measurement readMeasurement() {
-        if (measurementMode == MeasurementMode.SLEEPING) {
-            setMeasurementMode(MeasurementMode.FORCED);
-        }
-
-        materializeDelay();
-
-        readRegister(Bmp280Constants.PRESS_MSB, ioBuf, 0, model == Model.BME280 ? 8 : 6);
-
-        float adcT = ((ioBuf[3] & 0xFF) << 12) + ((ioBuf[4] & 0xFF) << 4) + (ioBuf[5] & 0xFF);
-        float adcP = ((ioBuf[0] & 0xFF) << 12) + ((ioBuf[1] & 0xFF) << 4) + (ioBuf[2] & 0xFF);
-
-        // Temperature
-        double var1 = (adcT / 16384.0 - digT1 / 1024.0) * digT2;
-        double var2 = ((adcT / 131072.0 - digT1 / 8192.0) *
-                    (adcT / 131072.0 - digT1 / 8192.0)) * digT3;
-        double tFine = var1 + var2;
-        double temperature = tFine / 5120.0;
+        readAdcValues();
+        compensate(compensated);
+        return new Measurement((float) compensated[0], (float) compensated[1], (float) compensated[2]);
+    }
 
-        // Pressure
-        double pressure = Double.NaN;
-        if (pressureMode != SensorMode.DISABLED) {
-            var1 = (tFine / 2.0) - 64000.0;
-            var2 = var1 * var1 * digP6 / 32768.0;
-            var2 = var2 + var1 * digP5 * 2.0;
-            var2 = (var2 / 4.0) + (digP4 * 65536.0);
-            var1 = (digP3 * var1 * var1 / 524288.0 + digP2 * var1) / 524288.0;
-            var1 = (1.0 + var1 / 32768.0) * digP1;
-            if (var1 == 0.0) {
-                pressure = 0;   // // avoid exception caused by division by zero
-            } else {
-                pressure = 1048576.0 - adcP;
-                pressure = (pressure - (var2 / 4096.0)) * 6250.0 / var1;
-                var1 = digP9 * pressure * pressure / 2147483648.0;
-                var2 = pressure * digP8 / 32768.0;
-                pressure = pressure + (var1 + var2 + digP7) / 16.0;
-           }
-        }
-        float adcH = Float.NaN;
-        double humidity = Double.NaN;
-        if (model == Model.BME280 && humidityMode != SensorMode.DISABLED) {
-            // Humidity
-
-            adcH = ((ioBuf[6] & 0xFF) << 8) | (ioBuf[7] & 0xFF);
-
-            double varH = tFine - 76800.0;
-            varH = (adcH - (digH4 * 64.0 + digH5 / 16384.0 *
-                    varH)) * (digH2 / 65536.0 * (1.0 + digH6 /
-                    67108864.0 * varH *
-                    (1.0 + digH3 / 67108864.0 * varH)));
-            varH = varH * (1.0 - digH1 * varH / 524288.0);
-
-            if (varH > 100.0) {
-                varH = 100.0;
-            } else if (varH < 0.0) {
-                varH = 0.0;
-            }
-            humidity = varH;
-        }
+    /**
+     * Reads a measurement like readMeasurement(), storing temperature, pressure and humidity (BME 280 only) in the
+     * given array without allocating any objects. Disabled values are set to NaN.
+     */
+    @Override
+    public void readMeasurement(double[] values) {
+        readAdcValues();
+        compensate(values);
+    }
 
-        if (measurementMode == MeasurementMode.FORCED) {
-            measurementMode = MeasurementMode.SLEEPING;
+    /**
+     * Reads a measurement like readMeasurement(), storing the uncompensated ADC values for temperature, pressure and
+     * humidity (BME 280 only) in the given array.
+     */
+    public void readRawMeasurement(int[] values) {
+        readAdcValues();
+        values[0] = adcT;
+        values[1] = adcP;
+        if (model == Model.BME280) {
+            values[2] = adcH;
         }
-
-        return new Measurement((float) temperature, (float) pressure, (float) humidity);
     }
 
     /**
@@ -411,13 +387,135 @@ public class Bmx280Driver implements Sensor {
         return ioBuf[0] & 0xFF;
     }
 
-    private int readRegisterS16(int register) {
-        readRegister(register, ioBuf, 0, 2);
-        return (ioBuf[0] & 0xFF) | (ioBuf[1] << 8);
+    /** Returns the signed little endian 16 bit value at the given register from the 0x88 calibration block. */
+    private static int s16(byte[] calibration, int register) {
+        int offset = register - Bmp280Constants.REG_DIG_T1;
+        return (calibration[offset] & 0xFF) | (calibration[offset + 1] << 8);
+    }
+
+    /** Returns the unsigned little endian 16 bit value at the given register from the 0x88 calibration block. */
+    private static int u16(byte[] calibration, int register) {
+        return s16(calibration, register) & 0xFFFF;
+    }
+
+    /**
+     * Handles the measurement mode and reads the raw ADC values of a single measurement into adcT, adcP and adcH.
+     */
+    private void readAdcValues() {
+        if (measurementMode == MeasurementMode.SLEEPING) {
+            setMeasurementMode(MeasurementMode.FORCED);
+        }
+
+        materializeDelay();
+
+        readRegister(Bmp280Constants.PRESS_MSB, ioBuf, 0, model == Model.BME280 ? 8 : 6);
+
+        adcP = ((ioBuf[0] & 0xFF) << 12) | ((ioBuf[1] & 0xFF) << 4) | ((ioBuf[2] & 0xFF) >> 4);
+        adcT = ((ioBuf[3] & 0xFF) << 12) | ((ioBuf[4] & 0xFF) << 4) | ((ioBuf[5] & 0xFF) >> 4);
+        adcH = model == Model.BME280 ? ((ioBuf[6] & 0xFF) << 8) | (ioBuf[7] & 0xFF) : 0;
+
+        if (measurementMode == MeasurementMode.FORCED) {
+            measurementMode = MeasurementMode.SLEEPING;
+        }
+    }
+
+    /** Stores the compensated temperature, pressure and humidity (BME 280 only) for the ADC values in values. */
+    private void compensate(double[] values) {
+        boolean pressureEnabled = pressureMode != SensorMode.DISABLED;
+        boolean humidityEnabled = model == Model.BME280 && humidityMode != SensorMode.DISABLED;
+        if (integerCompensation) {
+            int tFine = integerTFine();
+            values[0] = ((tFine * 5 + 128) >> 8) / 100.0;
+            values[1] = pressureEnabled ? integerPressure(tFine) / 256.0 : Double.NaN;
+            if (model == Model.BME280) {
+                values[2] = humidityEnabled ? integerHumidity(tFine) / 1024.0 : Double.NaN;
+            }
+            return;
+        }
+
+        // Temperature
+        double var1 = (adcT / 16384.0 - digT1 / 1024.0) * digT2;
+        double var2 = ((adcT / 131072.0 - digT1 / 8192.0) *
+                    (adcT / 131072.0 - digT1 / 8192.0)) * digT3;
+        double tFine = var1 + var2;
+        values[0] = tFine / 5120.0;
+
+        // Pressure
+        double pressure = Double.NaN;
+        if (pressureEnabled) {
+            var1 = (tFine / 2.0) - 64000.0;
+            var2 = var1 * var1 * digP6 / 32768.0;
+            var2 = var2 + var1 * digP5 * 2.0;
+            var2 = (var2 / 4.0) + (digP4 * 65536.0);
+            var1 = (digP3 * var1 * var1 / 524288.0 + digP2 * var1) / 524288.0;
+            var1 = (1.0 + var1 / 32768.0) * digP1;
+            if (var1 == 0.0) {
+                pressure = 0;   // // avoid exception caused by division by zero
+            } else {
+                pressure = 1048576.0 - adcP;
+                pressure = (pressure - (var2 / 4096.0)) * 6250.0 / var1;
+                var1 = digP9 * pressure * pressure / 2147483648.0;
+                var2 = pressure * digP8 / 32768.0;
+                pressure = pressure + (var1 + var2 + digP7) / 16.0;
+           }
+        }
+        values[1] = pressure;
+
+        if (model == Model.BME280) {
+            double humidity = Double.NaN;
+            if (humidityEnabled) {
+                double varH = tFine - 76800.0;
+                varH = (adcH - (digH4 * 64.0 + digH5 / 16384.0 *
+                        varH)) * (digH2 / 65536.0 * (1.0 + digH6 /
+                        67108864.0 * varH *
+                        (1.0 + digH3 / 67108864.0 * varH)));
+                varH = varH * (1.0 - digH1 * varH / 524288.0);
+
+                if (varH > 100.0) {
+                    varH = 100.0;
+                } else if (varH < 0.0) {
+                    varH = 0.0;
+                }
+                humidity = varH;
+            }
+            values[2] = humidity;
+        }
+    }
+
+    // Fixed point compensation, as specified in sections 4.2.3 and 8.2 of the datasheet.
+
+    private int integerTFine() {
+        int var1 = (((adcT >> 3) - (digT1 << 1)) * digT2) >> 11;
+        int var2 = (((((adcT >> 4) - digT1) * ((adcT >> 4) - digT1)) >> 12) * digT3) >> 14;
+        return var1 + var2;
     }
 
-    private int readRegisterU16(int register) {
-        return readRegisterS16(register) & 0xFFFF;
+    /** Returns the pressure in Pa as unsigned Q24.8 value. */
+    private long integerPressure(int tFine) {
+        long var1 = (long) tFine - 128000;
+        long var2 = var1 * var1 * digP6;
+        var2 = var2 + ((var1 * digP5) << 17);
+        var2 = var2 + (((long) digP4) << 35);
+        var1 = ((var1 * var1 * digP3) >> 8) + ((var1 * digP2) << 12);
+        var1 = ((1L << 47) + var1) * digP1 >> 33;
+        if (var1 == 0) {
+            return 0;  // Avoid division by zero
+        }
+        long p = 1048576 - adcP;
+        p = (((p << 31) - var2) * 3125) / var1;
+        var1 = (digP9 * (p >> 13) * (p >> 13)) >> 25;
+        var2 = (digP8 * p) >> 19;
+        return ((p + var1 + var2) >> 8) + (((long) digP7) << 4);
+    }
+
+    /** Returns the relative humidity in % as unsigned Q22.10 value. */
+    private int integerHumidity(int tFine) {
+        int v = tFine - 76800;
+        v = ((((adcH << 14) - (digH4 << 20) - (digH5 * v)) + 16384) >> 15)
+                * (((((((v * digH6) >> 10) * (((v * digH3) >> 11) + 32768)) >> 10) + 2097152) * digH2 + 8192) >> 14);
+        v = v - (((((v >> 15) * (v >> 15)) >> 7) * digH1) >> 4);
+        v = Math.max(0, Math.min(v, 419430400));
+        return v >> 12;
     }
 
     private void writeRegister(int register, int value) {
@@ -429,16 +527,6 @@ public class Bmx280Driver implements Sensor {
         io.write(ioBuf, 0, 2);
     }
 
-    @Override
-    public void readMeasurement(double[] values) {
-        Measurement measurement = readMeasurement();
-        values[0] = measurement.temperature;
-        values[1] = measurement.pressure;
-        if (model == Model.BME280) {
-            values[2] = measurement.humidity;
-        }
-    }
-
     // Nested types
 
     public static class Measurement {
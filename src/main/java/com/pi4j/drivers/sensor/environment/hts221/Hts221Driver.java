@@ -22,7 +22,8 @@ public class Hts221Driver implements Sensor {
             .addValue(SensorDescriptor.Kind.HUMIDITY)
             .addValue(SensorDescriptor.Kind.TEMPERATURE)
             .addI2cAddress(I2C_ADDRESS)
-            .setI2cSensorDetector(i2c -> i2c.readRegister(Register.WHO_AM_I) == WHO_AM_I_VALUE ? new Hts221Driver(i2c) : null)
+            .setI2cIdRegister(Register.WHO_AM_I, WHO_AM_I_VALUE)
+            .setI2cSensorDetector(Hts221Driver::new)
             .build();
 
     private static final int STATUS_TEMPERATURE_AVAILABLE_MASK = 1;
@@ -20,7 +20,8 @@ public class Lps25hDriver implements Sensor {
             .addValue(SensorDescriptor.Kind.PRESSURE)
             .addValue(SensorDescriptor.Kind.TEMPERATURE)
             .addI2cAddress(I2C_ADDRESS)
-            .setI2cSensorDetector(i2c -> i2c.readRegister(Register.WHO_AM_I) == WHO_AM_I_VALUE ? new Lps25hDriver(i2c) : null)
+            .setI2cIdRegister(Register.WHO_AM_I, WHO_AM_I_VALUE)
+            .setI2cSensorDetector(Lps25hDriver::new)
             .build();
 
     private static final int STATUS_TEMPERATURE_AVAILABLE_MASK = 1;
@@ -391,6 +391,7 @@ public class Scd4xDriver implements Sensor {
      * command and is ready to process commands again. This is limited to configuration / state command processing and
      * does not denote when a measurement will be available
      */
+    @Override
     public Instant getBusyUntil() {
         return delay.getBusyUntil();
     }
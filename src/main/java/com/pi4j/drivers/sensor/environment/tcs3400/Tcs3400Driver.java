@@ -27,7 +27,8 @@ public class Tcs3400Driver implements Sensor {
             .addValue(SensorDescriptor.Kind.LIGHT_BLUE)
             .addI2cAddress(I2C_ADDRESS)
             .addI2cAddress(I2C_ADDRESS_TCS34007)
-            .setI2cSensorDetector(i2c -> i2c.readRegister(Register.ID) == ID_TCS34001_34005 || i2c.readRegister(Register.ID) == ID_TCS34003_34007 ? new Tcs3400Driver(i2c) : null)
+            .setI2cIdRegister(Register.ID, ID_TCS34001_34005, ID_TCS34003_34007)
+            .setI2cSensorDetector(Tcs3400Driver::new)
             .build();
 
 
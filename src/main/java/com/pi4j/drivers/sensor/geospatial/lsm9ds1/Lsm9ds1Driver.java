@@ -32,7 +32,8 @@ public class Lsm9ds1Driver implements Sensor {
             .addValue(SensorDescriptor.Kind.ANGULAR_VELOCITY_Z)
             .addI2cAddress(I2C_ADDRESS_0)
             .addI2cAddress(I2C_ADDRESS_1)
-            .setI2cSensorDetector(i2c -> i2c.readRegister(Register.WHO_AM_I) == WHO_AM_I_VALUE ? new Lsm9ds1Driver(i2c) : null)
+            .setI2cIdRegister(Register.WHO_AM_I, WHO_AM_I_VALUE)
+            .setI2cSensorDetector(Lsm9ds1Driver::new)
             .build();
 
 
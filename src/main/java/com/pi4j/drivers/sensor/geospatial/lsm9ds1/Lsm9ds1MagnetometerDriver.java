@@ -29,7 +29,8 @@ public class Lsm9ds1MagnetometerDriver implements Sensor {
             .addValue(SensorDescriptor.Kind.MAGNETIC_FIELD_Z)
             .addI2cAddress(I2C_ADDRESS_0)
             .addI2cAddress(I2C_ADDRESS_1)
-            .setI2cSensorDetector(i2c -> i2c.readRegister(Register.WHO_AM_I_M) == WHO_AM_I_VALUE ? new Lsm9ds1MagnetometerDriver(i2c) : null)
+            .setI2cIdRegister(Register.WHO_AM_I_M, WHO_AM_I_VALUE)
+            .setI2cSensorDetector(Lsm9ds1MagnetometerDriver::new)
             .build();
 
 
@@ -0,0 +1,66 @@
+package com.pi4j.drivers;
+
+import com.pi4j.io.SerialCircuitIO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Fake I2C device that records write transactions and answers register reads from registerValues, using the
+ * first written byte as the register address. If the device is not present, all transactions fail, as they would
+ * for an address without a responding device.
+ */
+public class FakeI2C implements SerialCircuitIO {
+
+    // Allow tests direct access.
+    public final byte[] registerValues = new byte[256];
+    public boolean present = true;
+    public boolean closed;
+
+    private final List<byte[]> writes = new ArrayList<>();
+    private int readCount;
+
+    @Override
+    public synchronized void writeThenRead(byte[] writeData, int writeOffset, int writeLength, int delay, byte[] readData, int readOffset, int readLength) {
+        if (!present) {
+            throw new IllegalStateException("No device");
+        }
+        if (readLength > 0 && readData != null) {
+            int register = writeLength > 0 ? writeData[writeOffset] & 0xff : 0;
+            System.arraycopy(registerValues, register, readData, readOffset, readLength);
+            readCount++;
+        } else if (writeLength > 0) {
+            writes.add(Arrays.copyOfRange(writeData, writeOffset, writeOffset + writeLength));
+        }
+    }
+
+    /** Returns the data of the write transactions so far. */
+    public synchronized List<byte[]> getWrites() {
+        return new ArrayList<>(writes);
+    }
+
+    /** Returns the write transactions so far as hex strings. */
+    public synchronized List<String> getWritesHex() {
+        List<String> result = new ArrayList<>();
+        for (byte[] write : writes) {
+            result.add(HexFormat.of().formatHex(write));
+        }
+        return result;
+    }
+
+    public synchronized void clearWrites() {
+        writes.clear();
+    }
+
+    /** Returns the number of read transactions so far. */
+    public synchronized int getReadCount() {
+        return readCount;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,168 @@
+package com.pi4j.drivers.display;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BitmapFontTest {
+
+    @Test
+    public void testDenseAndSparseLookup() {
+        BitmapFont font = new BitmapFont(4, 4);
+        font.addCharacter(0x2603, 1L);
+        font.addCharacter('A', 2L);
+        font.addCharacter(0x20AC, 3L);
+        font.addCharacter(0x1F600, 4L);
+
+        assertTrue(font.getGlyph('A').getPixel(2, 3));
+        assertTrue(font.getGlyph(0x2603).getPixel(3, 3));
+        assertNull(font.getGlyph('B'));
+        assertNull(font.getGlyph(0x2604));
+        assertNull(font.getGlyph(-1));
+        assertArrayEquals(new int[] {'A', 0x20AC, 0x2603, 0x1F600}, font.getCodepoints());
+
+        // Replacing an existing sparse glyph
+        font.addCharacter(0x20AC, 4L);
+        assertTrue(font.getGlyph(0x20AC).getPixel(1, 3));
+        assertEquals(4, font.getCodepoints().length);
+    }
+
+    @Test
+    public void testBuiltInFontIncludesEuroSign() {
+        BitmapFont font = BitmapFont.get5x8Font();
+        assertSame(font.getGlyph(0x20AC), font.getGlyph(0x20AC));
+        assertTrue(font.getGlyph(0x20AC).getPixel(1, 1));
+        assertTrue(BitmapFont.get5x10Font().getGlyph(0x20AC) != null);
+    }
+
+    @Test
+    public void testLoadPsf1WithUnicodeTable() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // Magic, mode (has unicode table), height
+        out.write(new byte[] {0x36, 0x04, 0x02, 8});
+        for (int i = 0; i < 256; i++) {
+            // Glyph i has a single pixel in row 0 at column i % 8.
+            out.write(0x80 >> (i % 8));
+            out.write(new byte[7]);
+        }
+        for (int i = 0; i < 256; i++) {
+            if (i == 1) {
+                // Glyph 1 is mapped to U+263A
+                out.write(new byte[] {0x3a, 0x26});
+            } else if (i >= 32) {
+                out.write(new byte[] {(byte) i, 0});
+            }
+            out.write(new byte[] {(byte) 0xff, (byte) 0xff});
+        }
+
+        BitmapFont font = BitmapFont.loadPsf(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(8, font.getCellWidth());
+        assertEquals(8, font.getCellHeight());
+        assertTrue(font.getGlyph('A').getPixel('A' % 8, 0));
+        assertFalse(font.getGlyph('A').getPixel('A' % 8, 1));
+        assertTrue(font.getGlyph(0x263A).getPixel(1, 0));
+        assertNull(font.getGlyph(1));
+    }
+
+    @Test
+    public void testLoadPsf2WithoutUnicodeTable() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeIntLe(out, 0x864ab572);
+        writeIntLe(out, 0);  // version
+        writeIntLe(out, 32); // header size
+        writeIntLe(out, 0);  // flags
+        writeIntLe(out, 2);  // glyph count
+        writeIntLe(out, 7);  // bytes per glyph
+        writeIntLe(out, 7);  // height
+        writeIntLe(out, 5);  // width
+        out.write(new byte[] {(byte) 0b10001000, 0, 0, 0, 0, 0, (byte) 0b00100000});
+        out.write(new byte[7]);
+
+        BitmapFont font = BitmapFont.loadPsf(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(5, font.getCellWidth());
+        assertEquals(7, font.getCellHeight());
+        assertTrue(font.getGlyph(0).getPixel(0, 0));
+        assertTrue(font.getGlyph(0).getPixel(4, 0));
+        assertTrue(font.getGlyph(0).getPixel(2, 6));
+        assertFalse(font.getGlyph(0).getPixel(1, 0));
+        assertFalse(font.getGlyph(1).getPixel(0, 0));
+    }
+
+    @Test
+    public void testLoadPsf1With8x16Glyphs() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // Magic, mode (256 glyphs, no unicode table), height
+        out.write(new byte[] {0x36, 0x04, 0x00, 16});
+        for (int i = 0; i < 256; i++) {
+            // Glyph i has a pixel at column 3 in the top row, and one at column i % 8 in the bottom row.
+            out.write(0x10);
+            out.write(new byte[14]);
+            out.write(0x80 >> (i % 8));
+        }
+
+        BitmapFont font = BitmapFont.loadPsf(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(8, font.getCellWidth());
+        assertEquals(16, font.getCellHeight());
+        BitmapFont.Glyph glyph = font.getGlyph('F');
+        assertEquals(8, glyph.getWidth());
+        assertTrue(glyph.getPixel(3, 0));
+        assertTrue(glyph.getPixel('F' % 8, 15));
+        assertFalse(glyph.getPixel(2, 0));
+        assertFalse(glyph.getPixel(3, 15));
+        assertFalse(glyph.getPixel('F' % 8, 14));
+
+        // Trimming two empty columns shifts the pixels in both bitmap words.
+        BitmapFont.Glyph proportional = font.toProportional().getGlyph('F');
+        assertEquals(5, proportional.getWidth());
+        assertTrue(proportional.getPixel(1, 0));
+        assertTrue(proportional.getPixel('F' % 8 - 2, 15));
+        assertFalse(proportional.getPixel(3, 0));
+    }
+
+    @Test
+    public void testLoadBdf() throws IOException {
+        String bdf = """
+                STARTFONT 2.1
+                FONT test
+                FONTBOUNDINGBOX 6 8 0 -1
+                CHARS 1
+                STARTCHAR period
+                ENCODING 46
+                DWIDTH 3 0
+                BBX 2 2 1 0
+                BITMAP
+                C0
+                C0
+                ENDCHAR
+                ENDFONT
+                """;
+        BitmapFont font = BitmapFont.loadBdf(new StringReader(bdf));
+        assertEquals(6, font.getCellWidth());
+        assertEquals(8, font.getCellHeight());
+        BitmapFont.Glyph glyph = font.getGlyph('.');
+        assertEquals(3, glyph.getWidth());
+        // The glyph sits on the baseline, one row above the bottom of the cell.
+        assertTrue(glyph.getPixel(1, 5));
+        assertTrue(glyph.getPixel(2, 6));
+        assertFalse(glyph.getPixel(1, 7));
+        assertFalse(glyph.getPixel(0, 6));
+        assertFalse(glyph.getPixel(3, 6));
+    }
+
+    private static void writeIntLe(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >> 8);
+        out.write(value >> 16);
+        out.write(value >> 24);
+    }
+}
@@ -0,0 +1,100 @@
+package com.pi4j.drivers.display.character.hd44780;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Checks the traffic generated by the shadow display RAM, using a recording connection. */
+public class Hd44780ShadowTest {
+
+    private RecordingConnection connection;
+    private Hd44780Driver driver;
+
+    @BeforeEach
+    public void setUp() {
+        connection = new RecordingConnection();
+        driver = new Hd44780Driver(connection, 16, 2);
+        connection.log.clear();
+    }
+
+    @Test
+    public void testUnchangedTextIsNotSent() {
+        driver.writeAt(0, 0, "Hello");
+        assertEquals(List.of("DH", "De", "Dl", "Dl", "Do"), connection.log);
+
+        connection.log.clear();
+        driver.writeAt(0, 0, "Hello");
+        assertEquals(List.of(), connection.log);
+    }
+
+    @Test
+    public void testCursorIsOnlySentForNonContiguousChanges() {
+        driver.update("Temp: 21.5", "Hum: 40%");
+        connection.log.clear();
+
+        driver.update("Temp: 21.7", "Hum: 41%");
+        assertEquals(List.of("C89", "D7", "Cc6", "D1"), connection.log);
+    }
+
+    @Test
+    public void testUpdatePadsRows() {
+        driver.writeAt(0, 1, "abc");
+        connection.log.clear();
+
+        driver.update("", "a");
+        assertEquals(List.of("Cc1", "D ", "D "), connection.log);
+    }
+
+    @Test
+    public void testIdenticalCustomCharacterIsNotUploaded() {
+        driver.uploadCharacter(1, 0x0102040810204080L, 'x');
+        int count = connection.log.size();
+        assertEquals(9, count);
+
+        driver.uploadCharacter(1, 0x0102040810204080L, 'x');
+        assertEquals(count, connection.log.size());
+    }
+
+    @Test
+    public void testAddressIsRestoredAfterCustomCharacterUpload() {
+        driver.writeAt(0, 0, "a");
+        driver.uploadCharacter(1, 0x0102040810204080L, 'x');
+        connection.log.clear();
+
+        driver.write('b');
+        assertEquals(List.of("C81", "Db"), connection.log);
+    }
+
+    @Test
+    public void testInvalidateResendsContent() {
+        driver.writeAt(0, 0, "ab");
+        driver.invalidate();
+        connection.log.clear();
+
+        driver.writeAt(0, 0, "ab");
+        assertEquals(List.of("C80", "Da", "Db"), connection.log);
+    }
+
+    /** Records commands as "C" + hex value and data as "D" + character. */
+    static class RecordingConnection extends AbstractConnection {
+        final List<String> log = new ArrayList<>();
+
+        @Override
+        protected void setBacklight(boolean on) {
+        }
+
+        @Override
+        protected void sendValue(Mode mode, int value) {
+            log.add(mode == Mode.DATA ? "D" + (char) value : "C" + Integer.toHexString(value));
+        }
+
+        @Override
+        protected boolean is8Bit() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.pi4j.drivers.display.character.hd44780;
+
+import com.pi4j.drivers.FakeI2C;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checks the I2C traffic of the backpack connection, using a recording I2C fake. */
+public class I2cBackpackConnectionTest {
+
+    private final FakeI2C i2c = new FakeI2C();
+
+    @Test
+    public void testEachNibbleIsSentAsThreePortValues() {
+        I2cBackpackConnection connection = I2cBackpackConnection.forPcf8574(i2c);
+        connection.sendValue(AbstractConnection.Mode.COMMAND, 0x80);
+        connection.flush();
+
+        // High nibble first; each as data, data with enable (pin 2) high, data with enable low again.
+        assertEquals(List.of("808480" + "000400"), i2c.getWritesHex());
+    }
+
+    @Test
+    public void testRegisterSelectAndBacklightBits() {
+        I2cBackpackConnection connection = I2cBackpackConnection.forPcf8574(i2c);
+        connection.setBacklight(true);
+        connection.sendValue(AbstractConnection.Mode.DATA, 'A');
+        connection.flush();
+
+        // Backlight (pin 3) on its own, then 0x41 with register select (pin 0) and backlight set.
+        assertEquals(List.of("08" + "494d49" + "191d19"), i2c.getWritesHex());
+    }
+
+    @Test
+    public void testInitValuesAreSingleNibbles() {
+        I2cBackpackConnection connection = I2cBackpackConnection.forPcf8574(i2c);
+        connection.sendValue(AbstractConnection.Mode.INIT, 0x03);
+        connection.flush();
+
+        assertEquals(List.of("303430"), i2c.getWritesHex());
+    }
+
+    @Test
+    public void testMcp23008IsConfiguredAndWrittenThroughTheLatchRegister() {
+        I2cBackpackConnection connection = I2cBackpackConnection.forMcp23008(i2c);
+        // SEQOP set in IOCON, so bursts don't advance the register address; all pins outputs.
+        assertEquals(List.of("0520", "0000"), i2c.getWritesHex());
+
+        i2c.clearWrites();
+        connection.setBacklight(true);
+        connection.sendValue(AbstractConnection.Mode.DATA, 0x80);
+        connection.flush();
+
+        // Backlight on pin 7, register select on pin 1, enable on pin 2, D4-D7 on pins 3-6.
+        assertEquals(List.of("0a" + "80" + "c2c6c2" + "828682"), i2c.getWritesHex());
+    }
+
+    @Test
+    public void testLongDelaysFlushTheBatch() {
+        I2cBackpackConnection connection = I2cBackpackConnection.forPcf8574(i2c);
+        connection.sendValue(AbstractConnection.Mode.COMMAND, 0x06);
+        // Covered by the transfer time of the following bytes, even at 400 kHz.
+        connection.setDelayMicros(40);
+        connection.sendValue(AbstractConnection.Mode.COMMAND, 0x0c);
+        assertEquals(List.of(), i2c.getWritesHex());
+
+        // Clearing the display takes longer; the delay needs to start after the values sent so far.
+        connection.setDelayMicros(2000);
+        assertEquals(List.of("000400" + "606460" + "000400" + "c0c4c0"), i2c.getWritesHex());
+    }
+
+    @Test
+    public void testCoveredDelayFollowsTheBusSpeed() {
+        I2cBackpackConnection connection = I2cBackpackConnection.forPcf8574(i2c, 100_000);
+        connection.sendValue(AbstractConnection.Mode.COMMAND, 0x06);
+        // 18 clocks at 100 kHz take 180 us.
+        connection.setDelayMicros(150);
+        connection.flush();
+        assertEquals(List.of("000400" + "606460"), i2c.getWritesHex());
+
+        i2c.clearWrites();
+        connection = I2cBackpackConnection.forPcf8574(i2c);
+        connection.sendValue(AbstractConnection.Mode.COMMAND, 0x06);
+        // At 400 kHz, two bytes take 45 us; five repeated values stretch the gap to 157.5 us.
+        connection.setDelayMicros(150);
+        assertEquals(List.of(), i2c.getWritesHex());
+        connection.flush();
+        assertEquals(List.of("000400" + "606460" + "6060606060"), i2c.getWritesHex());
+    }
+
+    @Test
+    public void testBackToBackCharactersGetTheDataDelay() {
+        Hd44780Driver driver = new Hd44780Driver(I2cBackpackConnection.forPcf8574(i2c), 16, 2);
+        i2c.clearWrites();
+        driver.writeAt(0, 0, "ABC");
+
+        // Find the enable pulses of the data nibbles; the writes are a single burst.
+        assertEquals(1, i2c.getWrites().size());
+        byte[] values = i2c.getWrites().get(0);
+        List<Integer> pulses = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            if ((values[i] & 0x05) == 0x05) {
+                pulses.add(i);
+            }
+        }
+        assertEquals(6, pulses.size());
+
+        // From the falling edge after the low nibble to the next rising edge, at 22.5 us per byte.
+        for (int i = 1; i + 1 < pulses.size(); i += 2) {
+            int gapBytes = pulses.get(i + 1) - (pulses.get(i) + 1);
+            assertTrue(gapBytes * 22.5 >= 2 * (37 + 4), "Gap of " + gapBytes + " bytes after character " + i / 2);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.pi4j.drivers.display.graphics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DirtyRegionTest {
+
+    private static List<String> drain(DirtyRegion region) {
+        List<String> result = new ArrayList<>();
+        region.drain((xMin, yMin, xMax, yMax) -> result.add(xMin + "," + yMin + "-" + xMax + "," + yMax));
+        return result;
+    }
+
+    @Test
+    public void testSingleTileIsBoundingBox() {
+        DirtyRegion region = new DirtyRegion(320, 240);
+        region.add(1, 2, 3, 4);
+        region.add(300, 200, 310, 220);
+
+        assertEquals(List.of("1,2-310,220"), drain(region));
+        assertTrue(region.isEmpty());
+    }
+
+    @Test
+    public void testDistantChangesStaySeparate() {
+        DirtyRegion region = new DirtyRegion(320, 240);
+        region.setTileSize(32, 32);
+        region.add(1, 2, 3, 4);
+        region.add(300, 200, 310, 220);
+
+        assertEquals(List.of("1,2-3,4", "300,200-310,220"), drain(region));
+    }
+
+    @Test
+    public void testAdjacentTilesAreMerged() {
+        DirtyRegion region = new DirtyRegion(320, 240);
+        region.setTileSize(32, 32);
+        region.add(0, 0, 320, 240);
+
+        assertEquals(List.of("0,0-320,240"), drain(region));
+    }
+
+    @Test
+    public void testClipsToDisplayBounds() {
+        DirtyRegion region = new DirtyRegion(100, 100);
+        region.setTileSize(10, 10);
+        region.add(-5, 95, 5, 120);
+
+        assertEquals(List.of("0,95-5,100"), drain(region));
+    }
+
+    @Test
+    public void testTileSizeChangeKeepsModifications() {
+        DirtyRegion region = new DirtyRegion(100, 100);
+        region.setTileSize(10, 10);
+        region.add(5, 5, 6, 6);
+        region.setTileSize(100, 100);
+
+        assertEquals(List.of("5,5-6,6"), drain(region));
+    }
+}
@@ -6,6 +6,8 @@ public class FakeGraphicsDisplayDriver implements GraphicsDisplayDriver {
 
     private final byte[] data;
     private final GraphicsDisplayDescriptor displayInfo;
+    private int transferCount;
+    private int transferredPixelCount;
 
     public FakeGraphicsDisplayDriver(int width, int height, PixelFormat pixelFormat) {
         this.displayInfo = new GraphicsDisplayDescriptor(width, height, pixelFormat);
@@ -18,6 +20,16 @@ public class FakeGraphicsDisplayDriver implements GraphicsDisplayDriver {
         return data;
     }
 
+    /** The number of setPixels calls received so far. */
+    public int getTransferCount() {
+        return transferCount;
+    }
+
+    /** The total number of pixels received via setPixels so far. */
+    public int getTransferredPixelCount() {
+        return transferredPixelCount;
+    }
+
     public void assertPixel(int x, int y, int expectedColor) {
         if (getDisplayInfo().getPixelFormat() != PixelFormat.RGB_888) {
             throw new RuntimeException("AssertPixel is only supported for RGB_888");
@@ -50,6 +62,9 @@ public class FakeGraphicsDisplayDriver implements GraphicsDisplayDriver {
         checkAlignment(x, "x-position");
         checkAlignment(width, "width");
 
+        transferCount++;
+        transferredPixelCount += width * height;
+
         for (int i = 0; i < height; i++) {
             int srcPos = (i * width * pixelFormat.getBitCount() + 7) / 8;
             int dstPos = (((i + y) * getDisplayInfo().getWidth() + x) * pixelFormat.getBitCount() + 7) / 8;
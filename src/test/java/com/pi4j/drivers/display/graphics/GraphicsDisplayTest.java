@@ -1,9 +1,13 @@
 package com.pi4j.drivers.display.graphics;
 
 import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class GraphicsDisplayTest {
 
@@ -54,4 +58,167 @@ public class GraphicsDisplayTest {
         assertEquals(0x22, data[pos+1]);
         assertEquals(0x33, data[pos+2]);
     }
+
+    @Test
+    public void testDirtyTilesOnlyTransferModifiedAreas() {
+        FakeGraphicsDisplayDriver driver = new FakeGraphicsDisplayDriver(100, 100, PixelFormat.RGB_888);
+        GraphicsDisplay display = new GraphicsDisplay(driver);
+        display.setTransferDelayMillis(-1);
+        display.setDirtyTileSize(10, 10);
+
+        display.setPixel(0, 0, 0x112233);
+        display.setPixel(99, 99, 0x445566);
+        display.flush();
+
+        assertEquals(2, driver.getTransferCount());
+        assertEquals(2, driver.getTransferredPixelCount());
+        driver.assertPixel(0, 0, 0x112233);
+        driver.assertPixel(99, 99, 0x445566);
+    }
+
+    @Test
+    public void testDoubleBufferedDrawingDoesNotBlockOnTransfer() throws InterruptedException {
+        CountDownLatch transferStarted = new CountDownLatch(1);
+        CountDownLatch transferReleased = new CountDownLatch(1);
+        FakeGraphicsDisplayDriver driver = new FakeGraphicsDisplayDriver(100, 100, PixelFormat.RGB_888) {
+            @Override
+            public void setPixels(int x, int y, int width, int height, byte[] data) {
+                transferStarted.countDown();
+                try {
+                    transferReleased.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                super.setPixels(x, y, width, height, data);
+            }
+        };
+        GraphicsDisplay display = new GraphicsDisplay(driver);
+        display.setDoubleBuffered(true);
+        display.setTransferDelayMillis(1);
+
+        display.setPixel(10, 10, 0x112233);
+        assertTrue(transferStarted.await(5, TimeUnit.SECONDS));
+
+        // The transfer thread is blocked in the driver; drawing must still be possible.
+        display.setPixel(20, 20, 0x445566);
+        assertEquals(0x445566, display.getPixel(20, 20));
+
+        transferReleased.countDown();
+        display.flush();
+
+        driver.assertPixel(10, 10, 0x112233);
+        driver.assertPixel(20, 20, 0x445566);
+    }
+
+    @Test
+    public void testManualUpdatePolicyCoalescesUntilFlush() {
+        FakeGraphicsDisplayDriver driver = new FakeGraphicsDisplayDriver(100, 100, PixelFormat.RGB_888);
+        GraphicsDisplay display = new GraphicsDisplay(driver);
+        display.setUpdatePolicy(UpdatePolicy.manual());
+
+        display.setPixel(1, 1, 0x112233);
+        display.setPixel(2, 2, 0x445566);
+        display.setPixel(3, 3, 0x778899);
+        assertEquals(0, driver.getTransferCount());
+
+        UpdateStatistics statistics = display.getUpdateStatistics();
+        assertTrue(statistics.isModificationPending());
+        assertEquals(2, statistics.getCoalescedCount());
+
+        display.flush();
+        assertEquals(1, statistics.getTransferCount());
+        assertFalse(statistics.isModificationPending());
+        driver.assertPixel(3, 3, 0x778899);
+    }
+
+    @Test
+    public void testMaxFrameRatePolicyPacesTransfers() {
+        UpdatePolicy policy = UpdatePolicy.maxFrameRate(10);
+        UpdateStatistics statistics = new UpdateStatistics();
+
+        statistics.recordModification(1_000);
+        assertEquals(1_000, policy.getTransferTime(statistics));
+
+        statistics.recordTransferStart(2_000);
+        statistics.recordTransferEnd(3_000);
+        statistics.recordModification(4_000);
+        assertEquals(2_000 + 100_000_000, policy.getTransferTime(statistics));
+    }
+
+    @Test
+    public void testOnlySupersededPostponedFramesAreDropped() {
+        UpdateStatistics statistics = new UpdateStatistics();
+
+        // Postponed twice, then transferred: not dropped.
+        statistics.recordModification(1_000);
+        statistics.recordPostponement();
+        statistics.recordPostponement();
+        statistics.recordTransferStart(2_000);
+        statistics.recordTransferEnd(3_000);
+        assertEquals(0, statistics.getDroppedFrameCount());
+        assertEquals(2, statistics.getPostponementCount());
+
+        // Postponed, then replaced by new content before the transfer: dropped once.
+        statistics.recordModification(4_000);
+        statistics.recordPostponement();
+        statistics.recordModification(5_000);
+        statistics.recordModification(6_000);
+        statistics.recordTransferStart(7_000);
+        assertEquals(1, statistics.getDroppedFrameCount());
+    }
+
+    @Test
+    public void testParallelTransferUpdatesDriversConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        FakeGraphicsDisplayDriver[] drivers = new FakeGraphicsDisplayDriver[2];
+        for (int i = 0; i < drivers.length; i++) {
+            drivers[i] = new FakeGraphicsDisplayDriver(50, 50, PixelFormat.RGB_888) {
+                @Override
+                public void setPixels(int x, int y, int width, int height, byte[] data) {
+                    bothStarted.countDown();
+                    try {
+                        // Only completes if the other driver is updated at the same time.
+                        assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    super.setPixels(x, y, width, height, data);
+                }
+            };
+        }
+        GraphicsDisplay display = new GraphicsDisplay(100, 50);
+        display.setTransferDelayMillis(-1);
+        display.setParallelTransfer(true);
+        display.attachDriver(0, 0, drivers[0], GraphicsDisplay.Rotation.ROTATE_0);
+        display.attachDriver(50, 0, drivers[1], GraphicsDisplay.Rotation.ROTATE_0);
+
+        display.setPixel(10, 10, 0x112233);
+        display.setPixel(60, 10, 0x445566);
+        display.flush();
+
+        drivers[0].assertPixel(10, 10, 0x112233);
+        drivers[1].assertPixel(10, 10, 0x445566);
+    }
+
+    @Test
+    public void testDriverIsFlushedOncePerUpdate() {
+        int[] flushCount = new int[1];
+        FakeGraphicsDisplayDriver driver = new FakeGraphicsDisplayDriver(100, 100, PixelFormat.RGB_888) {
+            @Override
+            public void flush() {
+                assertTrue(getTransferCount() > 0);
+                flushCount[0]++;
+            }
+        };
+        GraphicsDisplay display = new GraphicsDisplay(driver);
+        display.setTransferDelayMillis(-1);
+        display.setDirtyTileSize(10, 10);
+
+        display.setPixel(1, 1, 0x112233);
+        display.setPixel(90, 90, 0x445566);
+        display.flush();
+
+        assertEquals(2, driver.getTransferCount());
+        assertEquals(1, flushCount[0]);
+    }
 }
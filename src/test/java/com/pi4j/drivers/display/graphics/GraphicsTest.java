@@ -0,0 +1,138 @@
+package com.pi4j.drivers.display.graphics;
+
+import com.pi4j.drivers.display.BitmapFont;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GraphicsTest {
+
+    private static GraphicsDisplay createDisplay() {
+        GraphicsDisplay display = new GraphicsDisplay(16, 16);
+        display.setTransferDelayMillis(-1);
+        return display;
+    }
+
+    @Test
+    public void testDrawRgbScaledAndClipped() {
+        GraphicsDisplay display = createDisplay();
+        Graphics graphics = display.getGraphics();
+        int[] data = {0x111111, 0x222222, 0x333333, 0x444444};
+        // Clipping at x = 1 starts in the middle of the first scaled source pixel.
+        graphics.setClip(1, 0, 16, 16);
+        graphics.drawRgb(0, 0, 6, 4, data, 0, 2, 3, 2);
+
+        assertEquals(0, display.getPixel(0, 0));
+        assertEquals(0x111111, display.getPixel(1, 0) & 0xffffff);
+        assertEquals(0x111111, display.getPixel(2, 1) & 0xffffff);
+        assertEquals(0x222222, display.getPixel(3, 0) & 0xffffff);
+        assertEquals(0x222222, display.getPixel(5, 1) & 0xffffff);
+        assertEquals(0x333333, display.getPixel(1, 2) & 0xffffff);
+        assertEquals(0x444444, display.getPixel(5, 3) & 0xffffff);
+        assertEquals(0, display.getPixel(6, 0));
+    }
+
+    @Test
+    public void testDrawImageBlendsAlpha() {
+        GraphicsDisplay display = createDisplay();
+        Graphics graphics = display.getGraphics();
+        graphics.setColor(0xff0000ff);
+        graphics.fillRect(0, 0, 16, 16);
+
+        int[] image = {0x00ff0000, 0xffff0000, 0x80ff0000};
+        graphics.drawImage(0, 0, 3, 1, image, 0, 3, 1, 1);
+
+        assertEquals(0x0000ff, display.getPixel(0, 0) & 0xffffff);
+        assertEquals(0xff0000, display.getPixel(1, 0) & 0xffffff);
+        assertEquals(0x80007f, display.getPixel(2, 0) & 0xffffff);
+    }
+
+    @Test
+    public void testPremultipliedImageMatchesStraightAlpha() {
+        int[] image = {0x40ff8020, 0xc0123456, 0x00ffffff, 0xff654321};
+        int[] premultiplied = image.clone();
+        Graphics.premultiplyAlpha(premultiplied, 0, premultiplied.length);
+
+        GraphicsDisplay straightDisplay = createDisplay();
+        GraphicsDisplay premultipliedDisplay = createDisplay();
+        for (GraphicsDisplay display : new GraphicsDisplay[] {straightDisplay, premultipliedDisplay}) {
+            Graphics graphics = display.getGraphics();
+            graphics.setColor(0xff808080);
+            graphics.fillRect(0, 0, 16, 16);
+        }
+        // Width and height are the scaled size, as in drawRgb().
+        straightDisplay.getGraphics().drawImage(0, 0, 4, 4, image, 0, 2, 2, 2);
+        premultipliedDisplay.getGraphics().drawPremultipliedImage(0, 0, 4, 4, premultiplied, 0, 2, 2, 2);
+        assertEquals(0x808080, straightDisplay.getPixel(4, 0) & 0xffffff);
+        assertEquals(0x808080, premultipliedDisplay.getPixel(0, 4) & 0xffffff);
+
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                int expected = straightDisplay.getPixel(x, y);
+                int actual = premultipliedDisplay.getPixel(x, y);
+                for (int shift = 0; shift < 24; shift += 8) {
+                    // Premultiplication rounds differently, so we allow an off-by-one difference.
+                    assertEquals((expected >> shift) & 0xff, (actual >> shift) & 0xff, 1.0, "at " + x + ", " + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRenderTextMatchesGlyphBitmaps() {
+        GraphicsDisplay display = createDisplay();
+        Graphics graphics = display.getGraphics();
+        graphics.setColor(0xffffffff);
+        graphics.setTextScale(2, 1);
+        BitmapFont font = BitmapFont.get5x8Font();
+
+        int width = graphics.renderText(0, 8, "AB");
+        assertEquals(2 * 2 * font.getCellWidth(), width);
+
+        for (int i = 0; i < 2; i++) {
+            BitmapFont.Glyph glyph = font.getGlyph('A' + i);
+            for (int y = 0; y < 8; y++) {
+                for (int x = 0; x < 2 * font.getCellWidth(); x++) {
+                    int expected = glyph.getPixel(x / 2, y) ? 0xffffff : 0;
+                    int px = i * 2 * font.getCellWidth() + x;
+                    if (px < 16) {
+                        assertEquals(expected, display.getPixel(px, y) & 0xffffff, "at " + px + ", " + y);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRenderCharacterMatchesRenderText() {
+        GraphicsDisplay textDisplay = createDisplay();
+        GraphicsDisplay characterDisplay = createDisplay();
+        for (GraphicsDisplay display : new GraphicsDisplay[] {textDisplay, characterDisplay}) {
+            display.getGraphics().setColor(0xffffffff);
+            display.getGraphics().setClip(2, 0, 10, 16);
+        }
+        int width = textDisplay.getGraphics().renderText(1, 8, "A");
+        assertEquals(width, characterDisplay.getGraphics().renderCharacter(1, 8, 'A'));
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                assertEquals(textDisplay.getPixel(x, y), characterDisplay.getPixel(x, y), "at " + x + ", " + y);
+            }
+        }
+
+        int cellWidth = BitmapFont.get5x8Font().getCellWidth();
+        assertEquals(cellWidth, characterDisplay.getGraphics().renderCharacter(0, 8, -1));
+    }
+
+    @Test
+    public void testRenderTextWithProportionalFont() {
+        GraphicsDisplay display = createDisplay();
+        Graphics graphics = display.getGraphics();
+        BitmapFont font = BitmapFont.get5x8Font(BitmapFont.Option.PROPORTIONAL);
+        graphics.setFont(font);
+
+        int width = graphics.renderText(0, 8, "i!");
+        assertEquals(font.getGlyph('i').getWidth() + font.getGlyph('!').getWidth(), width);
+        assertTrue(width < 2 * font.getCellWidth());
+    }
+}
@@ -0,0 +1,82 @@
+package com.pi4j.drivers.display.graphics;
+
+import com.pi4j.drivers.display.BitmapFont;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GraphicsTextAnimatorTest {
+
+    private static final int WIDTH = 20;
+    private static final int HEIGHT = 10;
+
+    /** Renders the text directly, as a reference for the scrolled strip. */
+    private static GraphicsDisplay renderReference(String text, int offset) {
+        GraphicsDisplay display = new GraphicsDisplay(WIDTH, HEIGHT);
+        display.setTransferDelayMillis(-1);
+        Graphics graphics = display.getGraphics();
+        BitmapFont font = BitmapFont.get5x8Font(BitmapFont.Option.PROPORTIONAL);
+        graphics.setFont(font);
+        graphics.setClip(2, 1, 16, font.getCellHeight());
+        graphics.setColor(Argb32.BLUE);
+        graphics.fillRect(2, 1, 16, font.getCellHeight());
+        graphics.setColor(Argb32.YELLOW);
+        graphics.renderText(2 + offset, 1 + font.getCellHeight(), text);
+        return display;
+    }
+
+    private static int textWidth(BitmapFont font, String text) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            width += font.getGlyph(text.charAt(i)).getWidth();
+        }
+        return width;
+    }
+
+    /** The animator renders with its own font (proportional by default), not with the font of the Graphics. */
+    @Test
+    public void testAnimatorFontIsUsed() {
+        GraphicsDisplay display = new GraphicsDisplay(WIDTH, HEIGHT);
+        display.setTransferDelayMillis(-1);
+        GraphicsTextAnimator animator = new GraphicsTextAnimator(display, "il1", 0, 0, WIDTH);
+
+        BitmapFont proportional = BitmapFont.get5x8Font(BitmapFont.Option.PROPORTIONAL);
+        BitmapFont monospaced = BitmapFont.get5x8Font();
+        int proportionalWidth = textWidth(proportional, "il1");
+        assertTrue(proportionalWidth < textWidth(monospaced, "il1"));
+        assertEquals(proportionalWidth, animator.render());
+
+        animator.setFont(monospaced);
+        assertEquals(textWidth(monospaced, "il1"), animator.render());
+    }
+
+    @Test
+    public void testScrollMatchesDirectRendering() {
+        GraphicsDisplay display = new GraphicsDisplay(WIDTH, HEIGHT);
+        display.setTransferDelayMillis(-1);
+        GraphicsTextAnimator animator = new GraphicsTextAnimator(display, "Pi4J", 2, 1, 16);
+        animator.setForeground(Argb32.YELLOW);
+        animator.setBackground(Argb32.BLUE);
+        animator.setStepPixels(3);
+
+        for (int step = 0; step < 4; step++) {
+            animator.scroll();
+            GraphicsDisplay expected = renderReference("Pi4J", -3 * step);
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    assertEquals(expected.getPixel(x, y), display.getPixel(x, y), "step " + step + " at " + x + ", " + y);
+                }
+            }
+        }
+
+        animator.setText("Hi");
+        animator.render();
+        GraphicsDisplay expected = renderReference("Hi", -12);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(expected.getPixel(x, y), display.getPixel(x, y), "at " + x + ", " + y);
+            }
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.pi4j.drivers.display.graphics;
 
+import java.nio.ByteBuffer;
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class PixelFormatTest {
@@ -117,4 +121,78 @@ public class PixelFormatTest {
         assertEquals((byte) 0b11111_000, target[2]);
         assertEquals((byte) 0b000_11111, target[3]);
     }
+
+    @Test
+    public void testWriteRgbArrayMonochrome() {
+        byte[] target = new byte[] { 0, (byte) 0xff };
+
+        int offset = PixelFormat.MONOCHROME.writeRgb(
+                new int[] { 0xffffff, 0, 0xffffff, 0xffffff, 0, 0, 0, 0xffffff, 0, 0 }, 0, target, 0, 10);
+
+        assertEquals(10, offset);
+        assertEquals((byte) 0b1011_0001, target[0]);
+        assertEquals((byte) 0b0011_1111, target[1]);
+    }
+
+    @Test
+    public void testWriteRgbXrgb8888Le() {
+        byte[] target = new byte[8];
+        int offset = PixelFormat.XRGB_8888_LE.writeRgb(new int[] { 0x112233, 0xaabbcc }, 0, target, 0, 2);
+
+        assertEquals(64, offset);
+        assertArrayEquals(new byte[] { 0x33, 0x22, 0x11, 0, (byte) 0xcc, (byte) 0xbb, (byte) 0xaa, 0 }, target);
+    }
+
+    /** Checks the specialized bulk conversions against the per-pixel conversion for all formats. */
+    @Test
+    public void testWriteRgbArrayMatchesPerPixelConversion() {
+        Random random = new Random(42);
+        int[] src = new int[37];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = random.nextInt();
+        }
+        for (PixelFormat format : PixelFormat.values()) {
+            for (int startPixel : new int[] { 0, 1, 3 }) {
+                int dstBitOffset = startPixel * format.getBitCount();
+                byte[] expected = new byte[(src.length * 32 + dstBitOffset) / 8 + 2];
+                random.nextBytes(expected);
+                byte[] actual = expected.clone();
+
+                int bitOffset = dstBitOffset;
+                for (int i = 0; i < src.length; i += 2) {
+                    bitOffset += format.fillRgb(expected, bitOffset, 1, src[i]);
+                }
+                int written = format.writeRgb(src, 0, 2, actual, dstBitOffset, (src.length + 1) / 2);
+
+                assertEquals(bitOffset - dstBitOffset, written, format.name());
+                assertArrayEquals(expected, actual, format + " at offset " + dstBitOffset);
+            }
+        }
+    }
+
+    @Test
+    public void testWriteRgbDirectBufferMatchesArray() {
+        Random random = new Random(7);
+        int[] src = new int[29];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = random.nextInt();
+        }
+        for (PixelFormat format : PixelFormat.values()) {
+            for (int startPixel : new int[] { 0, 1, 3 }) {
+                int dstBitOffset = startPixel * format.getBitCount();
+                byte[] expected = new byte[(src.length * 32 + dstBitOffset) / 8 + 2];
+                random.nextBytes(expected);
+                ByteBuffer direct = ByteBuffer.allocateDirect(expected.length);
+                direct.put(expected);
+
+                format.writeRgb(src, 0, 1, expected, dstBitOffset, src.length);
+                format.writeRgb(src, 0, 1, direct, dstBitOffset, src.length);
+
+                byte[] actual = new byte[expected.length];
+                direct.clear();
+                direct.get(actual);
+                assertArrayEquals(expected, actual, format + " at offset " + dstBitOffset);
+            }
+        }
+    }
 }
@@ -4,6 +4,11 @@ import com.pi4j.context.Context;
 import com.pi4j.drivers.display.graphics.AbstractGraphicsDisplayDriverTest;
 import com.pi4j.drivers.display.graphics.GraphicsDisplayDriver;
 import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 
 public class JFrameGraphicsDriverTest extends AbstractGraphicsDisplayDriverTest {
     @Override
@@ -16,4 +21,20 @@ public class JFrameGraphicsDriverTest extends AbstractGraphicsDisplayDriverTest
             throw new RuntimeException(e);
         }
     }
+
+    @Test
+    public void testConvertRgb888() {
+        byte[] src = new byte[3 * 20];
+        new Random(0).nextBytes(src);
+        for (int count = 0; count <= 13; count++) {
+            int[] expected = new int[count + 2];
+            int[] actual = new int[count + 2];
+            for (int i = 0; i < count; i++) {
+                int address = 3 + 3 * i;
+                expected[i + 1] = (src[address] & 0xFF) << 16 | (src[address + 1] & 0xFF) << 8 | (src[address + 2] & 0xFF);
+            }
+            JFrameGraphicsDriver.convertRgb888(src, 3, actual, 1, count);
+            assertArrayEquals(expected, actual, "count: " + count);
+        }
+    }
 }
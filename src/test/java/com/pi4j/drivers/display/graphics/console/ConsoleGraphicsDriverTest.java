@@ -4,6 +4,12 @@ import com.pi4j.context.Context;
 import com.pi4j.drivers.display.graphics.AbstractGraphicsDisplayDriverTest;
 import com.pi4j.drivers.display.graphics.GraphicsDisplayDriver;
 import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class ConsoleGraphicsDriverTest extends AbstractGraphicsDisplayDriverTest {
     @Override
@@ -16,4 +22,43 @@ public class ConsoleGraphicsDriverTest extends AbstractGraphicsDisplayDriverTest
             throw new RuntimeException(e);
         }
     }
+
+    @Test
+    public void testOnlyChangedCellsAreEmitted() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ConsoleGraphicsDriver driver = new ConsoleGraphicsDriver(2, 2, false, out);
+        byte[] red = {(byte) 255, 0, 0, (byte) 255, 0, 0, (byte) 255, 0, 0, (byte) 255, 0, 0};
+
+        driver.setPixels(0, 0, 2, 2, red);
+        driver.flush();
+        assertEquals("\u001b7\u001b[1;1H\u001b[48;2;255;0;0m  \u001b[0m\u001b8", output(out));
+
+        // No changes, no output.
+        driver.setPixels(0, 0, 2, 2, red);
+        driver.flush();
+        assertEquals("", output(out));
+
+        driver.setPixels(1, 1, 1, 1, new byte[] {0, 0, (byte) 255});
+        driver.flush();
+        assertEquals("\u001b7\u001b[1;2H\u001b[48;2;255;0;0;38;2;0;0;255m▄\u001b[0m\u001b8", output(out));
+    }
+
+    @Test
+    public void testRenderOnClose() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ConsoleGraphicsDriver driver = new ConsoleGraphicsDriver(2, 1, true, out);
+        driver.setPixels(0, 0, 2, 1, new byte[] {0, (byte) 255, 0, 0, (byte) 255, 0});
+        driver.flush();
+        assertEquals("", output(out));
+
+        driver.close();
+        // Odd heights are padded with black.
+        assertEquals("\u001b[48;2;0;255;0;38;2;0;0;0m▄▄\u001b[0m\n", output(out));
+    }
+
+    private static String output(ByteArrayOutputStream out) {
+        String result = out.toString(StandardCharsets.UTF_8);
+        out.reset();
+        return result;
+    }
 }
@@ -0,0 +1,201 @@
+package com.pi4j.drivers.display.graphics.epaper;
+
+import com.pi4j.drivers.display.graphics.PixelFormat;
+import com.pi4j.io.IODataWriter;
+import com.pi4j.io.ListenableOnOffRead;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EpaperDriverTest {
+
+    /** Commands ("C" + hex code), data ("D" + hex bytes), windows and update modes, in order. */
+    private final List<String> log = Collections.synchronizedList(new ArrayList<>());
+    private final ListenableOnOffRead.Impl busy = new ListenableOnOffRead.Impl(false);
+    private final ListenableOnOffRead.Impl dc = new ListenableOnOffRead.Impl(false);
+    private final FakeController controller = new FakeController();
+    /** A model of the controller RAMs (3 bytes per row), written through the current window. */
+    private final byte[] bwRam = new byte[12];
+    private final byte[] redRam = new byte[12];
+    private int[] window = {0, 0, 23, 3};
+    private int ramPosition;
+    private TestDriver driver;
+
+    @BeforeEach
+    public void setUp() {
+        driver = new TestDriver();
+    }
+
+    /** Logs the SPI traffic, using the state of the DC pin to tell commands from data. */
+    class FakeController implements IODataWriter {
+        private int command;
+
+        @Override
+        public int write(byte[] data, int offset, int length) {
+            if (!dc.isOn()) {
+                command = data[offset] & 0xff;
+                log.add("C" + Integer.toHexString(command));
+            } else {
+                log.add("D" + HexFormat.of().formatHex(data, offset, offset + length));
+                if (command == 0x24 || command == 0x26) {
+                    writeRam(command == 0x24 ? bwRam : redRam, data, offset, length);
+                }
+            }
+            return length;
+        }
+    }
+
+    private void writeRam(byte[] ram, byte[] data, int offset, int length) {
+        int windowBytes = (window[2] - window[0] + 1) / 8;
+        for (int i = 0; i < length; i++) {
+            int row = window[1] + ramPosition / windowBytes;
+            ram[row * 3 + window[0] / 8 + ramPosition % windowBytes] = data[offset + i];
+            ramPosition++;
+        }
+    }
+
+    /**
+     * Waits for the refresh triggered by the falling BUSY edge, which runs on a separate thread. The activation is
+     * the last command sent by the refresh.
+     */
+    private void awaitActivation() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!log.contains("C20")) {
+            assertTrue(System.currentTimeMillis() < deadline, "No refresh after BUSY fell");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testFirstUpdateIsFullThenPartial() {
+        driver.setPixels(8, 2, 8, 1, new byte[] {(byte) 0xf0});
+        driver.flush();
+        assertEquals(List.of(
+                "MFULL", "W8,2,15,2", "C24", "Df0", "W8,2,15,2", "C26", "Df0", "C20"), log);
+
+        log.clear();
+        driver.setPixels(8, 2, 8, 1, new byte[] {(byte) 0x0f});
+        driver.flush();
+        // The previous image goes to the red RAM.
+        assertEquals(List.of(
+                "MPARTIAL", "W8,2,15,2", "C26", "Df0", "W8,2,15,2", "C24", "D0f", "C20"), log);
+
+        // The update mode is only sent when it changes.
+        log.clear();
+        driver.setPixels(8, 2, 8, 1, new byte[] {(byte) 0xff});
+        driver.flush();
+        assertEquals("W8,2,15,2", log.get(0));
+    }
+
+    @Test
+    public void testRegionsAreMergedWhileBusy() throws InterruptedException {
+        driver.setPartialUpdatePolicy(PartialUpdatePolicy.FULL_UPDATES_ONLY);
+        busy.on();
+        driver.setPixels(0, 0, 8, 1, new byte[] {1});
+        driver.flush();
+        driver.setPixels(16, 3, 8, 1, new byte[] {2});
+        driver.flush();
+        assertEquals(List.of(), log);
+
+        busy.off();
+        awaitActivation();
+        driver.flush();
+        assertEquals(List.of(
+                "MFULL", "W0,0,23,3",
+                "C24", "D010000" + "000000" + "000000" + "000002",
+                "W0,0,23,3",
+                "C26", "D010000" + "000000" + "000000" + "000002",
+                "C20"), log);
+    }
+
+    @Test
+    public void testRedRamFollowsTheShownImage() {
+        driver.setPixels(0, 0, 24, 4, new byte[12]);
+        driver.flush();
+
+        driver.setPixels(0, 0, 8, 1, new byte[] {0x11});
+        driver.flush();
+        driver.setPixels(16, 3, 8, 1, new byte[] {0x22});
+        driver.flush();
+
+        // The first window was brought in line before the second refresh; the second window still holds the
+        // previous image for the partial waveform.
+        byte[] expectedRed = new byte[12];
+        expectedRed[0] = 0x11;
+        assertEquals(HexFormat.of().formatHex(expectedRed), HexFormat.of().formatHex(redRam));
+
+        driver.setPixels(8, 1, 8, 1, new byte[] {0x33});
+        driver.flush();
+        expectedRed[11] = 0x22;
+        assertEquals(HexFormat.of().formatHex(expectedRed), HexFormat.of().formatHex(redRam));
+        expectedRed[4] = 0x33;
+        assertEquals(HexFormat.of().formatHex(expectedRed), HexFormat.of().formatHex(bwRam));
+    }
+
+    @Test
+    public void testFallingBusyRefreshesQueuedRegionAndSyncsRedRam() throws InterruptedException {
+        driver.setPixels(0, 0, 24, 4, new byte[12]);
+        driver.flush();
+        driver.setPixels(0, 0, 8, 1, new byte[] {0x11});
+        driver.flush();
+
+        // The panel is refreshing; the change is queued.
+        busy.on();
+        driver.setPixels(16, 3, 8, 1, new byte[] {0x22});
+        driver.flush();
+        log.clear();
+
+        // No flush() call: the falling edge syncs the red RAM and refreshes the queued region.
+        busy.off();
+        awaitActivation();
+        assertEquals(List.of(
+                "W0,0,7,0", "C26", "D11",
+                "W16,3,23,3", "C26", "D00", "W16,3,23,3", "C24", "D22", "C20"), log);
+        byte[] expectedRed = new byte[12];
+        expectedRed[0] = 0x11;
+        assertEquals(HexFormat.of().formatHex(expectedRed), HexFormat.of().formatHex(redRam));
+    }
+
+    @Test
+    public void testUnalignedWidth() {
+        // Two rows of 4 pixels: 1010 and 0101.
+        driver.setPixels(0, 0, 4, 2, new byte[] {(byte) 0xa5});
+        driver.flush();
+        assertEquals("Da050", log.get(3));
+    }
+
+    @Test
+    public void testGhostingBudget() {
+        PartialUpdatePolicy policy = PartialUpdatePolicy.ghostingBudget(2, 1000);
+        assertEquals(true, policy.shouldPerformPartialUpdate(0, 0, 10, 10));
+        assertEquals(true, policy.shouldPerformPartialUpdate(0, 0, 10, 10));
+        assertEquals(false, policy.shouldPerformPartialUpdate(0, 0, 10, 10));
+        assertEquals(true, policy.shouldPerformPartialUpdate(0, 0, 10, 10));
+        assertEquals(false, policy.shouldPerformPartialUpdate(0, 0, 40, 40));
+    }
+
+    class TestDriver extends EpaperDriver {
+        TestDriver() {
+            super(controller, dc, new ListenableOnOffRead.Impl(false), busy, 24, 4, PixelFormat.MONOCHROME);
+        }
+
+        @Override
+        protected void setWindow(int xStart, int yStart, int xEnd, int yEnd) {
+            log.add("W" + xStart + "," + yStart + "," + xEnd + "," + yEnd);
+            window = new int[] {xStart, yStart, xEnd, yEnd};
+            ramPosition = 0;
+        }
+
+        @Override
+        protected void setUpdateMode(UpdateMode mode) {
+            log.add("M" + mode);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.pi4j.drivers.display.graphics.framebuffer;
+
+import com.pi4j.drivers.display.graphics.GraphicsDisplay;
+import com.pi4j.drivers.display.graphics.PixelFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Uses regular temporary files in place of the framebuffer device, with the screen info the device would report.
+ */
+public class FramebufferDriverTest {
+
+    private static File createDevice(int size) throws IOException {
+        File device = Files.createTempFile("fb", ".raw").toFile();
+        device.deleteOnExit();
+        Files.write(device.toPath(), new byte[size]);
+        return device;
+    }
+
+    private static void assertPixelsWritten(boolean memoryMapped) throws IOException {
+        // 4x3 pixels with 2 bytes of padding per line.
+        FramebufferMapping.ScreenInfo screenInfo = new FramebufferMapping.ScreenInfo(4, 3, 0, 0, 16, 11, 10);
+        File device = createDevice(30);
+
+        FramebufferDriver driver = FramebufferDriver.open(device.getPath(), screenInfo, memoryMapped);
+        assertEquals(memoryMapped, driver.isMemoryMapped());
+        assertEquals(4, driver.getDisplayInfo().getWidth());
+        assertEquals(3, driver.getDisplayInfo().getHeight());
+        assertEquals(PixelFormat.RGB_565_LE, driver.getDisplayInfo().getPixelFormat());
+
+        GraphicsDisplay display = new GraphicsDisplay(driver);
+        display.setTransferDelayMillis(-1);
+        display.setPixel(1, 2, 0xff0000);
+        display.setPixel(3, 0, 0x0000ff);
+        display.close();
+
+        byte[] content = Files.readAllBytes(device.toPath());
+        // Red in little endian 565 at line 2, column 1
+        assertEquals(0x00, content[2 * 10 + 2] & 0xff);
+        assertEquals(0xf8, content[2 * 10 + 3] & 0xff);
+        // Blue at line 0, column 3
+        assertEquals(0x1f, content[6] & 0xff);
+        assertEquals(0x00, content[7] & 0xff);
+    }
+
+    @Test
+    public void testMemoryMapped() throws IOException {
+        assertPixelsWritten(true);
+    }
+
+    @Test
+    public void testChannelWrites() throws IOException {
+        assertPixelsWritten(false);
+    }
+
+    @Test
+    public void testPaddedLinesAreNotTransferredAsBlock() throws IOException {
+        FramebufferMapping.ScreenInfo screenInfo = new FramebufferMapping.ScreenInfo(2, 2, 0, 0, 16, 11, 6);
+        File device = createDevice(12);
+        Files.write(device.toPath(), new byte[] {0, 0, 0, 0, 0x55, 0x55, 0, 0, 0, 0, 0x55, 0x55});
+
+        FramebufferDriver driver = FramebufferDriver.open(device.getPath(), screenInfo, true);
+        driver.setPixels(0, 0, 2, 2, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        driver.close();
+
+        byte[] content = Files.readAllBytes(device.toPath());
+        assertEquals(0x55, content[4]);
+        assertEquals(5, content[6]);
+        assertEquals(0x55, content[11]);
+    }
+
+    @Test
+    public void testPanned32BitFramebuffer() throws IOException {
+        // 2x2 visible pixels at 1, 1 in a 4x3 virtual framebuffer.
+        FramebufferMapping.ScreenInfo screenInfo = new FramebufferMapping.ScreenInfo(2, 2, 1, 1, 32, 16, 16);
+        File device = createDevice(64);
+
+        FramebufferDriver driver = FramebufferDriver.open(device.getPath(), screenInfo, true);
+        assertEquals(PixelFormat.XRGB_8888_LE, driver.getDisplayInfo().getPixelFormat());
+        GraphicsDisplay display = new GraphicsDisplay(driver);
+        display.setTransferDelayMillis(-1);
+        display.setPixel(0, 0, 0xff0000);
+        display.setPixel(1, 1, 0x0000ff);
+        display.close();
+
+        byte[] content = Files.readAllBytes(device.toPath());
+        assertArrayEquals(new byte[] {0, 0, (byte) 0xff, 0}, Arrays.copyOfRange(content, 20, 24));
+        assertArrayEquals(new byte[] {(byte) 0xff, 0, 0, 0}, Arrays.copyOfRange(content, 40, 44));
+    }
+
+    @Test
+    public void testUnsupportedFormatIsRejected() {
+        // 32 bit with red in the low byte (XBGR).
+        FramebufferMapping.ScreenInfo screenInfo = new FramebufferMapping.ScreenInfo(2, 2, 0, 0, 32, 0, 8);
+        assertThrows(IllegalArgumentException.class, () -> FramebufferDriver.open("/dev/null", screenInfo, false));
+    }
+
+    @Test
+    public void testFileSmallerThanTheFramebufferIsRejected() throws IOException {
+        FramebufferMapping.ScreenInfo screenInfo = new FramebufferMapping.ScreenInfo(2, 2, 0, 0, 16, 11, 4);
+        File device = createDevice(6);
+        assertThrows(IllegalArgumentException.class, () -> FramebufferDriver.open(device.getPath(), screenInfo, true));
+    }
+
+    /** Framebuffer devices are character devices; /dev/zero is one that can be mapped, too. */
+    @Test
+    public void testCharacterDeviceIsMapped() {
+        FramebufferMapping.ScreenInfo screenInfo = new FramebufferMapping.ScreenInfo(8, 4, 0, 0, 32, 16, 32);
+        FramebufferDriver driver = FramebufferDriver.open("/dev/zero", screenInfo, true);
+        assertTrue(driver.isMemoryMapped());
+        driver.setPixels(0, 0, 8, 4, new byte[8 * 4 * 4]);
+        driver.close();
+
+        // Not a framebuffer: the screen info query fails.
+        assertThrows(IllegalStateException.class, () -> FramebufferMapping.readScreenInfo("/dev/zero"));
+    }
+}
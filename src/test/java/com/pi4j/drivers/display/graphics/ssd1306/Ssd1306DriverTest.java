@@ -0,0 +1,101 @@
+package com.pi4j.drivers.display.graphics.ssd1306;
+
+import com.pi4j.drivers.FakeI2C;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class Ssd1306DriverTest {
+
+    private final FakeI2C i2c = new FakeI2C();
+    private Ssd1306Driver driver;
+
+    @BeforeEach
+    public void setUp() {
+        driver = new Ssd1306Driver(i2c);
+        i2c.clearWrites();
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+
+    private static byte[] last(List<byte[]> writes) {
+        return writes.get(writes.size() - 1);
+    }
+
+    @Test
+    public void testTranspose() {
+        // Row 0: leftmost pixel only; row 7: all pixels.
+        long rows = 0x80L | 0xFFL << 56;
+        long columns = Ssd1306Driver.transpose8x8(rows);
+        assertEquals(0x81, (int) (columns >>> 56) & 0xFF);
+        for (int i = 1; i < 8; i++) {
+            assertEquals(0x80, (int) (columns >>> (56 - 8 * i)) & 0xFF);
+        }
+    }
+
+    @Test
+    public void testOnlyModifiedWindowIsSent() {
+        byte[] data = new byte[2 * 8];
+        data[0] = (byte) 0x80;
+        driver.setPixels(8, 8, 16, 8, data);
+        driver.flush();
+
+        List<byte[]> writes = i2c.getWrites();
+        assertEquals(3, writes.size());
+        assertArrayEquals(bytes(0x00, 0x21, 8, 8), writes.get(0));
+        assertArrayEquals(bytes(0x00, 0x22, 1, 1), writes.get(1));
+        assertArrayEquals(bytes(0x40, 0x01), writes.get(2));
+
+        // Unchanged data doesn't need to be sent again.
+        i2c.clearWrites();
+        driver.setPixels(8, 8, 16, 8, data);
+        driver.flush();
+        assertEquals(0, i2c.getWrites().size());
+    }
+
+    @Test
+    public void testPackedPathMatchesPixelPath() {
+        byte[] data = new byte[128 * 64 / 8];
+        new Random(1).nextBytes(data);
+
+        FakeI2C pixelI2c = new FakeI2C();
+        Ssd1306Driver pixelDriver = new Ssd1306Driver(pixelI2c);
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 128; x++) {
+                int bitIndex = y * 128 + x;
+                if ((data[bitIndex / 8] & (0x80 >> (bitIndex % 8))) != 0) {
+                    pixelDriver.setPixelOn(x, y);
+                }
+            }
+        }
+        pixelI2c.clearWrites();
+        pixelDriver.sendBuffer();
+        List<byte[]> pixelWrites = pixelI2c.getWrites();
+
+        driver.setPixels(0, 0, 128, 64, data);
+        i2c.clearWrites();
+        driver.sendBuffer();
+        assertArrayEquals(pixelWrites.get(pixelWrites.size() - 1), last(i2c.getWrites()));
+
+        // Unaligned rows use the bitwise path.
+        i2c.clearWrites();
+        driver.clear();
+        driver.setPixels(0, 0, 128, 3, Arrays.copyOfRange(data, 0, 48));
+        driver.setPixels(0, 3, 128, 61, Arrays.copyOfRange(data, 48, data.length));
+        i2c.clearWrites();
+        driver.sendBuffer();
+        assertArrayEquals(pixelWrites.get(pixelWrites.size() - 1), last(i2c.getWrites()));
+    }
+}
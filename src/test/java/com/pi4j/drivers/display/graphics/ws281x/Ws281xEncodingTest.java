@@ -0,0 +1,36 @@
+package com.pi4j.drivers.display.graphics.ws281x;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class Ws281xEncodingTest {
+
+    @Test
+    public void testEncode() {
+        assertEquals(0x88888888, Ws281xDriver.encode(0));
+        assertEquals(0xcccccccc, Ws281xDriver.encode(255));
+        assertEquals(0xc88c8c8c, Ws281xDriver.encode(0b1001_0101));
+    }
+
+    @Test
+    public void testEncodingTableMatchesBrightnessScaling() {
+        int[] table = Ws281xDriver.createEncodingTable(64, 1, new int[] {255, 255, 255});
+        for (int value = 0; value < 256; value++) {
+            int expected = Ws281xDriver.encode(value * 64 / 255);
+            for (int channel = 0; channel < 3; channel++) {
+                assertEquals(expected, table[(channel << 8) | value]);
+            }
+        }
+    }
+
+    @Test
+    public void testGammaAndWhiteBalance() {
+        int[] table = Ws281xDriver.createEncodingTable(255, 2, new int[] {255, 128, 0});
+        // Gamma 2: 128 -> round(255 * (128 / 255)^2) = 64
+        assertEquals(Ws281xDriver.encode(64), table[128]);
+        assertEquals(Ws281xDriver.encode(32), table[256 + 128]);
+        assertEquals(Ws281xDriver.encode(0), table[512 + 255]);
+        assertEquals(Ws281xDriver.encode(255), table[255]);
+    }
+}
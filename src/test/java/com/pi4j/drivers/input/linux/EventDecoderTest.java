@@ -0,0 +1,76 @@
+package com.pi4j.drivers.input.linux;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EventDecoderTest {
+
+    private final EventDecoder decoder = new EventDecoder();
+    private final List<List<LinuxInputDriver.Event>> frames = new ArrayList<>();
+    private final ByteBuffer buffer = ByteBuffer.allocate(16 * LinuxInputDriver.Event.STRUCT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    @Test
+    public void testEventsAreGroupedIntoFrames() {
+        putEvent(LinuxInputDriver.EV_ABS, LinuxInputDriver.ABS_X, 100);
+        putEvent(LinuxInputDriver.EV_ABS, LinuxInputDriver.ABS_Y, 200);
+        putEvent(LinuxInputDriver.EV_SYN, LinuxInputDriver.SYN_REPORT, 0);
+        putEvent(LinuxInputDriver.EV_REL, LinuxInputDriver.REL_WHEEL, -1);
+        putEvent(LinuxInputDriver.EV_SYN, LinuxInputDriver.SYN_REPORT, 0);
+        decode();
+
+        assertEquals(2, frames.size());
+        assertEquals(2, frames.get(0).size());
+        assertEquals(LinuxInputDriver.ABS_Y, frames.get(0).get(1).getCode());
+        assertEquals(200, frames.get(0).get(1).getValue());
+        assertEquals(LinuxInputDriver.EV_REL, frames.get(1).get(0).getType());
+        assertEquals(-1, frames.get(1).get(0).getValue());
+    }
+
+    @Test
+    public void testPartialEventsAreRetained() {
+        putEvent(LinuxInputDriver.EV_KEY, LinuxInputDriver.KEY_UP, LinuxInputDriver.STATE_PRESS);
+        putEvent(LinuxInputDriver.EV_SYN, LinuxInputDriver.SYN_REPORT, 0);
+        byte[] data = new byte[buffer.position()];
+        buffer.flip().get(data).clear();
+
+        // Split the data in the middle of the second event.
+        buffer.put(data, 0, data.length - 10);
+        decode();
+        assertEquals(0, frames.size());
+
+        buffer.put(data, data.length - 10, 10);
+        decode();
+        assertEquals(1, frames.size());
+        assertEquals(LinuxInputDriver.KEY_UP, frames.get(0).get(0).getCode());
+    }
+
+    @Test
+    public void testDroppedFramesAreDiscarded() {
+        putEvent(LinuxInputDriver.EV_ABS, LinuxInputDriver.ABS_X, 1);
+        putEvent(LinuxInputDriver.EV_SYN, LinuxInputDriver.SYN_DROPPED, 0);
+        putEvent(LinuxInputDriver.EV_ABS, LinuxInputDriver.ABS_Y, 2);
+        putEvent(LinuxInputDriver.EV_SYN, LinuxInputDriver.SYN_REPORT, 0);
+        putEvent(LinuxInputDriver.EV_ABS, LinuxInputDriver.ABS_X, 3);
+        putEvent(LinuxInputDriver.EV_SYN, LinuxInputDriver.SYN_REPORT, 0);
+        decode();
+
+        assertEquals(1, frames.size());
+        assertEquals(3, frames.get(0).get(0).getValue());
+    }
+
+    private void putEvent(int type, int code, int value) {
+        buffer.putLong(1234).putLong(5678).putShort((short) type).putShort((short) code).putInt(value);
+    }
+
+    /** Mimics processing the data of a read call; the decoder leaves the buffer ready for the next read. */
+    private void decode() {
+        buffer.flip();
+        decoder.decode(buffer, frames::add);
+    }
+}
@@ -7,6 +7,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
@@ -435,6 +437,80 @@ class Lr1121DriverTest {
         assertEquals(0, transport.transactionCount());
     }
 
+    // ------------------------------------------------------------------
+    // In the background
+    // ------------------------------------------------------------------
+
+    /**
+     * Listening is one SetRx for as long as it lasts. The radio goes back to
+     * receive by itself after a packet, so a gateway does not spend the time
+     * between one packet and the next re-arming a receiver that is off.
+     */
+    @Test
+    void aListenerIsHandedEachPacketWhileTheRadioKeepsListening() throws Exception {
+        transport.willAnswerDirectly(0x00, 0x00, 0x00, 0x00, 0x00, 0x08);   // RX done
+        transport.willAnswer(0x01, 0x00);
+        transport.willAnswer(0x42);
+        transport.willAnswer(0x94, 0x14, 0x00);
+        transport.willKeepAnsweringDirectly(0, 0, 0, 0, 0, 0);
+        CompletableFuture<Lr1121Driver.ReceivedPacket> heard = new CompletableFuture<>();
+
+        radio.listen(Lr1121Driver.LoraSettings.defaults(), heard::complete);
+        Lr1121Driver.ReceivedPacket packet = heard.get(5, TimeUnit.SECONDS);
+        radio.close();
+
+        assertArrayEquals(new byte[] {0x42}, packet.payload());
+        assertEquals(1, transport.transactions().stream().filter("0209FFFFFF"::equals).count());
+    }
+
+    @Test
+    void aQueuedPacketIsSentWithoutHoldingTheCaller() throws Exception {
+        transport.willAnswerDirectly(0x00, 0x00, 0x00, 0x00, 0x00, 0x04);   // TX done
+
+        radio.transmitAsync(new byte[] {0x01, 0x02, 0x03}, Lr1121Driver.LoraSettings.defaults(), 14,
+                Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS);
+        radio.close();
+
+        assertEquals("0109010203", transport.transactionFor("0109"));
+        assertTrue(indexOfCommand("0109") < indexOfCommand("020A"));
+    }
+
+    @Test
+    void aPayloadTooLargeIsRefusedBeforeItIsQueued() {
+        assertThrows(IllegalArgumentException.class, () -> radio.transmitAsync(
+                new byte[256], Lr1121Driver.LoraSettings.defaults(), 14, Duration.ofSeconds(5)));
+
+        assertEquals(0, transport.transactionCount());
+    }
+
+    /** The packets go to the listener; a second reader would only steal some of them. */
+    @Test
+    void aBlockingReceiveIsRefusedWhileListening() {
+        transport.willKeepAnsweringDirectly(0, 0, 0, 0, 0, 0);
+        radio.listen(Lr1121Driver.LoraSettings.defaults(), packet -> { });
+
+        assertThrows(IllegalStateException.class,
+                () -> radio.receive(Lr1121Driver.LoraSettings.defaults(), Duration.ofMillis(50)));
+        radio.close();
+    }
+
+    /** New packet parameters are only written to a radio that is not receiving. */
+    @Test
+    void listeningWithNewSettingsGoesThroughStandby() throws Exception {
+        transport.willKeepAnsweringDirectly(0, 0, 0, 0, 0, 0);
+
+        radio.listen(Lr1121Driver.LoraSettings.defaults(), packet -> { });
+        awaitTransactions("0209FFFFFF", 1);
+        radio.listen(Lr1121Driver.LoraSettings.defaults().withSpreadingFactor(7), packet -> { });
+        awaitTransactions("0209FFFFFF", 2);
+        radio.close();
+
+        var transactions = transport.transactions();
+        int firstRx = transactions.indexOf("0209FFFFFF");
+        int secondRx = transactions.lastIndexOf("0209FFFFFF");
+        assertTrue(transactions.subList(firstRx, secondRx).contains("011C00"));
+    }
+
     // ------------------------------------------------------------------
 
     @Test
@@ -444,6 +520,28 @@ class Lr1121DriverTest {
         assertTrue(transport.closed);
     }
 
+    /** Closing does not leave a listening radio in receive. */
+    @Test
+    void closingTheRadioPutsItInStandbyFirst() throws Exception {
+        transport.willKeepAnsweringDirectly(0, 0, 0, 0, 0, 0);
+        radio.listen(Lr1121Driver.LoraSettings.defaults(), packet -> { });
+        awaitTransactions("0209FFFFFF", 1);
+
+        radio.close();
+
+        assertEquals("011C00", transport.transactions().getLast());
+        assertTrue(transport.closed);
+    }
+
+    /** Waits for the background thread to have written a transaction the given number of times. */
+    private void awaitTransactions(String hex, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (transport.transactions().stream().filter(hex::equals).count() < count) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + hex);
+            Thread.sleep(10);
+        }
+    }
+
     private int indexOfCommand(String opcodeHex) {
         var transactions = transport.transactions();
         for (int i = 0; i < transactions.size(); i++) {
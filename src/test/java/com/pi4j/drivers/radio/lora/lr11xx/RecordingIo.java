@@ -42,7 +42,7 @@ class RecordingIo implements Lr11xxIo {
      * in front of every response and this adds it, so that a test reads like the
      * datasheet rather than like the wire.
      */
-    void willAnswer(int... bytes) {
+    synchronized void willAnswer(int... bytes) {
         answers.addLast(new Answer(toBytes(bytes), true));
     }
 
@@ -50,17 +50,17 @@ class RecordingIo implements Lr11xxIo {
      * Queues the bytes of a direct read, which has no status byte in front of it
      * because its first byte is one. GetStatus is read this way.
      */
-    void willAnswerDirectly(int... bytes) {
+    synchronized void willAnswerDirectly(int... bytes) {
         answers.addLast(new Answer(toBytes(bytes), false));
     }
 
     /** What a direct read returns from then on, however many times it happens. */
-    void willKeepAnsweringDirectly(int... bytes) {
+    synchronized void willKeepAnsweringDirectly(int... bytes) {
         whenNothingLeft = new Answer(toBytes(bytes), false);
     }
 
     /** The same for a command's answer, for a radio that never changes its mind. */
-    void willKeepAnswering(int... bytes) {
+    synchronized void willKeepAnswering(int... bytes) {
         whenNothingLeft = new Answer(toBytes(bytes), true);
     }
 
@@ -73,12 +73,12 @@ class RecordingIo implements Lr11xxIo {
     }
 
     @Override
-    public void writeBytes(byte[] bytes) {
+    public synchronized void writeBytes(byte[] bytes) {
         written.add(bytes.clone());
     }
 
     @Override
-    public void readBytes(byte[] into) {
+    public synchronized void readBytes(byte[] into) {
         Answer answer = answers.pollFirst();
         if (answer == null) {
             answer = whenNothingLeft;
@@ -117,7 +117,7 @@ class RecordingIo implements Lr11xxIo {
     // ------------------------------------------------------------------
 
     /** Every transaction, as hex, oldest first. */
-    List<String> transactions() {
+    synchronized List<String> transactions() {
         return written.stream().map(HexFormat.of().withUpperCase()::formatHex).toList();
     }
 
@@ -135,7 +135,7 @@ class RecordingIo implements Lr11xxIo {
                         "No command " + opcodeHex + " among " + transactions()));
     }
 
-    int transactionCount() {
+    synchronized int transactionCount() {
         return written.size();
     }
 }
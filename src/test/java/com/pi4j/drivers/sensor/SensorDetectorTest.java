@@ -0,0 +1,119 @@
+package com.pi4j.drivers.sensor;
+
+import com.pi4j.drivers.FakeI2C;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SensorDetectorTest {
+
+    private static final int ID_REGISTER = 0xd0;
+
+    /** Devices present on the fake buses: bus -> address -> id register value. */
+    private static final Map<Integer, Map<Integer, Integer>> DEVICES = Map.of(
+            1, Map.of(0x76, 0x60),
+            2, Map.of(0x76, 0x58, 0x77, 0x60));
+
+    /** The fake devices created by the scan, by bus and address. */
+    private final Map<String, FakeI2C> created = new ConcurrentHashMap<>();
+
+    private static SensorDescriptor descriptor(String name, int id) {
+        return new SensorDescriptor.Builder(name)
+                .addValue(SensorDescriptor.Kind.TEMPERATURE)
+                .addI2cAddress(0x76)
+                .addI2cAddress(0x77)
+                .setI2cIdRegister(ID_REGISTER, id)
+                .build();
+    }
+
+    private FakeI2C createI2c(int bus, int address) {
+        FakeI2C i2c = new FakeI2C();
+        Integer id = DEVICES.get(bus).get(address);
+        i2c.present = id != null;
+        if (id != null) {
+            i2c.registerValues[ID_REGISTER] = id.byteValue();
+        }
+        created.put(bus + ":" + Integer.toHexString(address), i2c);
+        return i2c;
+    }
+
+    private static Sensor createDriver(SensorDescriptor descriptor, FakeI2C i2c) {
+        return new FakeSensor(descriptor.getSensorName());
+    }
+
+    @Test
+    public void testAddressFirstScan() {
+        SensorDetector.ScanResult result = SensorDetector.scan(
+                List.of(descriptor("BME", 0x60), descriptor("BMP", 0x58)),
+                EnumSet.allOf(SensorDescriptor.Kind.class),
+                new int[] {1, 2},
+                this::createI2c,
+                SensorDetectorTest::createDriver);
+
+        List<String> names = new ArrayList<>();
+        for (Sensor sensor : result.getSensors()) {
+            names.add(((FakeSensor) sensor).name);
+        }
+        assertEquals(List.of("BME", "BMP", "BME"), names);
+        // Each address is probed once, with a single id read shared by both descriptors.
+        assertEquals(4, result.getProbedAddressCount());
+        assertEquals(4, result.getIdReadCount());
+        int reads = 0;
+        List<String> closed = new ArrayList<>();
+        for (Map.Entry<String, FakeI2C> entry : created.entrySet()) {
+            reads += entry.getValue().getReadCount();
+            if (entry.getValue().closed) {
+                closed.add(entry.getKey());
+            }
+        }
+        // Only successful reads are counted by the fake; 1:77 has no device.
+        assertEquals(3, reads);
+        assertEquals(List.of("1:77"), closed);
+        assertEquals(2, result.getBusScanTimes().size());
+    }
+
+    @Test
+    public void testKindsFilterDescriptors() {
+        SensorDetector.ScanResult result = SensorDetector.scan(
+                List.of(descriptor("BME", 0x60)),
+                EnumSet.of(SensorDescriptor.Kind.CO2),
+                new int[] {1},
+                this::createI2c,
+                SensorDetectorTest::createDriver);
+        assertEquals(0, result.getSensors().size());
+        assertEquals(0, result.getProbedAddressCount());
+    }
+
+    static class FakeSensor implements Sensor {
+        final String name;
+
+        FakeSensor(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public SensorDescriptor getDescriptor() {
+            return null;
+        }
+
+        @Override
+        public void readMeasurement(double[] values) {
+        }
+
+        @Override
+        public Instant getBusyUntil() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
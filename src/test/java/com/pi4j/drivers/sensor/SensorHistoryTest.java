@@ -0,0 +1,108 @@
+package com.pi4j.drivers.sensor;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SensorHistoryTest {
+
+    private static final SensorDescriptor DESCRIPTOR = new SensorDescriptor.Builder("Test")
+            .addValue(SensorDescriptor.Kind.TEMPERATURE)
+            .addValue(SensorDescriptor.Kind.HUMIDITY)
+            .build();
+
+    private static final int TEMPERATURE = DESCRIPTOR.indexOf(SensorDescriptor.Kind.TEMPERATURE);
+    private static final int HUMIDITY = DESCRIPTOR.indexOf(SensorDescriptor.Kind.HUMIDITY);
+
+    /** Creates a history with the given capacity, containing count samples at 1 second intervals. */
+    private static SensorHistory createHistory(int capacity, int count) {
+        SensorHistory history = new SensorHistory(DESCRIPTOR, capacity);
+        for (int i = 0; i < count; i++) {
+            history.add(i * 1000L, new double[] {20 + i, 50 - i});
+        }
+        return history;
+    }
+
+    @Test
+    public void testOldestSamplesAreReplaced() {
+        SensorHistory history = createHistory(5, 8);
+        assertEquals(5, history.size());
+        assertEquals(3000, history.getTimestamp(0));
+        assertEquals(23, history.getValue(0, TEMPERATURE));
+        assertEquals(43, history.getValue(4, HUMIDITY));
+    }
+
+    @Test
+    public void testAggregate() {
+        SensorHistory history = createHistory(100, 10);
+        assertEquals(22, history.aggregate(TEMPERATURE, 2000, 5000, SensorHistory.Aggregation.MIN));
+        assertEquals(24, history.aggregate(TEMPERATURE, 2000, 5000, SensorHistory.Aggregation.MAX));
+        assertEquals(23, history.aggregate(TEMPERATURE, 2000, 5000, SensorHistory.Aggregation.MEAN));
+        assertEquals(3, history.aggregate(HUMIDITY, 2000, 5000, SensorHistory.Aggregation.COUNT));
+        assertTrue(Double.isNaN(history.aggregate(TEMPERATURE, 20_000, 30_000, SensorHistory.Aggregation.MEAN)));
+    }
+
+    @Test
+    public void testEwmaFollowsValues() {
+        SensorHistory history = createHistory(100, 10);
+        double ewma = history.ewma(TEMPERATURE, 0, Long.MAX_VALUE, Duration.ofSeconds(2));
+        assertTrue(ewma > 24.5 && ewma < 29, "ewma: " + ewma);
+        assertEquals(29, history.ewma(TEMPERATURE, 0, Long.MAX_VALUE, Duration.ofMillis(1)), 1e-9);
+    }
+
+    @Test
+    public void testDownsample() {
+        SensorHistory history = createHistory(100, 10);
+        double[] buckets = new double[4];
+        int count = history.downsample(TEMPERATURE, 0, 16_000, SensorHistory.Aggregation.MEAN, buckets);
+        assertEquals(10, count);
+        assertEquals(21.5, buckets[0]);
+        assertEquals(25.5, buckets[1]);
+        assertEquals(28.5, buckets[2]);
+        assertTrue(Double.isNaN(buckets[3]));
+
+        history.downsample(TEMPERATURE, 0, 16_000, SensorHistory.Aggregation.COUNT, buckets);
+        assertEquals(0, buckets[3]);
+    }
+
+    @Test
+    public void testAddFromSampleBuffer() {
+        SampleBuffer buffer = new SampleBuffer(2, 8);
+        buffer.add(1000, new double[] {1, 2});
+        buffer.add(2000, new double[] {3, 4});
+
+        SensorHistory history = new SensorHistory(DESCRIPTOR, 10);
+        long next = history.addFrom(buffer, 0);
+        buffer.add(3000, new double[] {5, 6});
+        history.addFrom(buffer, next);
+
+        assertEquals(3, history.size());
+        assertEquals(5, history.getValue(2, TEMPERATURE));
+    }
+
+    @Test
+    public void testAddFromClampsClockSteps() {
+        SampleBuffer buffer = new SampleBuffer(2, 8);
+        buffer.add(5000, new double[] {1, 2});
+        buffer.add(3000, new double[] {3, 4});
+        buffer.add(6000, new double[] {5, 6});
+
+        SensorHistory history = new SensorHistory(DESCRIPTOR, 10);
+        assertEquals(3, history.addFrom(buffer, 0));
+
+        assertEquals(3, history.size());
+        assertEquals(5000, history.getTimestamp(1));
+        assertEquals(3, history.getValue(1, TEMPERATURE));
+        assertEquals(6000, history.getTimestamp(2));
+    }
+
+    @Test
+    public void testDecreasingTimestampIsRejected() {
+        SensorHistory history = createHistory(10, 2);
+        assertThrows(IllegalArgumentException.class, () -> history.add(0, new double[2]));
+    }
+}
@@ -0,0 +1,104 @@
+package com.pi4j.drivers.sensor;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SensorSamplerTest {
+
+    @Test
+    public void testSampleBufferWrapsAround() {
+        SampleBuffer buffer = new SampleBuffer(2, 4);
+        double[] values = new double[2];
+        assertEquals(-1, buffer.getLatest(values));
+
+        for (int i = 0; i < 10; i++) {
+            buffer.add(1000 + i, new double[] {i, -i});
+        }
+
+        assertEquals(10, buffer.getSampleCount());
+        assertEquals(7, buffer.getOldestSequence());
+        assertEquals(1009, buffer.getLatest(values));
+        assertEquals(9, values[0]);
+        assertEquals(-9, values[1]);
+
+        assertEquals(1007, buffer.getSample(7, values));
+        assertEquals(7, values[0]);
+        assertEquals(-1, buffer.getSample(5, values));
+        assertEquals(-1, buffer.getSample(10, values));
+    }
+
+    @Test
+    public void testSensorsAreSampledInBackground() throws InterruptedException {
+        CountingSensor sensor = new CountingSensor();
+        try (SensorSampler sampler = new SensorSampler()) {
+            SampleBuffer buffer = sampler.add(sensor, Duration.ofMillis(5));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (buffer.getSampleCount() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            double[] values = new double[1];
+            long timestamp = buffer.getLatest(values);
+            assertTrue(buffer.getSampleCount() >= 3);
+            assertTrue(timestamp > 0);
+            assertTrue(values[0] >= 3);
+
+            sampler.remove(sensor);
+            int reads = sensor.reads.get();
+            Thread.sleep(50);
+            // At most one read in flight during removal.
+            assertTrue(sensor.reads.get() <= reads + 1);
+        }
+    }
+
+    @Test
+    public void testErrorsAreRecorded() throws InterruptedException {
+        CountingSensor sensor = new CountingSensor();
+        sensor.fail = true;
+        try (SensorSampler sampler = new SensorSampler()) {
+            SampleBuffer buffer = sampler.add(sensor, Duration.ofMillis(5));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (buffer.getErrorCount() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(buffer.getErrorCount() >= 2);
+            assertEquals(0, buffer.getSampleCount());
+        }
+    }
+
+    static class CountingSensor implements Sensor {
+        static final SensorDescriptor DESCRIPTOR = new SensorDescriptor.Builder("Counter")
+                .addValue(SensorDescriptor.Kind.VOLTAGE)
+                .build();
+
+        final AtomicInteger reads = new AtomicInteger();
+        volatile boolean fail;
+
+        @Override
+        public SensorDescriptor getDescriptor() {
+            return DESCRIPTOR;
+        }
+
+        @Override
+        public void readMeasurement(double[] values) {
+            if (fail) {
+                throw new IllegalStateException("Read failed");
+            }
+            values[0] = reads.incrementAndGet();
+        }
+
+        @Override
+        public Instant getBusyUntil() {
+            return Instant.now();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
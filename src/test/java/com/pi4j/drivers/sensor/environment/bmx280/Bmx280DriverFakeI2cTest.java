@@ -14,6 +14,69 @@ public class Bmx280DriverFakeI2cTest extends AbstractBmx280DriverTest {
         assertEquals(Bmx280Driver.Model.BME280, driver.getModel());
     }
 
+    @Test
+    public void testArrayMeasurementMatchesMeasurement() {
+        Bmx280Driver driver = createDriver();
+        Bmx280Driver.Measurement measurement = driver.readMeasurement();
+        double[] values = new double[3];
+        driver.readMeasurement(values);
+
+        assertEquals(measurement.getTemperature(), values[0], 1e-3);
+        assertEquals(measurement.getPressure(), values[1], 1e-1);
+        assertEquals(measurement.getHumidity(), values[2], 1e-3);
+    }
+
+    @Test
+    public void testIntegerCompensationMatchesFloatingPoint() {
+        Bmx280Driver driver = createDriver();
+        double[] expected = new double[3];
+        driver.readMeasurement(expected);
+
+        driver.setIntegerCompensation(true);
+        double[] values = new double[3];
+        driver.readMeasurement(values);
+
+        assertEquals(expected[0], values[0], 0.01);
+        assertEquals(expected[1], values[1], 1);
+        assertEquals(expected[2], values[2], 0.1);
+    }
+
+    /**
+     * Uses the calibration and ADC values of the compensation example in section 8.2 of the BMP280 datasheet, with
+     * garbage in the unused low nibble of the XLSB registers. The humidity calibration has negative dig_H4 and dig_H5
+     * values, which share the nibbles of 0xE5; the expected humidity is computed with the datasheet formula.
+     */
+    @Test
+    public void testDatasheetReferenceValues() {
+        FakeI2CRegisterDataReaderWriter fakeI2c = new FakeI2CRegisterDataReaderWriter();
+        fakeI2c.write(new byte[]{(byte) Bmp280Constants.CHIP_ID, Bmp280Constants.ID_VALUE_BME});
+
+        // dig_T1 = 27504, dig_T2 = 26435, dig_T3 = -1000, dig_P1 = 36477, dig_P2 = -10685, dig_P3 = 3024,
+        // dig_P4 = 2855, dig_P5 = 140, dig_P6 = -7, dig_P7 = 15500, dig_P8 = -14600, dig_P9 = 6000, dig_H1 = 75
+        fakeI2c.write(new byte[] {(byte) 0x88,
+                112, 107, 67, 103, 24, -4, 125, -114, 67, -42, -48, 11, 39, 11, -116, 0,
+                -7, -1, -116, 60, -8, -58, 112, 23, 0, 75});
+
+        // dig_H2 = 362, dig_H3 = 0, dig_H4 = -20 (0xFE << 4 | 0xC), dig_H5 = -50 (0xFC << 4 | 0xE), dig_H6 = 30
+        fakeI2c.write(new byte[] {(byte) 0xe1, 0x6a, 0x01, 0, (byte) 0xfe, (byte) 0xec, (byte) 0xfc, 30});
+
+        // adc_P = 415148 (0x655AC), adc_T = 519888 (0x7EED0), adc_H = 8000 (0x1F40)
+        fakeI2c.write(new byte[] {(byte) 0xf7, 0x65, 0x5a, (byte) 0xc5, 0x7e, (byte) 0xed, 0x0f, 0x1f, 0x40});
+
+        Bmx280Driver driver = new Bmx280Driver(fakeI2c);
+        double[] values = new double[3];
+        driver.readMeasurement(values);
+        assertEquals(25.08, values[0], 0.01);
+        assertEquals(100653.27, values[1], 0.01);
+        assertEquals(52.926, values[2], 0.001);
+
+        driver.setIntegerCompensation(true);
+        driver.readMeasurement(values);
+        assertEquals(25.08, values[0], 1e-9);
+        assertEquals(100653.27, values[1], 0.5);
+        assertEquals(52.93, values[2], 0.1);
+    }
+
     @Override
     Bmx280Driver createDriver() {
         FakeI2CRegisterDataReaderWriter fakeI2c =  new FakeI2CRegisterDataReaderWriter();